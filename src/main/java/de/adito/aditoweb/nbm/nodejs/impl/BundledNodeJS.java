@@ -43,7 +43,7 @@ public class BundledNodeJS
    * @return the bundled executor
    */
   @NotNull
-  public INodeJSExecutor getBundledExecutor()
+  public NodeJSExecutorImpl getBundledExecutor()
   {
     return NodeJSExecutorImpl.getInternalUnboundExecutor(getBundledNodeJSContainer());
   }
@@ -1,12 +1,13 @@
 package de.adito.aditoweb.nbm.nodejs.impl;
 
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import de.adito.aditoweb.nbm.nbide.nbaditointerface.javascript.node.*;
-import org.buildobjects.process.ProcBuilder;
+import de.adito.aditoweb.nbm.nodejs.impl.jfr.NodeJSProcessEvent;
+import de.adito.aditoweb.nbm.nodejs.impl.process.*;
+import io.reactivex.rxjava3.core.*;
+import io.reactivex.rxjava3.schedulers.Schedulers;
 import org.jetbrains.annotations.*;
 import org.netbeans.api.project.Project;
 import org.openide.filesystems.FileUtil;
-import org.openide.util.BaseUtilities;
 import org.openide.util.lookup.ServiceProvider;
 
 import java.io.*;
@@ -20,20 +21,17 @@ import java.util.concurrent.*;
 @ServiceProvider(service = INodeJSExecutor.class, path = "Projects/de-adito-project/Lookup")
 public class NodeJSExecutorImpl implements INodeJSExecutor
 {
-  private static final String _PATH_ENVIRONMENT = "PATH";
+  private static final int _CAPTURE_HEAP_LIMIT = 4 * 1024 * 1024;
 
   private final File workingDir;
-  private final ExecutorService processExecutor = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
-                                                                                    .setDaemon(true)
-                                                                                    .setNameFormat("tNodeJSExecutor-%d")
-                                                                                    .build());
+  private final ENodeJSProcessPriority priority;
 
   /**
    * @param pDirectory Directory to execute commands in
    * @return an executor that is not bound to a project
    */
   @NotNull
-  public static INodeJSExecutor getInternalUnboundExecutor(@NotNull File pDirectory)
+  public static NodeJSExecutorImpl getInternalUnboundExecutor(@NotNull File pDirectory)
   {
     return new NodeJSExecutorImpl(pDirectory);
   }
@@ -51,8 +49,33 @@ public class NodeJSExecutorImpl implements INodeJSExecutor
   }
 
   private NodeJSExecutorImpl(@NotNull File pWorkingDir)
+  {
+    this(pWorkingDir, ENodeJSProcessPriority.USER);
+  }
+
+  private NodeJSExecutorImpl(@NotNull File pWorkingDir, @NotNull ENodeJSProcessPriority pPriority)
   {
     workingDir = pWorkingDir;
+    priority = pPriority;
+  }
+
+  /**
+   * @param pPriority priority of all processes started by the returned executor
+   * @return an executor for the same working directory, that starts its processes with the given priority
+   */
+  @NotNull
+  public NodeJSExecutorImpl withPriority(@NotNull ENodeJSProcessPriority pPriority)
+  {
+    return new NodeJSExecutorImpl(workingDir, pPriority);
+  }
+
+  /**
+   * @return the priority of all processes started by this executor
+   */
+  @NotNull
+  public ENodeJSProcessPriority getPriority()
+  {
+    return priority;
   }
 
   @NotNull
@@ -60,26 +83,60 @@ public class NodeJSExecutorImpl implements INodeJSExecutor
   public String executeSync(@NotNull INodeJSEnvironment pEnv, @NotNull INodeJSExecBase pBase, long pTimeout, @NotNull String... pParams)
       throws IOException, InterruptedException, TimeoutException
   {
-    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    // versions are answered by the helper daemon, if it is enabled, so they do not need a node start
+    String version = NodeJSHelperDaemon.tryGetVersion(pEnv, pBase, pTimeout, pParams);
+    if (version != null)
+      return version;
+
+    try (NodeJSCapturedOutput output = executeCaptured(pEnv, pBase, pTimeout, pParams))
+    {
+      // Copy result to string and trim trailing linebreak - huge output is shortened, so it is never loaded completely
+      return output.getExcerpt(_CAPTURE_HEAP_LIMIT).trim();
+    }
+  }
+
+  /**
+   * Executes the given command synchronously and captures its output with bounded memory.
+   * Output that does not fit in memory will be spilled to a temporary file, so the returned output has to be closed.
+   *
+   * @param pEnv     environment
+   * @param pBase    base
+   * @param pTimeout timeout in milliseconds, -1 to wait forever
+   * @param pParams  parameters
+   * @return the captured output
+   */
+  @NotNull
+  public NodeJSCapturedOutput executeCaptured(@NotNull INodeJSEnvironment pEnv, @NotNull INodeJSExecBase pBase, long pTimeout, @NotNull String... pParams)
+      throws IOException, InterruptedException, TimeoutException
+  {
+    NodeJSOutputCapture capture = new NodeJSOutputCapture(_CAPTURE_HEAP_LIMIT);
 
     // create and start
-    Future<Integer> process = executeAsync(pEnv, pBase, baos, baos, null, pParams);
+    Future<Integer> process = executeAsync(pEnv, pBase, capture, capture, null, pParams);
 
+    int exitCode;
     try
     {
       // wait until finished
       if (pTimeout > -1)
-        process.get(pTimeout, TimeUnit.MILLISECONDS);
+        exitCode = process.get(pTimeout, TimeUnit.MILLISECONDS);
       else
-        process.get();
+        exitCode = process.get();
     }
     catch (ExecutionException e)
     {
+      capture.discard();
       throw new IOException(e);
     }
+    catch (InterruptedException | TimeoutException e)
+    {
+      // terminate the process tree, so that nothing keeps running in the background
+      process.cancel(true);
+      capture.discard();
+      throw e;
+    }
 
-    // Copy result to string and trim trailing linebreak
-    return baos.toString(StandardCharsets.UTF_8).trim();
+    return capture.finish(exitCode);
   }
 
   @NotNull
@@ -90,58 +147,258 @@ public class NodeJSExecutorImpl implements INodeJSExecutor
     _checkValid(pEnv);
 
     // Prepare Process
-    ArrayList<String> params = new ArrayList<>(Arrays.asList(pParams));
-    params.add(0, _getCommandPath(pEnv, pBase).getAbsolutePath());
-    return new ProcessBuilder(params)
-        .directory(workingDir)
-        .start();
+    NodeJSLaunchSpec spec = NodeJSLaunchSpec.get(pEnv, pBase, workingDir);
+    List<String> params = priority.wrapCommand(spec.getCommand(pParams));
+
+    // the process counts against the limits of the scheduler until it has exited, so this call blocks while the limits are reached
+    CompletableFuture<Process> spawn = NodeJSProcessScheduler.getInstance().spawn(priority, () -> {
+      try
+      {
+        NodeJSProcessEvent event = new NodeJSProcessEvent();
+        event.begin();
+        Process process = _acquireWarm(spec, pEnv, params);
+        if (process == null)
+          process = _start(new ProcessBuilder(params).directory(workingDir), pEnv, pBase);
+        _monitor(process, pBase, pParams);
+        process.onExit().thenAccept(pExited -> _commitEvent(event, params, pExited, pExited.exitValue(), -1));
+        return process;
+      }
+      catch (IOException e)
+      {
+        throw new CompletionException(e);
+      }
+    }, null);
+
+    try
+    {
+      return spawn.get();
+    }
+    catch (InterruptedException e)
+    {
+      // a queued process must not be started anymore, a started one will be terminated by the scheduler
+      spawn.cancel(false);
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for a free nodejs process slot");
+    }
+    catch (ExecutionException e)
+    {
+      Throwable cause = e.getCause() instanceof CompletionException && e.getCause().getCause() != null ? e.getCause().getCause() : e.getCause();
+      if (cause instanceof IOException)
+        throw (IOException) cause;
+      throw new IOException(cause);
+    }
   }
 
   @NotNull
   @Override
-  public CompletableFuture<Integer> executeAsync(@NotNull INodeJSEnvironment pEnv, @NotNull INodeJSExecBase pBase,
-                                                 @NotNull OutputStream pDefaultOut, @Nullable OutputStream pErrorOut, @Nullable InputStream pDefaultIn,
-                                                 @NotNull String... pParams)
+  public NodeJSProcessFuture executeAsync(@NotNull INodeJSEnvironment pEnv, @NotNull INodeJSExecBase pBase,
+                                          @NotNull OutputStream pDefaultOut, @Nullable OutputStream pErrorOut, @Nullable InputStream pDefaultIn,
+                                          @NotNull String... pParams)
   {
-    // execute
-    return CompletableFuture.supplyAsync(() -> {
-      // Invalid Environment
-      _checkValid(pEnv);
+    return executeAsync(pEnv, pBase, null, pDefaultOut, pErrorOut, pDefaultIn, pParams);
+  }
 
-      // Prepare Process
-      ProcBuilder builder = new ProcBuilder(_getCommandPath(pEnv, pBase).getAbsolutePath(), pParams);
+  /**
+   * Executes the given command asynchronously with additional environment variables
+   *
+   * @param pEnv        environment
+   * @param pBase       base
+   * @param pOverrides  environment variables, that should be set for this process only, NULL if there are none
+   * @param pDefaultOut stream for stdout
+   * @param pErrorOut   stream for stderr, NULL to use pDefaultOut
+   * @param pDefaultIn  stream to read stdin from, NULL if the process does not get any input
+   * @param pParams     parameters
+   * @return future that completes with the exit code, cancel it to terminate the process tree
+   */
+  @NotNull
+  public NodeJSProcessFuture executeAsync(@NotNull INodeJSEnvironment pEnv, @NotNull INodeJSExecBase pBase, @Nullable Map<String, String> pOverrides,
+                                          @NotNull OutputStream pDefaultOut, @Nullable OutputStream pErrorOut, @Nullable InputStream pDefaultIn,
+                                          @NotNull String... pParams)
+  {
+    _RunningProcess running = new _RunningProcess();
 
-      // set all environments variables
-      for (Map.Entry<String, String> entry : System.getenv().entrySet())
+    // execute in the shared scheduler, so that the count of concurrent processes stays limited
+    CompletableFuture<Integer> scheduled = NodeJSProcessScheduler.getInstance().submit(priority, () -> {
+      try
+      {
+        return _run(running, pEnv, pBase, pOverrides, pDefaultOut, pErrorOut, pDefaultIn, pParams);
+      }
+      catch (IOException | InterruptedException e)
       {
-        String key = entry.getKey();
-        // modify path with our node environment
-        if (key.equalsIgnoreCase(_PATH_ENVIRONMENT))
-          builder.withVar(_PATH_ENVIRONMENT, pEnv.getPath().getParent() + _getSeparator() + entry.getValue());
-        else
-          builder.withVar(entry.getKey(), entry.getValue());
+        throw new CompletionException(e);
       }
+    }, pOccupied -> _logWaiting(pOccupied, pDefaultOut));
 
-      builder.withWorkingDirectory(workingDir)
-          .withOutputStream(pDefaultOut)
-          .withErrorStream(pErrorOut == null ? pDefaultOut : pErrorOut)
-          .withInputStream(pDefaultIn)
-          .withNoTimeout()
-          .ignoreExitStatus();
+    NodeJSProcessFuture result = new NodeJSProcessFuture();
+    scheduled.whenComplete((pExitCode, pEx) -> {
+      if (pEx != null)
+        result.completeExceptionally(pEx);
+      else
+        result.complete(pExitCode);
+    });
 
-      // log command
-      _logCommand(builder, pDefaultOut);
+    // cancelling the future has to terminate the whole process tree, not only the root process
+    result.whenComplete((pExitCode, pEx) -> {
+      if (result.isCancelled())
+      {
+        scheduled.cancel(false);
+        running.kill().whenComplete((pKilled, pKillEx) -> result.terminated());
+      }
+      else
+        result.terminated();
+    });
 
-      return builder.run().getExitValue();
-    }, processExecutor);
+    return result;
   }
 
+  /**
+   * Starts the process and pumps all of its streams until it is finished
+   *
+   * @param pRunning    holder for the running process
+   * @param pEnv        environment
+   * @param pBase       base
+   * @param pOverrides  environment variables, that should be set for this process only, NULL if there are none
+   * @param pDefaultOut stream for stdout
+   * @param pErrorOut   stream for stderr, NULL to use pDefaultOut
+   * @param pDefaultIn  stream to read stdin from, NULL if the process does not get any input
+   * @param pParams     parameters
+   * @return the exit code of the process
+   */
+  private int _run(@NotNull _RunningProcess pRunning, @NotNull INodeJSEnvironment pEnv, @NotNull INodeJSExecBase pBase, @Nullable Map<String, String> pOverrides,
+                   @NotNull OutputStream pDefaultOut, @Nullable OutputStream pErrorOut, @Nullable InputStream pDefaultIn,
+                   @NotNull String... pParams) throws IOException, InterruptedException
+  {
+    // Invalid Environment
+    _checkValid(pEnv);
+
+    // Prepare Process
+    NodeJSLaunchSpec spec = NodeJSLaunchSpec.get(pEnv, pBase, workingDir);
+    ProcessBuilder builder = spec.createProcessBuilder(pOverrides, pParams);
+    List<String> params = priority.wrapCommand(builder.command());
+    builder.command(params);
+
+    // log command
+    _logCommand(params, pDefaultOut);
+
+    NodeJSProcessEvent event = new NodeJSProcessEvent();
+    event.begin();
+    Process process = pRunning.start(() -> {
+      // idle processes of the pool were started without the additional variables
+      Process warm = pOverrides == null || pOverrides.isEmpty() ? _acquireWarm(spec, pEnv, params) : null;
+      return warm != null ? warm : _start(builder, pEnv, pBase);
+    });
+    _monitor(process, pBase, pParams);
+    OutputStream errorOut = pErrorOut == null ? pDefaultOut : pErrorOut;
+
+    // all streams are copied by the shared pump engine, so no thread is blocked by an idle stream
+    NodeJSStreamPumpEngine pumps = NodeJSStreamPumpEngine.getInstance();
+    CompletableFuture<Long> outputPump = pumps.pumpOutput(process, process.getInputStream(), pDefaultOut);
+    CompletableFuture<Long> errorPump = pumps.pumpOutput(process, process.getErrorStream(), errorOut);
+    Future<?> inputPump = null;
+    if (pDefaultIn != null)
+      inputPump = pumps.pumpInput(pDefaultIn, process);
+    else
+      process.getOutputStream().close();
+
+    try
+    {
+      int exitCode = process.waitFor();
+
+      // all output has to be copied completely, before the result will be published
+      long outputBytes = outputPump.get() + errorPump.get();
+      _commitEvent(event, params, process, exitCode, outputBytes);
+      return exitCode;
+    }
+    catch (ExecutionException e)
+    {
+      throw new IOException(e.getCause());
+    }
+    finally
+    {
+      // stdin may never end, so it will not be waited for
+      if (inputPump != null)
+        inputPump.cancel(true);
+      process.getInputStream().close();
+      process.getErrorStream().close();
+    }
+  }
+
+  /**
+   * Executes the given command and publishes its output line by line.
+   * The process will be started by the scheduler on subscription and its whole process tree will be terminated on disposal.
+   * The process does not get any input, so its stdin will be closed immediately.
+   * Lines are only read, if they were requested downstream, so a slow consumer slows down the process instead of filling the heap.
+   *
+   * @param pEnv    environment
+   * @param pBase   base
+   * @param pParams parameters
+   * @return Flowable with all lines of stdout and stderr, completes if both streams are closed
+   */
+  @NotNull
+  public Flowable<NodeJSOutputLine> executeStreaming(@NotNull INodeJSEnvironment pEnv, @NotNull INodeJSExecBase pBase, @NotNull String... pParams)
+  {
+    return Flowable.defer(() -> {
+      // Invalid Environment
+      _checkValid(pEnv);
+
+      // Prepare Process
+      ProcessBuilder builder = NodeJSLaunchSpec.get(pEnv, pBase, workingDir).createProcessBuilder(null, pParams);
+      List<String> params = priority.wrapCommand(builder.command());
+      builder.command(params);
+
+      // the process counts against the limits of the scheduler until it has exited, reading is done by the subscriber
+      _RunningProcess running = new _RunningProcess();
+      CompletableFuture<Process> spawn = NodeJSProcessScheduler.getInstance().spawn(priority, () -> {
+        try
+        {
+          NodeJSProcessEvent event = new NodeJSProcessEvent();
+          event.begin();
+          Process process = running.start(() -> _start(builder, pEnv, pBase));
+          _monitor(process, pBase, pParams);
+          process.onExit().thenAccept(pExited -> _commitEvent(event, params, pExited, pExited.exitValue(), -1));
+          process.getOutputStream().close();
+          return process;
+        }
+        catch (IOException e)
+        {
+          throw new CompletionException(e);
+        }
+      }, null);
+
+      return Single.fromCompletionStage(spawn)
+          .flatMapPublisher(pProcess -> Flowable.merge(_readLines(pProcess.getInputStream(), NodeJSOutputLine.EStream.OUT),
+                                                       _readLines(pProcess.getErrorStream(), NodeJSOutputLine.EStream.ERR)))
+          .doFinally(() -> {
+            // a queued process must not be started anymore and a running one has to be terminated with all of its descendants
+            spawn.cancel(false);
+            running.kill();
+          });
+    });
+  }
+
+  /**
+   * Reads the given stream line by line, but only as fast as the lines are requested
+   *
+   * @param pStream Stream to read
+   * @param pType   type of the stream
+   * @return Flowable with all lines of the stream
+   */
   @NotNull
-  private String _getSeparator()
+  private Flowable<NodeJSOutputLine> _readLines(@NotNull InputStream pStream, @NotNull NodeJSOutputLine.EStream pType)
   {
-    if (BaseUtilities.isWindows())
-      return ";";
-    return ":";
+    return Flowable.<NodeJSOutputLine, BufferedReader>generate(
+            () -> new BufferedReader(new InputStreamReader(pStream, StandardCharsets.UTF_8)),
+            (pReader, pEmitter) -> {
+              String line = pReader.readLine();
+              if (line == null)
+                pEmitter.onComplete();
+              else
+                pEmitter.onNext(new NodeJSOutputLine(pType, System.currentTimeMillis(), line));
+            },
+            BufferedReader::close)
+
+        // reading blocks, so every stream needs its own thread
+        .subscribeOn(Schedulers.io());
   }
 
   /**
@@ -156,29 +413,110 @@ public class NodeJSExecutorImpl implements INodeJSExecutor
   }
 
   /**
-   * Constructs the correct command path
+   * Starts the given builder. The launch specification will be invalidated, if the process could not be started,
+   * because the cached executable may not be valid anymore.
    *
-   * @param pEnv  environment
-   * @param pBase base
-   * @return the path file
+   * @param pBuilder builder to start
+   * @param pEnv     environment of the launch specification
+   * @param pBase    base of the launch specification
+   * @return the started process
    */
   @NotNull
-  private File _getCommandPath(@NotNull INodeJSEnvironment pEnv, @NotNull INodeJSExecBase pBase)
+  private Process _start(@NotNull ProcessBuilder pBuilder, @NotNull INodeJSEnvironment pEnv, @NotNull INodeJSExecBase pBase) throws IOException
+  {
+    try
+    {
+      return pBuilder.start();
+    }
+    catch (IOException e)
+    {
+      NodeJSLaunchSpec.invalidate(pEnv, pBase, workingDir);
+      throw e;
+    }
+  }
+
+  /**
+   * Takes over a pre-started node process of the warm pool, if the pool is enabled and the command runs a node script
+   *
+   * @param pSpec    launch specification of the command
+   * @param pEnv     environment
+   * @param pCommand full command
+   * @return the process, that runs the command, or NULL if it has to be started normally
+   */
+  @Nullable
+  private Process _acquireWarm(@NotNull NodeJSLaunchSpec pSpec, @NotNull INodeJSEnvironment pEnv, @NotNull List<String> pCommand)
+  {
+    // the command was changed, e.g. to run with lower priority
+    if (!NodeJSWarmProcessPool.isEnabled() || !pCommand.get(0).equals(pSpec.getExecutable()))
+      return null;
+
+    String script;
+    List<String> arguments;
+    if (pSpec.getExecutable().equals(pEnv.getPath().getAbsolutePath()))
+    {
+      // node itself, the first parameter has to be the script
+      if (pCommand.size() < 2 || pCommand.get(1).startsWith("-"))
+        return null;
+      script = pCommand.get(1);
+      arguments = pCommand.subList(2, pCommand.size());
+    }
+    else if (pSpec.isNodeScript())
+    {
+      script = pSpec.getExecutable();
+      arguments = pCommand.subList(1, pCommand.size());
+    }
+    else
+      return null;
+
+    return NodeJSWarmProcessPool.getInstance().acquire(pEnv.getPath(), pSpec.getEnvironmentOverrides(), workingDir, script, arguments);
+  }
+
+  /**
+   * Registers the given process at the process monitor, so that its resources will be recorded
+   *
+   * @param pProcess process that was started
+   * @param pBase    base of the process
+   * @param pParams  parameters of the process
+   */
+  private void _monitor(@NotNull Process pProcess, @NotNull INodeJSExecBase pBase, @NotNull String... pParams)
+  {
+    NodeJSProcessMonitor.getInstance().monitor(pProcess, pBase.getBasePath(), Arrays.asList(pParams));
+  }
+
+  /**
+   * Commits the flight recorder event of a finished process
+   *
+   * @param pEvent       event, that was started before the process was launched
+   * @param pCommand     command, including all parameters
+   * @param pProcess     process, that has exited
+   * @param pExitCode    exit code of the process
+   * @param pOutputBytes count of bytes the process has written to stdout and stderr, -1 if unknown
+   */
+  private static void _commitEvent(@NotNull NodeJSProcessEvent pEvent, @NotNull List<String> pCommand, @NotNull Process pProcess,
+                                   int pExitCode, long pOutputBytes)
   {
-    return pBase.isRelativeToWorkingDir() ? new File(workingDir, pBase.getBasePath()) : pEnv.resolveExecBase(pBase);
+    if (!pEvent.shouldCommit())
+      return;
+
+    pEvent.end();
+    pEvent.setCommand(String.join(" ", pCommand));
+    pEvent.setPid(pProcess.pid());
+    pEvent.setExitCode(pExitCode);
+    pEvent.setOutputBytes(pOutputBytes);
+    pEvent.commit();
   }
 
   /**
-   * Logs the command of the given proc builder to the given output stream
+   * Logs the given command to the given output stream
    *
-   * @param pBuilder Builder
+   * @param pCommand command, including all parameters
    * @param pOut     Stream to log to
    */
-  private void _logCommand(@NotNull ProcBuilder pBuilder, @NotNull OutputStream pOut)
+  private void _logCommand(@NotNull List<String> pCommand, @NotNull OutputStream pOut)
   {
     try
     {
-      pOut.write(pBuilder.getCommandLine().getBytes(StandardCharsets.UTF_8));
+      pOut.write(String.join(" ", pCommand).getBytes(StandardCharsets.UTF_8));
       pOut.write('\n');
       pOut.flush();
     }
@@ -188,4 +526,70 @@ public class NodeJSExecutorImpl implements INodeJSExecutor
     }
   }
 
+  /**
+   * Tells the user, that the process has to wait for a free slot in the scheduler
+   *
+   * @param pOccupied count of processes, that occupy a slot
+   * @param pOut      stream to write to
+   */
+  private void _logWaiting(int pOccupied, @NotNull OutputStream pOut)
+  {
+    try
+    {
+      pOut.write(("Waiting for " + pOccupied + " other nodejs processes to start, before this process can be started...\n").getBytes(StandardCharsets.UTF_8));
+      pOut.flush();
+    }
+    catch (Exception e)
+    {
+      // do nothing, just dont log
+    }
+  }
+
+  /**
+   * Starts a single process
+   */
+  private interface _IProcessStarter
+  {
+    @NotNull
+    Process start() throws IOException;
+  }
+
+  /**
+   * Holds the process of a single asynchronous execution, so that it can be terminated if the execution was cancelled
+   */
+  private static class _RunningProcess
+  {
+    private Process process;
+    private boolean killed;
+
+    /**
+     * Starts the process, if the execution was not cancelled yet
+     *
+     * @param pStarter starts the process
+     * @return the started process
+     */
+    @NotNull
+    public synchronized Process start(@NotNull _IProcessStarter pStarter) throws IOException
+    {
+      if (killed)
+        throw new CancellationException();
+      process = pStarter.start();
+      return process;
+    }
+
+    /**
+     * Terminates the process and all of its descendants
+     *
+     * @return future that completes, if all processes have exited
+     */
+    @NotNull
+    public synchronized CompletableFuture<Integer> kill()
+    {
+      killed = true;
+      if (process == null)
+        return CompletableFuture.completedFuture(0);
+      return NodeJSProcessTreeKiller.terminateAsync(process);
+    }
+  }
+
 }
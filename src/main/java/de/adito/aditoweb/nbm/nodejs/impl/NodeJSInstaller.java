@@ -1,8 +1,10 @@
 package de.adito.aditoweb.nbm.nodejs.impl;
 
 import de.adito.aditoweb.nbm.nbide.nbaditointerface.javascript.node.*;
+import de.adito.aditoweb.nbm.nodejs.impl.jfr.NodeJSInstallerEvent;
 import de.adito.aditoweb.nbm.nodejs.impl.options.NodeJSOptions;
 import de.adito.aditoweb.nbm.nodejs.impl.options.downloader.INodeJSDownloader;
+import de.adito.aditoweb.nbm.nodejs.impl.process.*;
 import org.jetbrains.annotations.NotNull;
 import org.netbeans.api.progress.*;
 import org.openide.util.*;
@@ -73,17 +75,28 @@ public class NodeJSInstaller implements Runnable
 
     // download
     pHandle.progress(Bundle.LBL_Progress_Download_Execute(version));
-    INodeJSDownloader downloader = INodeJSDownloader.getInstance();
-    File binFile = downloader.downloadVersion(version, target.getParentFile());
-    File nodeVersionContainer = downloader.findInstallationFromNodeExecutable(binFile);
+    NodeJSInstallerEvent event = new NodeJSInstallerEvent("downloadNodeJS");
+    event.begin();
+    event.setCommand(version);
+    File binFile;
+    try
+    {
+      INodeJSDownloader downloader = INodeJSDownloader.getInstance();
+      binFile = downloader.downloadVersion(version, target.getParentFile());
+      File nodeVersionContainer = downloader.findInstallationFromNodeExecutable(binFile);
 
-    // rename to target
-    if (nodeVersionContainer != null)
-      if (nodeVersionContainer.renameTo(target))
-        binFile = downloader.findNodeExecutableInInstallation(target);
+      // rename to target
+      if (nodeVersionContainer != null)
+        if (nodeVersionContainer.renameTo(target))
+          binFile = downloader.findNodeExecutableInInstallation(target);
 
-    // update integrity
-    _updateIntegrity(target, version);
+      // update integrity
+      _updateIntegrity(target, version);
+    }
+    finally
+    {
+      event.commit();
+    }
 
     // update options to use new binary
     if (binFile != null && !NodeJSOptions.getInstance().isPathValid())
@@ -114,7 +127,8 @@ public class NodeJSInstaller implements Runnable
     // prepare
     List<String> packagesToInstall = IBundledPackages.getPreinstalledPackages();
     pHandle.switchToDeterminate(packagesToInstall.size());
-    INodeJSExecutor executor = BundledNodeJS.getInstance().getBundledExecutor();
+    // installing runs in background, it must not slow down the language server or the user
+    NodeJSExecutorImpl executor = BundledNodeJS.getInstance().getBundledExecutor().withPriority(ENodeJSProcessPriority.BACKGROUND);
     INodeJSEnvironment environment = BundledNodeJS.getInstance().getBundledEnvironment();
 
     // download and install all "preinstalled" packages, so they will be available at runtime
@@ -124,17 +138,43 @@ public class NodeJSInstaller implements Runnable
 
       // Install
       pHandle.progress(Bundle.LBL_Progress_Download(pkg));
-      executor.executeSync(environment, INodeJSExecBase.packageManager(), -1, "install", "--prefix", target.getAbsolutePath(), pkg);
+      _executeAndDiscardOutput(executor, environment, "install", "--prefix", target.getAbsolutePath(), pkg);
 
       // Update
       pHandle.progress(Bundle.LBL_Progress_Update(pkg));
-      executor.executeSync(environment, INodeJSExecBase.packageManager(), -1, "update", "--prefix", target.getAbsolutePath(), pkg);
+      _executeAndDiscardOutput(executor, environment, "update", "--prefix", target.getAbsolutePath(), pkg);
 
       // Progress
       pHandle.progress(i + 1);
     }
   }
 
+  /**
+   * Executes the package manager and waits until it is finished.
+   * Its output is not needed, so it will only be captured with bounded memory and released afterwards.
+   *
+   * @param pExecutor    executor to use
+   * @param pEnvironment environment to use
+   * @param pParams      parameters of the package manager
+   */
+  private void _executeAndDiscardOutput(@NotNull NodeJSExecutorImpl pExecutor, @NotNull INodeJSEnvironment pEnvironment, @NotNull String... pParams)
+      throws IOException, InterruptedException, TimeoutException
+  {
+    NodeJSInstallerEvent event = new NodeJSInstallerEvent(pParams[0]);
+    event.begin();
+    event.setCommand(String.join(" ", pParams));
+    try (NodeJSCapturedOutput output = pExecutor.executeCaptured(pEnvironment, INodeJSExecBase.packageManager(), -1, pParams))
+    {
+      // output is not needed, only its size
+      event.setExitCode(output.getExitCode());
+      event.setOutputBytes(output.getSize());
+    }
+    finally
+    {
+      event.commit();
+    }
+  }
+
   /**
    * Determines, if the integrity of pTarget can be checked and the check is OK
    *
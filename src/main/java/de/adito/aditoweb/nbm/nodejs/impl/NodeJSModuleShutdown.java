@@ -0,0 +1,29 @@
+package de.adito.aditoweb.nbm.nodejs.impl;
+
+import de.adito.aditoweb.nbm.nodejs.impl.process.*;
+import de.adito.aditoweb.nbm.nodejs.impl.runconfig.NodeJSRunningScripts;
+import org.openide.modules.OnStop;
+
+/**
+ * Releases all module wide resources, if the module gets stopped
+ *
+ * @author agent, 17.10.2026
+ */
+@OnStop
+public class NodeJSModuleShutdown implements Runnable
+{
+
+  @Override
+  public void run()
+  {
+    // running scripts have to be terminated first, their processes would survive the IDE otherwise
+    NodeJSRunningScripts.shutdownInstance();
+    NodeJSHelperDaemon.shutdownAll();
+    NodeJSProcessScheduler.shutdownInstance();
+    NodeJSProcessMonitor.shutdownInstance();
+    NodeJSStreamPumpEngine.shutdownInstance();
+    NodeJSWarmProcessPool.shutdownInstance();
+    NodeJSOutputBridge.shutdownAll();
+  }
+
+}
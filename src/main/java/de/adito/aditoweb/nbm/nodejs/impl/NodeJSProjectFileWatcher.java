@@ -0,0 +1,170 @@
+package de.adito.aditoweb.nbm.nodejs.impl;
+
+import de.adito.observables.netbeans.FileObservable;
+import io.reactivex.rxjava3.core.Observable;
+import org.jetbrains.annotations.*;
+import org.netbeans.api.project.Project;
+import org.openide.filesystems.*;
+import org.openide.util.lookup.ServiceProvider;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Watches the files of a single project.
+ * Every file is only watched once, no matter how many subscribers observe it. Events, that occur in a short period of time,
+ * are merged together, so that subscribers only get the latest state after a burst (e.g. a checkout or an npm install).
+ *
+ * @author agent, 17.10.2026
+ */
+@ServiceProvider(service = NodeJSProjectFileWatcher.class, path = "Projects/de-adito-project/Lookup")
+public class NodeJSProjectFileWatcher
+{
+
+  private static final long _BURST_WINDOW_MS = 200;
+  private static final Set<String> _IGNORED_DIRECTORIES = Set.of("node_modules", ".git");
+
+  private final Project project;
+  private final Function<File, Observable<Optional<File>>> watchFactory;
+  private final Map<String, Observable<Optional<File>>> watches = new ConcurrentHashMap<>();
+  private final AtomicInteger activeWatches = new AtomicInteger();
+  private Observable<File> changes;
+
+  /**
+   * Returns the watcher of the given project
+   *
+   * @param pProject Project
+   * @return the watcher
+   */
+  @NotNull
+  public static NodeJSProjectFileWatcher getInstance(@NotNull Project pProject)
+  {
+    NodeJSProjectFileWatcher watcher = pProject.getLookup().lookup(NodeJSProjectFileWatcher.class);
+
+    // should not happen, but the project may not provide the lookup of this module
+    if (watcher == null)
+      return new NodeJSProjectFileWatcher(pProject);
+    return watcher;
+  }
+
+  @SuppressWarnings("unused") // ServiceProvider
+  public NodeJSProjectFileWatcher()
+  {
+    this(null, FileObservable::create);
+  }
+
+  @SuppressWarnings("unused") // ServiceProvider
+  public NodeJSProjectFileWatcher(@NotNull Project pProject)
+  {
+    this(pProject, FileObservable::create);
+  }
+
+  NodeJSProjectFileWatcher(@Nullable Project pProject, @NotNull Function<File, Observable<Optional<File>>> pWatchFactory)
+  {
+    project = pProject;
+    watchFactory = pWatchFactory;
+  }
+
+  /**
+   * Observes a file of the project.
+   * All subscribers of the same file share one watch, that will be released if the last subscriber disposes.
+   *
+   * @param pRelativePath path of the file, relative to the project directory
+   * @return Observable that contains the file, if it exists
+   */
+  @NotNull
+  public Observable<Optional<File>> observe(@NotNull String pRelativePath)
+  {
+    assert project != null;
+    return watches.computeIfAbsent(pRelativePath, pPath -> _createWatch(new File(project.getProjectDirectory().getPath(), pPath)));
+  }
+
+  /**
+   * Observes all changes of files in the project directory and its subdirectories, except node_modules and .git.
+   * All subscribers share one recursive listener, that will be released if the last subscriber disposes.
+   *
+   * @return Observable that contains every file, that was created, changed, deleted or renamed
+   */
+  @NotNull
+  public synchronized Observable<File> observeChanges()
+  {
+    assert project != null;
+    if (changes == null)
+    {
+      File projectDir = new File(project.getProjectDirectory().getPath());
+      changes = Observable.<File>create(pEmitter -> {
+            FileChangeListener listener = new FileChangeAdapter()
+            {
+              @Override
+              public void fileDataCreated(FileEvent pEvent)
+              {
+                _emit(pEvent);
+              }
+
+              @Override
+              public void fileChanged(FileEvent pEvent)
+              {
+                _emit(pEvent);
+              }
+
+              @Override
+              public void fileDeleted(FileEvent pEvent)
+              {
+                _emit(pEvent);
+              }
+
+              @Override
+              public void fileRenamed(FileRenameEvent pEvent)
+              {
+                _emit(pEvent);
+              }
+
+              private void _emit(@NotNull FileEvent pEvent)
+              {
+                File file = FileUtil.toFile(pEvent.getFile());
+                if (file != null)
+                  pEmitter.onNext(file);
+              }
+            };
+
+            FileUtil.addRecursiveListener(listener, projectDir, pDir -> !_IGNORED_DIRECTORIES.contains(pDir.getName()), pEmitter::isDisposed);
+            pEmitter.setCancellable(() -> FileUtil.removeRecursiveListener(listener, projectDir));
+          })
+          .doOnSubscribe(pDisposable -> activeWatches.incrementAndGet())
+          .doFinally(activeWatches::decrementAndGet)
+          .share();
+    }
+    return changes;
+  }
+
+  /**
+   * @return the count of files and directory trees, that are currently watched
+   */
+  public int getActiveWatchCount()
+  {
+    return activeWatches.get();
+  }
+
+  /**
+   * Creates the shared watch of a single file
+   *
+   * @param pFile file to watch
+   * @return Observable that contains the file, if it exists
+   */
+  @NotNull
+  private Observable<Optional<File>> _createWatch(@NotNull File pFile)
+  {
+    return Observable.defer(() -> watchFactory.apply(pFile))
+        .doOnSubscribe(pDisposable -> activeWatches.incrementAndGet())
+        .doFinally(activeWatches::decrementAndGet)
+
+        // the first state is emitted immediately, all following ones at most once per window
+        .throttleLatest(_BURST_WINDOW_MS, TimeUnit.MILLISECONDS, true)
+        .replay(1)
+        .refCount();
+  }
+
+}
@@ -2,17 +2,20 @@ package de.adito.aditoweb.nbm.nodejs.impl;
 
 import de.adito.aditoweb.nbm.nbide.nbaditointerface.javascript.node.*;
 import de.adito.aditoweb.nbm.nodejs.impl.options.NodeJSOptions;
+import de.adito.aditoweb.nbm.nodejs.impl.parser.PackageParser;
 import de.adito.aditoweb.nbm.nodejs.impl.version.NodeJSEnvironmentFactory;
-import de.adito.observables.netbeans.FileObservable;
-import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.core.*;
 import io.reactivex.rxjava3.disposables.*;
 import org.jetbrains.annotations.NotNull;
 import org.netbeans.api.project.Project;
 import org.openide.util.lookup.ServiceProvider;
 
 import java.io.File;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * @author w.glanzer, 05.03.2021
@@ -22,6 +25,9 @@ public class NodeJSProviderImpl implements INodeJSProvider, Disposable
 {
   private final Project project;
   private final CompositeDisposable compositeDisposable = new CompositeDisposable();
+  private final AtomicReference<Optional<INodeJSEnvironment>> snapshot = new AtomicReference<>(Optional.empty());
+  private Observable<Optional<INodeJSEnvironment>> current;
+  private boolean snapshotConnected = false;
 
   @SuppressWarnings("unused") // ServiceProvider
   public NodeJSProviderImpl()
@@ -37,17 +43,37 @@ public class NodeJSProviderImpl implements INodeJSProvider, Disposable
 
   @NotNull
   @Override
-  public Observable<Optional<INodeJSEnvironment>> current()
+  public synchronized Observable<Optional<INodeJSEnvironment>> current()
   {
-    return Observable.combineLatest(_observeNodeJSVersion(), _observePackageJson(), _observeTSConfig(),
-                                    (pNodeJSOpt, pPackageJsonOpt, pTSConfigOpt) -> {
-                                      if (pNodeJSOpt.isPresent() && pPackageJsonOpt.isPresent())
-                                        return Optional.ofNullable(NodeJSEnvironmentFactory.create(pNodeJSOpt.get()));
-                                      return Optional.<INodeJSEnvironment>empty();
-                                    })
+    // all consumers share one pipeline, so the files are only watched and the binary is only probed once per project
+    if (current == null)
+      current = _createCurrent()
+          .doOnNext(snapshot::set)
+          .replay(1)
+          .refCount();
+    return current;
+  }
 
-        // we will throttle, so that the listening server wont trigger too often
-        .throttleLatest(500, TimeUnit.MILLISECONDS);
+  /**
+   * Returns the last known environment of this project.
+   * This method never blocks and never starts a process, so it can be called in the EDT.
+   * The first call keeps the shared pipeline of {@link #current()} connected until this provider is disposed,
+   * so the snapshot stays up to date in the background and selection changes do not rebuild the pipeline.
+   *
+   * @return the environment or an empty optional, if there is none or it was not determined yet
+   */
+  @NotNull
+  public Optional<INodeJSEnvironment> getSnapshot()
+  {
+    synchronized (this)
+    {
+      if (!snapshotConnected && !isDisposed())
+      {
+        snapshotConnected = true;
+        compositeDisposable.add(current().subscribe());
+      }
+    }
+    return snapshot.get();
   }
 
   @Override
@@ -62,6 +88,24 @@ public class NodeJSProviderImpl implements INodeJSProvider, Disposable
     return compositeDisposable.isDisposed();
   }
 
+  /**
+   * @return Observable that contains the current environment of this project
+   */
+  @NotNull
+  private Observable<Optional<INodeJSEnvironment>> _createCurrent()
+  {
+    return Observable.combineLatest(_observeNodeJSVersion(), _observePackageJson(), _observeTSConfig(),
+                                    (pNodeJSOpt, pPackageJsonOpt, pTSConfigExists) -> pNodeJSOpt.filter(pBinary -> pPackageJsonOpt.isPresent()))
+
+        // probe asynchronously, so that no emitting thread gets blocked - outdated probes will be cancelled
+        .switchMapSingle(pBinaryOpt -> pBinaryOpt
+            .map(NodeJSEnvironmentFactory::createSingle)
+            .orElseGet(() -> Single.just(Optional.empty())))
+
+        // we will throttle, so that the listening server wont trigger too often
+        .throttleLatest(500, TimeUnit.MILLISECONDS);
+  }
+
   /**
    * @return Observable that contains the current nodejs version specified in options
    */
@@ -80,23 +124,31 @@ public class NodeJSProviderImpl implements INodeJSProvider, Disposable
   }
 
   /**
-   * @return Observable that contains the current package.json
+   * @return Observable that contains the fingerprint of the current package.json.
+   * It only emits, if the file was created or deleted or if its scripts or engines have changed.
    */
   @NotNull
-  private Observable<Optional<File>> _observePackageJson()
+  private Observable<Optional<List<Map<String, String>>>> _observePackageJson()
   {
     assert project != null;
-    return FileObservable.create(new File(project.getProjectDirectory().getPath(), "package.json"));
+    return NodeJSProjectFileWatcher.getInstance(project).observe("package.json")
+        .map(pFileOpt -> pFileOpt
+            .map(PackageParser::getModel)
+            .map(pModel -> List.of(pModel.getScripts(), pModel.getEngines())))
+        .distinctUntilChanged();
   }
 
   /**
-   * @return Observable that contains the current tsconfig.json
+   * @return Observable that contains, if the current tsconfig.json exists.
+   * Changes of its content are not relevant for the environment.
    */
   @NotNull
-  private Observable<Optional<File>> _observeTSConfig()
+  private Observable<Boolean> _observeTSConfig()
   {
     assert project != null;
-    return FileObservable.create(new File(project.getProjectDirectory().getPath(), "tsconfig.json"));
+    return NodeJSProjectFileWatcher.getInstance(project).observe("tsconfig.json")
+        .map(Optional::isPresent)
+        .distinctUntilChanged();
   }
 
 }
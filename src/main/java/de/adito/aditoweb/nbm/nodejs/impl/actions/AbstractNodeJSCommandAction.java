@@ -3,6 +3,10 @@ package de.adito.aditoweb.nbm.nodejs.impl.actions;
 import com.google.common.base.Suppliers;
 import de.adito.aditoweb.nbm.nbide.nbaditointerface.common.IProjectQuery;
 import de.adito.aditoweb.nbm.nbide.nbaditointerface.javascript.node.*;
+import de.adito.aditoweb.nbm.nodejs.impl.NodeJSProviderImpl;
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
 import org.jetbrains.annotations.*;
 import org.netbeans.api.progress.*;
 import org.netbeans.api.project.Project;
@@ -11,8 +15,9 @@ import org.openide.util.NbBundle;
 import org.openide.util.actions.NodeAction;
 import org.openide.windows.*;
 
+import javax.swing.*;
 import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.*;
 import java.util.function.Supplier;
 import java.util.logging.*;
 
@@ -24,11 +29,14 @@ import java.util.logging.*;
 abstract class AbstractNodeJSCommandAction extends NodeAction
 {
 
+  private static final long _PERFORM_TIMEOUT_MS = 5000;
+  private Disposable pendingRefresh;
+
   @Override
   @NbBundle.Messages("LBL_PerformAction=Executing \"{0}\"")
   protected final void performAction(Node[] pActiveNodes)
   {
-    INodeJSEnvironment env = findCurrentEnvironment(pActiveNodes);
+    INodeJSEnvironment env = findCurrentEnvironment(pActiveNodes, _PERFORM_TIMEOUT_MS);
     INodeJSExecutor exec = findCurrentExecutor(pActiveNodes);
     if (env == null || exec == null)
       return;
@@ -62,7 +70,11 @@ abstract class AbstractNodeJSCommandAction extends NodeAction
   @Override
   protected boolean enable(Node[] pNodes)
   {
-    return findCurrentEnvironment(pNodes) != null && findCurrentExecutor(pNodes) != null;
+    // enabling must not block the EDT, so only the snapshot of the environment is read
+    boolean enabled = findCurrentEnvironment(pNodes, 0) != null && findCurrentExecutor(pNodes) != null;
+    if (!enabled)
+      _refreshIfProbed(pNodes);
+    return enabled;
   }
 
   /**
@@ -84,13 +96,46 @@ abstract class AbstractNodeJSCommandAction extends NodeAction
   protected abstract String getCommandDisplayName();
 
   /**
-   * Returns the current nodejs environment for the given nodes
+   * Returns the current nodejs environment for the given nodes.
+   * The snapshot of the environment will be used, if it is known. Otherwise it waits until the environment was probed.
+   *
+   * @param pNodes     Nodes
+   * @param pTimeoutMs time in milliseconds to wait for the environment at most, 0 to never block
+   * @return environment, NULL if there is none or it was not probed in time
+   */
+  @Nullable
+  protected INodeJSEnvironment findCurrentEnvironment(@Nullable Node[] pNodes, long pTimeoutMs)
+  {
+    INodeJSProvider provider = _findProvider(pNodes);
+    if (provider == null)
+      return null;
+
+    // the snapshot is kept up to date in the background, so it does not rebuild the pipeline of the provider
+    if (provider instanceof NodeJSProviderImpl)
+    {
+      INodeJSEnvironment snapshot = ((NodeJSProviderImpl) provider).getSnapshot().orElse(null);
+      if (snapshot != null || pTimeoutMs <= 0)
+        return snapshot;
+    }
+    else if (pTimeoutMs <= 0)
+      return null;
+
+    return provider.current()
+        .filter(Optional::isPresent)
+        .take(1)
+        .timeout(pTimeoutMs, TimeUnit.MILLISECONDS, Observable.just(Optional.empty()))
+        .blockingFirst(Optional.empty())
+        .orElse(null);
+  }
+
+  /**
+   * Returns the current nodejs executor for the given nodes
    *
    * @param pNodes Nodes
-   * @return environment
+   * @return executor
    */
   @Nullable
-  protected INodeJSEnvironment findCurrentEnvironment(@Nullable Node[] pNodes)
+  protected INodeJSExecutor findCurrentExecutor(@Nullable Node[] pNodes)
   {
     if (pNodes == null)
       return null;
@@ -99,24 +144,41 @@ abstract class AbstractNodeJSCommandAction extends NodeAction
     {
       Project project = IProjectQuery.getInstance().findProjects(node.getLookup(), IProjectQuery.ReturnType.MULTIPLE_TO_NULL);
       if (project != null)
-      {
-        INodeJSProvider provider = project.getLookup().lookup(INodeJSProvider.class);
-        if (provider != null)
-          return provider.current().blockingFirst(Optional.empty()).orElse(null);
-      }
+        return INodeJSExecutor.findInstance(project).orElse(null);
     }
 
     return null;
   }
 
   /**
-   * Returns the current nodejs executor for the given nodes
+   * Enables this action as soon as the environment of the given nodes has been probed.
+   * Only the last selection will be refreshed, previous ones are not relevant anymore.
    *
    * @param pNodes Nodes
-   * @return executor
+   */
+  private synchronized void _refreshIfProbed(@Nullable Node[] pNodes)
+  {
+    if (pendingRefresh != null)
+      pendingRefresh.dispose();
+    pendingRefresh = null;
+
+    INodeJSProvider provider = _findProvider(pNodes);
+    if (provider instanceof NodeJSProviderImpl)
+      pendingRefresh = provider.current()
+          .filter(Optional::isPresent)
+          .take(1)
+          .observeOn(Schedulers.from(SwingUtilities::invokeLater))
+          .subscribe(pEnv -> setEnabled(enable(getActivatedNodes())));
+  }
+
+  /**
+   * Returns the nodejs provider of the project of the given nodes
+   *
+   * @param pNodes Nodes
+   * @return the provider, NULL if there is none
    */
   @Nullable
-  protected INodeJSExecutor findCurrentExecutor(@Nullable Node[] pNodes)
+  private static INodeJSProvider _findProvider(@Nullable Node[] pNodes)
   {
     if (pNodes == null)
       return null;
@@ -125,7 +187,7 @@ abstract class AbstractNodeJSCommandAction extends NodeAction
     {
       Project project = IProjectQuery.getInstance().findProjects(node.getLookup(), IProjectQuery.ReturnType.MULTIPLE_TO_NULL);
       if (project != null)
-        return INodeJSExecutor.findInstance(project).orElse(null);
+        return project.getLookup().lookup(INodeJSProvider.class);
     }
 
     return null;
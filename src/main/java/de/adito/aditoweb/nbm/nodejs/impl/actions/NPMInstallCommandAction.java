@@ -1,14 +1,13 @@
 package de.adito.aditoweb.nbm.nodejs.impl.actions;
 
 import de.adito.aditoweb.nbm.nbide.nbaditointerface.javascript.node.*;
-import org.apache.commons.io.output.WriterOutputStream;
+import de.adito.aditoweb.nbm.nodejs.impl.process.NodeJSOutputBridge;
 import org.jetbrains.annotations.NotNull;
 import org.openide.awt.*;
 import org.openide.util.*;
 import org.openide.windows.InputOutput;
 
 import java.io.*;
-import java.nio.charset.StandardCharsets;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Supplier;
 
@@ -27,16 +26,13 @@ public class NPMInstallCommandAction extends AbstractNodeJSCommandAction
   protected CompletableFuture<?> performAction(@NotNull INodeJSEnvironment pEnvironment, @NotNull INodeJSExecutor pExecutor,
                                                @NotNull Supplier<InputOutput> pInputOutputSupplier) throws IOException
   {
-    OutputStream out = new WriterOutputStream(pInputOutputSupplier.get().getOut(), StandardCharsets.UTF_8); //NOSONAR will be closed in future
-    OutputStream err = new WriterOutputStream(pInputOutputSupplier.get().getErr(), StandardCharsets.UTF_8); //NOSONAR will be closed in future
-    return pExecutor.executeAsync(pEnvironment, INodeJSExecBase.packageManager(), out, err, null, "install")
+    InputOutput io = pInputOutputSupplier.get();
+    NodeJSOutputBridge bridge = new NodeJSOutputBridge(io.getOut(), io.getErr()); //NOSONAR will be closed in future
+    return pExecutor.executeAsync(pEnvironment, INodeJSExecBase.packageManager(), bridge.getOut(), bridge.getErr(), null, "install")
         .handle((pExitCode, pEx) -> {
           try
           {
-            out.flush();
-            out.close();
-            err.flush();
-            err.close();
+            bridge.close();
           }
           catch (Exception ex)
           {
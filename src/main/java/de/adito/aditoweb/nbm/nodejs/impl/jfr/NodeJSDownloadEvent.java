@@ -0,0 +1,50 @@
+package de.adito.aditoweb.nbm.nodejs.impl.jfr;
+
+import jdk.jfr.*;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Flight recorder event for a single phase of a nodejs download
+ *
+ * @author agent, 17.10.2026
+ */
+@Name("de.adito.nodejs.Download")
+@Label("NodeJS Download")
+@Category({"ADITO", "NodeJS"})
+@Description("Download or extraction of a nodejs installation")
+public class NodeJSDownloadEvent extends Event
+{
+
+  public static final String DOWNLOAD = "download";
+  public static final String EXTRACT = "extract";
+
+  @Label("Phase")
+  private String phase;
+
+  @Label("Version")
+  private String version;
+
+  @Label("Source")
+  private String source;
+
+  @Label("Size")
+  @DataAmount
+  private long bytes = -1;
+
+  public NodeJSDownloadEvent(@NotNull String pPhase, @NotNull String pVersion)
+  {
+    phase = pPhase;
+    version = pVersion;
+  }
+
+  public void setSource(@NotNull String pSource)
+  {
+    source = pSource;
+  }
+
+  public void setBytes(long pBytes)
+  {
+    bytes = pBytes;
+  }
+
+}
@@ -0,0 +1,43 @@
+package de.adito.aditoweb.nbm.nodejs.impl.jfr;
+
+import jdk.jfr.*;
+import org.jetbrains.annotations.*;
+
+/**
+ * Flight recorder event for the probe of a nodejs binary
+ *
+ * @author agent, 17.10.2026
+ */
+@Name("de.adito.nodejs.EnvironmentProbe")
+@Label("NodeJS Environment Probe")
+@Category({"ADITO", "NodeJS"})
+@Description("Reads the version of a nodejs binary")
+public class NodeJSEnvironmentProbeEvent extends Event
+{
+
+  @Label("Binary")
+  private String binary;
+
+  @Label("Version")
+  private String version;
+
+  @Label("Source")
+  @Description("Where the version was read from: metadata or process")
+  private String source;
+
+  public void setBinary(@NotNull String pBinary)
+  {
+    binary = pBinary;
+  }
+
+  public void setVersion(@Nullable String pVersion)
+  {
+    version = pVersion;
+  }
+
+  public void setSource(@NotNull String pSource)
+  {
+    source = pSource;
+  }
+
+}
@@ -0,0 +1,51 @@
+package de.adito.aditoweb.nbm.nodejs.impl.jfr;
+
+import jdk.jfr.*;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Flight recorder event for a single step of the installer of the bundled nodejs and its packages
+ *
+ * @author agent, 17.10.2026
+ */
+@Name("de.adito.nodejs.Installer")
+@Label("NodeJS Installer Step")
+@Category({"ADITO", "NodeJS"})
+@Description("A single step of the bundled nodejs installer")
+public class NodeJSInstallerEvent extends Event
+{
+
+  @Label("Step")
+  private String step;
+
+  @Label("Command")
+  private String command;
+
+  @Label("Exit Code")
+  private int exitCode = -1;
+
+  @Label("Output")
+  @DataAmount
+  private long outputBytes = -1;
+
+  public NodeJSInstallerEvent(@NotNull String pStep)
+  {
+    step = pStep;
+  }
+
+  public void setCommand(@NotNull String pCommand)
+  {
+    command = pCommand;
+  }
+
+  public void setExitCode(int pExitCode)
+  {
+    exitCode = pExitCode;
+  }
+
+  public void setOutputBytes(long pOutputBytes)
+  {
+    outputBytes = pOutputBytes;
+  }
+
+}
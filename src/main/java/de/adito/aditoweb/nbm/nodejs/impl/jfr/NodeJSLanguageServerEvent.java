@@ -0,0 +1,54 @@
+package de.adito.aditoweb.nbm.nodejs.impl.jfr;
+
+import jdk.jfr.*;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Flight recorder event for the lifecycle of the typescript language server
+ *
+ * @author agent, 17.10.2026
+ */
+@Name("de.adito.nodejs.LanguageServer")
+@Label("NodeJS Language Server")
+@Category({"ADITO", "NodeJS"})
+@Description("Start, stop or restart of the typescript language server")
+public class NodeJSLanguageServerEvent extends Event
+{
+
+  public static final String START = "start";
+  public static final String STOP = "stop";
+  public static final String RESTART = "restart";
+
+  @Label("Action")
+  private String action;
+
+  @Label("Command")
+  private String command;
+
+  @Label("PID")
+  private long pid = -1;
+
+  @Label("Exit Code")
+  private int exitCode = -1;
+
+  public NodeJSLanguageServerEvent(@NotNull String pAction)
+  {
+    action = pAction;
+  }
+
+  public void setCommand(@NotNull String pCommand)
+  {
+    command = pCommand;
+  }
+
+  public void setPid(long pPid)
+  {
+    pid = pPid;
+  }
+
+  public void setExitCode(int pExitCode)
+  {
+    exitCode = pExitCode;
+  }
+
+}
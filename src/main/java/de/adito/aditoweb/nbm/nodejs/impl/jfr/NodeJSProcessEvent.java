@@ -0,0 +1,51 @@
+package de.adito.aditoweb.nbm.nodejs.impl.jfr;
+
+import jdk.jfr.*;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Flight recorder event for a single node / npm process, from its launch until it has exited
+ *
+ * @author agent, 17.10.2026
+ */
+@Name("de.adito.nodejs.Process")
+@Label("NodeJS Process")
+@Category({"ADITO", "NodeJS"})
+@Description("A process that was launched by a nodejs executor")
+public class NodeJSProcessEvent extends Event
+{
+
+  @Label("Command")
+  private String command;
+
+  @Label("PID")
+  private long pid;
+
+  @Label("Exit Code")
+  private int exitCode;
+
+  @Label("Output")
+  @DataAmount
+  private long outputBytes = -1;
+
+  public void setCommand(@NotNull String pCommand)
+  {
+    command = pCommand;
+  }
+
+  public void setPid(long pPid)
+  {
+    pid = pPid;
+  }
+
+  public void setExitCode(int pExitCode)
+  {
+    exitCode = pExitCode;
+  }
+
+  public void setOutputBytes(long pOutputBytes)
+  {
+    outputBytes = pOutputBytes;
+  }
+
+}
@@ -2,8 +2,11 @@ package de.adito.aditoweb.nbm.nodejs.impl.ls;
 
 import de.adito.aditoweb.nbm.nbide.nbaditointerface.javascript.node.INodeJSExecBase;
 import de.adito.aditoweb.nbm.nodejs.impl.*;
+import de.adito.aditoweb.nbm.nodejs.impl.jfr.NodeJSLanguageServerEvent;
+import de.adito.aditoweb.nbm.nodejs.impl.process.*;
 import de.adito.observables.netbeans.FileFullObservable;
 import io.reactivex.rxjava3.disposables.Disposable;
+import org.apache.commons.io.output.WriterOutputStream;
 import org.jetbrains.annotations.*;
 import org.netbeans.api.editor.mimelookup.MimeRegistration;
 import org.netbeans.api.io.InputOutput;
@@ -13,6 +16,7 @@ import org.netbeans.modules.lsp.client.spi.*;
 import org.openide.util.*;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
@@ -25,7 +29,6 @@ import java.util.logging.*;
 public class TypeScriptLanguageServerProvider implements LanguageServerProvider
 {
   private static final long STARTUP_DELAY = 10000;
-  private static final RequestProcessor WORKER = new RequestProcessor(TypeScriptLanguageServerProvider.class.getName(), Integer.MAX_VALUE, false, false);
   private static final Logger LOGGER = Logger.getLogger(TypeScriptLanguageServerProvider.class.getName());
   private final AtomicReference<Optional<LanguageServerDescription>> currentRef = new AtomicReference<>(null);
   private Disposable currentDisposable;
@@ -71,23 +74,34 @@ public class TypeScriptLanguageServerProvider implements LanguageServerProvider
     _handleRestartOnChange(pServerRestarter);
 
     // execute
-    return Optional.of(BundledNodeJS.getInstance().getBundledExecutor())
-        .map(pExec -> {
-          try
-          {
-            return pExec.execute(BundledNodeJS.getInstance().getBundledEnvironment(), INodeJSExecBase.node(),
-                                 "node_modules/" + IBundledPackages.TYPESCRIPT_LANGUAGE_SERVER + "/lib/cli.js", "--stdio");
-          }
-          catch (IOException e)
-          {
-            LOGGER.log(Level.SEVERE, "", e);
-            return null;
-          }
-        })
-        .map(pProcess -> {
-          WORKER.post(new _InputOutputWatcher(pProcess, io));
-          return LanguageServerDescription.create(pProcess.getInputStream(), pProcess.getOutputStream(), pProcess);
-        });
+    String script = "node_modules/" + IBundledPackages.TYPESCRIPT_LANGUAGE_SERVER + "/lib/cli.js";
+    NodeJSLanguageServerEvent event = new NodeJSLanguageServerEvent(NodeJSLanguageServerEvent.START);
+    event.begin();
+    event.setCommand(script + " --stdio");
+    try
+    {
+      return Optional.of(BundledNodeJS.getInstance().getBundledExecutor().withPriority(ENodeJSProcessPriority.INTERACTIVE))
+          .map(pExec -> {
+            try
+            {
+              return pExec.execute(BundledNodeJS.getInstance().getBundledEnvironment(), INodeJSExecBase.node(), script, "--stdio");
+            }
+            catch (IOException e)
+            {
+              LOGGER.log(Level.SEVERE, "", e);
+              return null;
+            }
+          })
+          .map(pProcess -> {
+            event.setPid(pProcess.pid());
+            new _InputOutputWatcher(pProcess, io).start();
+            return LanguageServerDescription.create(pProcess.getInputStream(), pProcess.getOutputStream(), pProcess);
+          });
+    }
+    finally
+    {
+      event.commit();
+    }
   }
 
   /**
@@ -109,6 +123,8 @@ public class TypeScriptLanguageServerProvider implements LanguageServerProvider
           .throttleLast(2, TimeUnit.SECONDS)
           .subscribe(pEnvOpt -> {
             LOGGER.info("Restarting TypeScript Language Server");
+            NodeJSLanguageServerEvent event = new NodeJSLanguageServerEvent(NodeJSLanguageServerEvent.RESTART);
+            event.begin();
 
             // Stop Server
             Optional<LanguageServerDescription> currentServer = currentRef.get();
@@ -117,6 +133,7 @@ public class TypeScriptLanguageServerProvider implements LanguageServerProvider
 
             // Trigger Restart
             pServerRestarter.restart();
+            event.commit();
           });
   }
 
@@ -130,15 +147,28 @@ public class TypeScriptLanguageServerProvider implements LanguageServerProvider
     if (pDescription == null)
       return;
 
+    NodeJSLanguageServerEvent event = new NodeJSLanguageServerEvent(NodeJSLanguageServerEvent.STOP);
+    event.begin();
     try
     {
-      if (!_isAlive(pDescription))
-        LanguageServerProviderAccessor.getINSTANCE().getProcess(pDescription).destroy();
+      Process process = LanguageServerProviderAccessor.getINSTANCE().getProcess(pDescription);
+      if (process != null)
+      {
+        event.setPid(process.pid());
+        if (!_isAlive(pDescription))
+          process.destroy();
+        if (!process.isAlive())
+          event.setExitCode(process.exitValue());
+      }
     }
     catch (Exception e)
     {
       LOGGER.log(Level.WARNING, "Failed to shutdown language server", e);
     }
+    finally
+    {
+      event.commit();
+    }
   }
 
   /**
@@ -165,9 +195,10 @@ public class TypeScriptLanguageServerProvider implements LanguageServerProvider
   }
 
   /**
-   * Cares about showing and printing errors in InputOutput
+   * Cares about showing and printing errors in InputOutput.
+   * The error stream is copied by the shared pump engine, so an idle language server does not occupy a thread.
    */
-  private static class _InputOutputWatcher implements Runnable
+  private static class _InputOutputWatcher
   {
     private final Process process;
     private final InputOutput io;
@@ -178,31 +209,25 @@ public class TypeScriptLanguageServerProvider implements LanguageServerProvider
       io = pIo;
     }
 
-    @Override
-    public void run()
+    /**
+     * Starts copying the error stream of the process to the InputOutput
+     */
+    public void start()
     {
       long start = System.currentTimeMillis();
-      try (Reader r = new InputStreamReader(process.getErrorStream()))
-      {
-        int read;
-        while ((read = r.read()) != (-1))
-          io.getErr().write("" + (char) read);
-      }
-      catch (IOException e)
-      {
-        LOGGER.log(Level.SEVERE, "", e);
-      }
-      finally
-      {
-        _closeSilently(io.getErr());
-        _closeSilently(io.getOut());
-        _closeSilently(io.getIn());
-      }
-
-      // show input/output if it was killed too early
-      long end = System.currentTimeMillis();
-      if (!process.isAlive() && (process.exitValue() != 0 || (end - start) < STARTUP_DELAY))
-        io.show();
+      OutputStream err = new WriterOutputStream(io.getErr(), StandardCharsets.UTF_8); //NOSONAR will be closed after the stream has ended
+      NodeJSStreamPumpEngine.getInstance().pumpOutput(process, process.getErrorStream(), err)
+          .whenComplete((pBytes, pEx) -> {
+            _closeSilently(err);
+            _closeSilently(io.getErr());
+            _closeSilently(io.getOut());
+            _closeSilently(io.getIn());
+
+            // show input/output if it was killed too early
+            long end = System.currentTimeMillis();
+            if (!process.isAlive() && (process.exitValue() != 0 || (end - start) < STARTUP_DELAY))
+              io.show();
+          });
     }
 
     /**
@@ -1,11 +1,15 @@
 package de.adito.aditoweb.nbm.nodejs.impl.options;
 
-import de.adito.aditoweb.nbm.nbide.nbaditointerface.javascript.node.INodeJSEnvironment;
 import de.adito.aditoweb.nbm.nodejs.impl.BundledNodeJS;
 import de.adito.aditoweb.nbm.nodejs.impl.options.downloader.INodeJSDownloader;
 import de.adito.aditoweb.nbm.nodejs.impl.version.NodeJSEnvironmentFactory;
 import de.adito.swing.*;
 import info.clearthought.layout.*;
+import io.reactivex.rxjava3.core.*;
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import io.reactivex.rxjava3.subjects.*;
 import org.jetbrains.annotations.*;
 import org.netbeans.api.progress.BaseProgressUtils;
 import org.openide.*;
@@ -20,7 +24,7 @@ import java.awt.event.ActionListener;
 import java.io.File;
 import java.util.List;
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.function.*;
 
 /**
@@ -31,8 +35,12 @@ import java.util.function.*;
 public class NodeJSOptionsPanel extends JPanel implements Scrollable
 {
   private static final String _DEFAULT_PATH = System.getProperty("user.home") + "/.nodejs-versions";
+  private static final long _VERSION_PROBE_DEBOUNCE_MS = 300;
 
   private final _PathSelection path;
+  private final JLabel versionLabel = new JLabel();
+  private Observable<String> versions;
+  private Disposable versionDisposable;
   private NodeJSOptions options; //NOSONAR its just a swing panel
 
   @NbBundle.Messages({
@@ -71,6 +79,27 @@ public class NodeJSOptionsPanel extends JPanel implements Scrollable
     tlu.add(2, 4, _createVersionLabel());
   }
 
+  @Override
+  public void addNotify()
+  {
+    super.addNotify();
+
+    // the probes only run, while the panel is displayed
+    if (versionDisposable == null)
+      versionDisposable = versions.subscribe(pVersion -> versionLabel.setText(Bundle.LBL_Version() + pVersion));
+  }
+
+  @Override
+  public void removeNotify()
+  {
+    super.removeNotify();
+
+    // a probe, that is still running, must not update the label of a closed panel
+    if (versionDisposable != null)
+      versionDisposable.dispose();
+    versionDisposable = null;
+  }
+
   @Override
   public Dimension getPreferredScrollableViewportSize()
   {
@@ -228,7 +257,7 @@ public class NodeJSOptionsPanel extends JPanel implements Scrollable
   }
 
   /**
-   * @return creates the label with the version of the selected nodejs package
+   * @return creates the label with the version of the selected nodejs package, it will be updated while the panel is displayed
    */
   @NbBundle.Messages({
       "LBL_Version=Version: ",
@@ -237,61 +266,67 @@ public class NodeJSOptionsPanel extends JPanel implements Scrollable
   @NotNull
   private JLabel _createVersionLabel()
   {
-    JLabel label = new JLabel();
-    label.setEnabled(false);
-    Runnable updateLabel = () -> _getNodeJSVersionOfSelectedPath(Bundle.LBL_UnknownVersion())
-        .thenAccept(pVersion -> label.setText(Bundle.LBL_Version() + pVersion));
-    updateLabel.run();
+    versionLabel.setEnabled(false);
+
+    // only probe, if the user stopped typing - outdated probes will be cancelled, so that only the latest path wins
+    Subject<String> selectedPath = BehaviorSubject.createDefault(path.getValue());
+    versions = selectedPath
+        .debounce(_VERSION_PROBE_DEBOUNCE_MS, TimeUnit.MILLISECONDS)
+        .distinctUntilChanged()
+        .switchMapSingle(pPath -> _getNodeJSVersion(pPath, Bundle.LBL_UnknownVersion()))
+        .observeOn(Schedulers.from(SwingUtilities::invokeLater));
+
     path.addDocumentListener(new DocumentListener()
     {
       @Override
       public void insertUpdate(DocumentEvent e)
       {
-        updateLabel.run();
+        selectedPath.onNext(path.getValue());
       }
 
       @Override
       public void removeUpdate(DocumentEvent e)
       {
-        updateLabel.run();
+        selectedPath.onNext(path.getValue());
       }
 
       @Override
       public void changedUpdate(DocumentEvent e)
       {
-        updateLabel.run();
+        selectedPath.onNext(path.getValue());
       }
     });
-    return label;
+    return versionLabel;
   }
 
   /**
-   * Tries to read the version of the nodejs package from the selected directory
+   * Tries to read the version of the nodejs package from the given path.
+   * Disposing the subscription cancels the probe and kills its process.
    *
+   * @param pPath    path of the nodejs binary
    * @param pDefault string to return, if read failed
-   * @return future with the version
+   * @return Single with the version
    */
   @NotNull
-  private CompletableFuture<String> _getNodeJSVersionOfSelectedPath(@NotNull String pDefault)
+  private Single<String> _getNodeJSVersion(@NotNull String pPath, @NotNull String pDefault)
   {
-    return CompletableFuture.supplyAsync(() -> {
-      try
-      {
-        String value = path.getValue();
-        if (!value.trim().isEmpty())
-        {
-          INodeJSEnvironment env = NodeJSEnvironmentFactory.create(new File(value));
-          if (env != null)
-            return env.getVersion();
-        }
-      }
-      catch (Exception e)
-      {
-        // ignore
-      }
+    if (pPath.trim().isEmpty())
+      return Single.just(pDefault);
 
-      return pDefault;
-    });
+    return NodeJSEnvironmentFactory.createSingle(new File(pPath))
+        .map(pEnvOpt -> pEnvOpt
+            .map(pEnv -> {
+              try
+              {
+                return pEnv.getVersion();
+              }
+              catch (Exception e)
+              {
+                return null;
+              }
+            })
+            .orElse(pDefault))
+        .onErrorReturnItem(pDefault);
   }
 
   /**
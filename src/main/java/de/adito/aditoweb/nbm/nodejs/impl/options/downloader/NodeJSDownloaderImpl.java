@@ -1,5 +1,6 @@
 package de.adito.aditoweb.nbm.nodejs.impl.options.downloader;
 
+import de.adito.aditoweb.nbm.nodejs.impl.jfr.NodeJSDownloadEvent;
 import lombok.Getter;
 import org.apache.commons.io.IOUtils;
 import org.buildobjects.process.ProcBuilder;
@@ -112,17 +113,37 @@ public class NodeJSDownloaderImpl implements INodeJSDownloader
     downloadedFile.getParentFile().mkdirs();
 
     // Download
+    String url = getDownloadURL(pVersion, pOsType);
+    NodeJSDownloadEvent downloadEvent = new NodeJSDownloadEvent(NodeJSDownloadEvent.DOWNLOAD, pVersion);
+    downloadEvent.begin();
+    downloadEvent.setSource(url);
     try (FileOutputStream fos = new FileOutputStream(downloadedFile);
-         InputStream is = URI.create(getDownloadURL(pVersion, pOsType)).toURL().openStream())
+         InputStream is = URI.create(url).toURL().openStream())
     {
-      IOUtils.copy(is, fos);
+      downloadEvent.setBytes(IOUtils.copyLarge(is, fos));
+    }
+    finally
+    {
+      downloadEvent.commit();
     }
 
     if (!downloadedFile.exists() || !downloadedFile.canRead())
       throw new IOException("Failed to extract downloaded archive, because it does not exist (" + downloadedFile + ")");
 
     // Extract
-    File extractedFolder = _extractWithLinks(downloadedFile, pTarget);
+    File extractedFolder;
+    NodeJSDownloadEvent extractEvent = new NodeJSDownloadEvent(NodeJSDownloadEvent.EXTRACT, pVersion);
+    extractEvent.begin();
+    extractEvent.setSource(downloadedFile.getAbsolutePath());
+    extractEvent.setBytes(downloadedFile.length());
+    try
+    {
+      extractedFolder = _extractWithLinks(downloadedFile, pTarget);
+    }
+    finally
+    {
+      extractEvent.commit();
+    }
 
     // Delete Download
     Files.delete(downloadedFile.toPath());
@@ -0,0 +1,400 @@
+package de.adito.aditoweb.nbm.nodejs.impl.parser;
+
+import com.google.gson.stream.*;
+import org.jetbrains.annotations.*;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Immutable model of the fields of a package.json, that are relevant for this module.
+ * The document is read as a stream, so that all other fields (and their nested content) are skipped without being bound.
+ *
+ * @author agent, 17.10.2026
+ */
+public class PackageJsonModel
+{
+
+  /**
+   * Model of a package.json without any relevant content
+   */
+  public static final PackageJsonModel EMPTY = new PackageJsonModel(null, null, Map.of(), Map.of(), List.of(), Map.of(), Map.of(), Map.of(), Map.of());
+
+  private final String name;
+  private final String version;
+  private final Map<String, String> scripts;
+  private final Map<String, String> engines;
+  private final List<String> workspaces;
+  private final Map<String, String> dependencies;
+  private final Map<String, String> devDependencies;
+  private final Map<String, Map<String, List<String>>> runGroups;
+  private final Map<String, List<String>> watchScripts;
+
+  /**
+   * Reads the model from the given package.json.
+   * The reader will not be closed.
+   *
+   * @param pPackageJsonReader package.json reader
+   * @return the model, {@link #EMPTY} if the content is not valid
+   */
+  @NotNull
+  public static PackageJsonModel parse(@NotNull Reader pPackageJsonReader)
+  {
+    try
+    {
+      JsonReader reader = new JsonReader(pPackageJsonReader);
+      reader.setLenient(true);
+      if (reader.peek() != JsonToken.BEGIN_OBJECT)
+        return EMPTY;
+
+      String name = null;
+      String version = null;
+      Map<String, String> scripts = Map.of();
+      Map<String, String> engines = Map.of();
+      List<String> workspaces = List.of();
+      Map<String, String> dependencies = Map.of();
+      Map<String, String> devDependencies = Map.of();
+      Map<String, Map<String, List<String>>> runGroups = new LinkedHashMap<>();
+      Map<String, List<String>> watchScripts = new LinkedHashMap<>();
+
+      reader.beginObject();
+      while (reader.hasNext())
+      {
+        switch (reader.nextName())
+        {
+          case "name":
+            name = _readString(reader);
+            break;
+          case "version":
+            version = _readString(reader);
+            break;
+          case "scripts":
+            scripts = _readStringMap(reader);
+            break;
+          case "engines":
+            engines = _readStringMap(reader);
+            break;
+          case "workspaces":
+            workspaces = _readWorkspaces(reader);
+            break;
+          case "dependencies":
+            dependencies = _readStringMap(reader);
+            break;
+          case "devDependencies":
+            devDependencies = _readStringMap(reader);
+            break;
+          case "adito":
+            _readAdito(reader, runGroups, watchScripts);
+            break;
+          default:
+            reader.skipValue();
+        }
+      }
+      reader.endObject();
+
+      return new PackageJsonModel(name, version, scripts, engines, workspaces, dependencies, devDependencies,
+                                  Collections.unmodifiableMap(runGroups), Collections.unmodifiableMap(watchScripts));
+    }
+    catch (Exception e)
+    {
+      // invalid content, just return an empty model
+      return EMPTY;
+    }
+  }
+
+  PackageJsonModel(@Nullable String pName, @Nullable String pVersion, @NotNull Map<String, String> pScripts, @NotNull Map<String, String> pEngines,
+                   @NotNull List<String> pWorkspaces, @NotNull Map<String, String> pDependencies, @NotNull Map<String, String> pDevDependencies,
+                   @NotNull Map<String, Map<String, List<String>>> pRunGroups, @NotNull Map<String, List<String>> pWatchScripts)
+  {
+    name = pName;
+    version = pVersion;
+    scripts = pScripts;
+    engines = pEngines;
+    workspaces = pWorkspaces;
+    dependencies = pDependencies;
+    devDependencies = pDevDependencies;
+    runGroups = pRunGroups;
+    watchScripts = pWatchScripts;
+  }
+
+  /**
+   * @return the name of the package, NULL if not set
+   */
+  @Nullable
+  public String getName()
+  {
+    return name;
+  }
+
+  /**
+   * @return the version of the package, NULL if not set
+   */
+  @Nullable
+  public String getVersion()
+  {
+    return version;
+  }
+
+  /**
+   * Key: ScriptName, Value: Script
+   *
+   * @return the map of scripts
+   */
+  @NotNull
+  public Map<String, String> getScripts()
+  {
+    return scripts;
+  }
+
+  /**
+   * Key: Engine (e.g. node, npm), Value: Version range
+   *
+   * @return the map of engines
+   */
+  @NotNull
+  public Map<String, String> getEngines()
+  {
+    return engines;
+  }
+
+  /**
+   * @return the glob patterns of all workspaces
+   */
+  @NotNull
+  public List<String> getWorkspaces()
+  {
+    return workspaces;
+  }
+
+  /**
+   * Key: Package, Value: Version range
+   *
+   * @return the map of dependencies
+   */
+  @NotNull
+  public Map<String, String> getDependencies()
+  {
+    return dependencies;
+  }
+
+  /**
+   * Key: Package, Value: Version range
+   *
+   * @return the map of dev dependencies
+   */
+  @NotNull
+  public Map<String, String> getDevDependencies()
+  {
+    return devDependencies;
+  }
+
+  /**
+   * Groups of scripts, that should be run together, configured in "adito": { "runGroups": { ... } }.
+   * Key: Name of the group, Value: Scripts of the group (Key: Script, Value: Scripts, that have to be finished before)
+   *
+   * @return the map of groups
+   */
+  @NotNull
+  public Map<String, Map<String, List<String>>> getRunGroups()
+  {
+    return runGroups;
+  }
+
+  /**
+   * Scripts, that should be run again if files change, configured in "adito": { "watch": { ... } }.
+   * Key: Script, Value: Glob patterns of the files to watch, relative to the directory of the package.json
+   *
+   * @return the map of watched scripts
+   */
+  @NotNull
+  public Map<String, List<String>> getWatchScripts()
+  {
+    return watchScripts;
+  }
+
+  /**
+   * Reads a string value
+   *
+   * @param pReader reader, positioned before the value
+   * @return the value, NULL if it is not a string
+   */
+  @Nullable
+  private static String _readString(@NotNull JsonReader pReader) throws IOException
+  {
+    if (pReader.peek() == JsonToken.STRING)
+      return pReader.nextString();
+    pReader.skipValue();
+    return null;
+  }
+
+  /**
+   * Reads an object with string values. Entries with other values will be skipped.
+   *
+   * @param pReader reader, positioned before the object
+   * @return the read map
+   */
+  @NotNull
+  private static Map<String, String> _readStringMap(@NotNull JsonReader pReader) throws IOException
+  {
+    if (pReader.peek() != JsonToken.BEGIN_OBJECT)
+    {
+      pReader.skipValue();
+      return Map.of();
+    }
+
+    Map<String, String> result = new LinkedHashMap<>();
+    pReader.beginObject();
+    while (pReader.hasNext())
+    {
+      String name = pReader.nextName();
+      if (pReader.peek() == JsonToken.STRING)
+        result.put(name, pReader.nextString());
+      else
+        pReader.skipValue();
+    }
+    pReader.endObject();
+    return Collections.unmodifiableMap(result);
+  }
+
+  /**
+   * Reads the "adito" object, that contains the configuration of this module
+   *
+   * @param pReader       reader, positioned before the "adito" object
+   * @param pRunGroups    map to put the run groups in
+   * @param pWatchScripts map to put the watched scripts in
+   */
+  private static void _readAdito(@NotNull JsonReader pReader, @NotNull Map<String, Map<String, List<String>>> pRunGroups,
+                                 @NotNull Map<String, List<String>> pWatchScripts) throws IOException
+  {
+    if (pReader.peek() != JsonToken.BEGIN_OBJECT)
+    {
+      pReader.skipValue();
+      return;
+    }
+
+    pReader.beginObject();
+    while (pReader.hasNext())
+    {
+      String name = pReader.nextName();
+      if (pReader.peek() != JsonToken.BEGIN_OBJECT)
+        pReader.skipValue();
+      else if (name.equals("runGroups"))
+        _readRunGroups(pReader, pRunGroups);
+      else if (name.equals("watch"))
+        pWatchScripts.putAll(_readStringArrayMap(pReader));
+      else
+        pReader.skipValue();
+    }
+    pReader.endObject();
+  }
+
+  /**
+   * Reads the run groups. A group is either an array of independent scripts
+   * or an object with the scripts as keys and the arrays of the scripts, that have to be finished before, as values.
+   *
+   * @param pReader    reader, positioned before the "runGroups" object
+   * @param pRunGroups map to put the groups in
+   */
+  private static void _readRunGroups(@NotNull JsonReader pReader, @NotNull Map<String, Map<String, List<String>>> pRunGroups) throws IOException
+  {
+    pReader.beginObject();
+    while (pReader.hasNext())
+    {
+      String group = pReader.nextName();
+      if (pReader.peek() == JsonToken.BEGIN_ARRAY)
+      {
+        Map<String, List<String>> scripts = new LinkedHashMap<>();
+        _readStringArray(pReader).forEach(pScript -> scripts.put(pScript, List.of()));
+        pRunGroups.put(group, Collections.unmodifiableMap(scripts));
+      }
+      else if (pReader.peek() == JsonToken.BEGIN_OBJECT)
+        pRunGroups.put(group, _readStringArrayMap(pReader));
+      else
+        pReader.skipValue();
+    }
+    pReader.endObject();
+  }
+
+  /**
+   * Reads an object with arrays of strings as values. A single string value is read as an array with one element.
+   *
+   * @param pReader reader, positioned before the object
+   * @return the read map
+   */
+  @NotNull
+  private static Map<String, List<String>> _readStringArrayMap(@NotNull JsonReader pReader) throws IOException
+  {
+    Map<String, List<String>> result = new LinkedHashMap<>();
+    pReader.beginObject();
+    while (pReader.hasNext())
+    {
+      String name = pReader.nextName();
+      if (pReader.peek() == JsonToken.BEGIN_ARRAY)
+        result.put(name, _readStringArray(pReader));
+      else if (pReader.peek() == JsonToken.STRING)
+        result.put(name, List.of(pReader.nextString()));
+      else
+      {
+        pReader.skipValue();
+        result.put(name, List.of());
+      }
+    }
+    pReader.endObject();
+    return Collections.unmodifiableMap(result);
+  }
+
+  /**
+   * Reads an array of strings. Elements with other values will be skipped.
+   *
+   * @param pReader reader, positioned before the array
+   * @return the read strings
+   */
+  @NotNull
+  private static List<String> _readStringArray(@NotNull JsonReader pReader) throws IOException
+  {
+    List<String> result = new ArrayList<>();
+    pReader.beginArray();
+    while (pReader.hasNext())
+    {
+      if (pReader.peek() == JsonToken.STRING)
+        result.add(pReader.nextString());
+      else
+        pReader.skipValue();
+    }
+    pReader.endArray();
+    return Collections.unmodifiableList(result);
+  }
+
+  /**
+   * Reads the workspaces, that are either an array of globs or an object containing the array in "packages"
+   *
+   * @param pReader reader, positioned before the workspaces
+   * @return the read globs
+   */
+  @NotNull
+  private static List<String> _readWorkspaces(@NotNull JsonReader pReader) throws IOException
+  {
+    JsonToken token = pReader.peek();
+    if (token == JsonToken.BEGIN_ARRAY)
+      return _readStringArray(pReader);
+
+    if (token == JsonToken.BEGIN_OBJECT)
+    {
+      List<String> result = List.of();
+      pReader.beginObject();
+      while (pReader.hasNext())
+      {
+        if (pReader.nextName().equals("packages"))
+          result = _readWorkspaces(pReader);
+        else
+          pReader.skipValue();
+      }
+      pReader.endObject();
+      return result;
+    }
+
+    pReader.skipValue();
+    return List.of();
+  }
+
+}
@@ -1,9 +1,12 @@
 package de.adito.aditoweb.nbm.nodejs.impl.parser;
 
-import com.google.gson.Gson;
-import org.jetbrains.annotations.NotNull;
+import com.google.common.cache.*;
+import com.google.common.hash.*;
+import org.jetbrains.annotations.*;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.Map;
 
 /**
@@ -11,26 +14,89 @@ import java.util.Map;
  */
 public class PackageParser
 {
+
+  private static final int _MAX_CACHED_MODELS = 128;
+  private static final long _RACY_MS = 2000;
+  private static final HashFunction _HASH = Hashing.murmur3_128();
+  private static final Cache<File, _CachedModel> _CACHE = CacheBuilder.newBuilder()
+      .maximumSize(_MAX_CACHED_MODELS)
+      .build();
+
   /**
-   * Parses the package.json and extracts all set scripts.
-   * Key: ScriptName, Value: Script
+   * Returns the model of the given package.json.
+   * The model is cached and only parsed again, if the timestamp, the size or the content of the file has changed,
+   * so that all callers share the same instance. The content will only be compared, if the file was modified shortly
+   * before it was cached, because a later change in the same timestamp granularity would not be visible otherwise.
    *
    * @param pPackageJson package.json
-   * @return the map of scripts
+   * @return the model, {@link PackageJsonModel#EMPTY} if the file does not exist or is invalid
    */
   @NotNull
-  public static Map<String, String> parseScripts(@NotNull File pPackageJson)
+  public static PackageJsonModel getModel(@NotNull File pPackageJson)
   {
+    File file = pPackageJson.getAbsoluteFile();
+    long lastModified = file.lastModified();
+    long length = file.length();
+
+    _CachedModel cached = _CACHE.getIfPresent(file);
+    boolean sameState = cached != null && cached.lastModified == lastModified && cached.length == length;
+    if (sameState && !cached.isRacy())
+      return cached.model;
+
+    byte[] content;
     try
     {
-      return parseScripts(new FileReader(pPackageJson));
+      content = Files.readAllBytes(file.toPath());
     }
     catch (Exception e)
     {
-      // just return empty map
+      // not readable, just return an empty model
+      _CACHE.put(file, new _CachedModel(lastModified, length, null, PackageJsonModel.EMPTY));
+      return PackageJsonModel.EMPTY;
     }
 
-    return Map.of();
+    // same content, so the cached model can be reused
+    HashCode hash = _HASH.hashBytes(content);
+    if (sameState && hash.equals(cached.hash))
+    {
+      _CACHE.put(file, new _CachedModel(lastModified, length, hash, cached.model));
+      return cached.model;
+    }
+
+    PackageJsonModel model;
+    try (Reader reader = new InputStreamReader(new ByteArrayInputStream(content), StandardCharsets.UTF_8))
+    {
+      model = PackageJsonModel.parse(reader);
+    }
+    catch (Exception e)
+    {
+      // invalid, just return an empty model
+      model = PackageJsonModel.EMPTY;
+    }
+
+    _CACHE.put(file, new _CachedModel(lastModified, length, hash, model));
+    return model;
+  }
+
+  /**
+   * Removes all cached models
+   */
+  public static void invalidateAll()
+  {
+    _CACHE.invalidateAll();
+  }
+
+  /**
+   * Parses the package.json and extracts all set scripts.
+   * Key: ScriptName, Value: Script
+   *
+   * @param pPackageJson package.json
+   * @return the map of scripts
+   */
+  @NotNull
+  public static Map<String, String> parseScripts(@NotNull File pPackageJson)
+  {
+    return getModel(pPackageJson).getScripts();
   }
 
   /**
@@ -43,26 +109,61 @@ public class PackageParser
   @NotNull
   public static Map<String, String> parseScripts(@NotNull Reader pPackageJsonReader)
   {
-    try
-    {
-      _Type content = new Gson().fromJson(pPackageJsonReader, _Type.class);
-      if (content != null && content.scripts != null)
-        return content.scripts;
-    }
-    catch (Exception e)
-    {
-      // just return empty map
-    }
+    return PackageJsonModel.parse(pPackageJsonReader).getScripts();
+  }
+
+  /**
+   * Parses the package.json and extracts all engine requirements.
+   * Key: Engine (e.g. node, npm), Value: Version range
+   *
+   * @param pPackageJson package.json
+   * @return the map of engines
+   */
+  @NotNull
+  public static Map<String, String> parseEngines(@NotNull File pPackageJson)
+  {
+    return getModel(pPackageJson).getEngines();
+  }
 
-    return Map.of();
+  /**
+   * Parses the package.json and extracts all engine requirements.
+   * Key: Engine (e.g. node, npm), Value: Version range
+   *
+   * @param pPackageJsonReader package.json reader
+   * @return the map of engines
+   */
+  @NotNull
+  public static Map<String, String> parseEngines(@NotNull Reader pPackageJsonReader)
+  {
+    return PackageJsonModel.parse(pPackageJsonReader).getEngines();
   }
 
   /**
-   * gson type of package.json
+   * Model with the state of the file, that it was parsed from
    */
-  private static class _Type
+  private static class _CachedModel
   {
-    public Map<String, String> scripts;
+    private final long lastModified;
+    private final long length;
+    private final HashCode hash;
+    private final PackageJsonModel model;
+    private final long cachedAt = System.currentTimeMillis();
+
+    public _CachedModel(long pLastModified, long pLength, @Nullable HashCode pHash, @NotNull PackageJsonModel pModel)
+    {
+      lastModified = pLastModified;
+      length = pLength;
+      hash = pHash;
+      model = pModel;
+    }
+
+    /**
+     * @return true, if the file was modified so shortly before it was cached, that a further change may have kept its timestamp
+     */
+    public boolean isRacy()
+    {
+      return hash == null || cachedAt - lastModified < _RACY_MS;
+    }
   }
 
 }
@@ -0,0 +1,89 @@
+package de.adito.aditoweb.nbm.nodejs.impl.process;
+
+import org.jetbrains.annotations.NotNull;
+import org.openide.util.BaseUtilities;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * Priority of a child process.
+ * Interactive processes do not occupy a slot of the {@link NodeJSProcessScheduler} and are only queued, if its hard cap is reached.
+ * All queued processes are taken from its queue by their priority.
+ * On linux, processes with a lower priority additionally run with a lower cpu (nice) and io (ionice) priority.
+ *
+ * @author agent, 17.10.2026
+ */
+public enum ENodeJSProcessPriority
+{
+  /**
+   * The editor waits for the process, e.g. the language server or version probes.
+   * These processes are started immediately and do not count against the limit of the scheduler.
+   */
+  INTERACTIVE(0, null, false),
+
+  /**
+   * Explicitly triggered by the user, e.g. run configs or npm install actions.
+   * These processes are limited by the scheduler, but run with the default cpu and io priority.
+   */
+  USER(0, null, true),
+
+  /**
+   * Work in background, e.g. installing the bundled packages
+   */
+  BACKGROUND(10, List.of("-c", "2", "-n", "7"), true),
+
+  /**
+   * Work that can wait until the system is idle
+   */
+  MAINTENANCE(19, List.of("-c", "3"), true);
+
+  private static final File _NICE = new File("/usr/bin/nice");
+  private static final File _IONICE = new File("/usr/bin/ionice");
+
+  private final int niceness;
+  private final List<String> ioniceArguments;
+  private final boolean limited;
+
+  ENodeJSProcessPriority(int pNiceness, List<String> pIoniceArguments, boolean pLimited)
+  {
+    niceness = pNiceness;
+    ioniceArguments = pIoniceArguments;
+    limited = pLimited;
+  }
+
+  /**
+   * @return true, if processes of this priority occupy a slot of the {@link NodeJSProcessScheduler} and may have to wait for it
+   */
+  public boolean isLimited()
+  {
+    return limited;
+  }
+
+  /**
+   * Prefixes the given command, so that it will be executed with the cpu and io priority of this priority class.
+   * The command stays unchanged, if this class has the default priority or the system does not support it.
+   *
+   * @param pCommand command to execute, the executable first
+   * @return the command to execute
+   */
+  @NotNull
+  public List<String> wrapCommand(@NotNull List<String> pCommand)
+  {
+    if (niceness == 0 || BaseUtilities.getOperatingSystem() != BaseUtilities.OS_LINUX || !_NICE.canExecute())
+      return pCommand;
+
+    List<String> command = new ArrayList<>(pCommand.size() + 8);
+    command.add(_NICE.getAbsolutePath());
+    command.add("-n");
+    command.add(String.valueOf(niceness));
+    if (ioniceArguments != null && _IONICE.canExecute())
+    {
+      command.add(_IONICE.getAbsolutePath());
+      command.addAll(ioniceArguments);
+    }
+    command.addAll(pCommand);
+    return command;
+  }
+
+}
@@ -0,0 +1,203 @@
+package de.adito.aditoweb.nbm.nodejs.impl.process;
+
+import org.jetbrains.annotations.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.logging.*;
+
+/**
+ * Output of a finished process, captured by {@link NodeJSOutputCapture}.
+ * Output that did not fit in memory will be read lazily from its temporary file, only the requested range is loaded.
+ * Has to be closed, so that the temporary file will be deleted.
+ *
+ * @author agent, 17.10.2026
+ */
+public class NodeJSCapturedOutput implements Closeable
+{
+
+  private final int exitCode;
+  private final byte[] heap;
+  private final File spillFile;
+  private final long size;
+
+  NodeJSCapturedOutput(int pExitCode, @NotNull byte[] pHeap, @Nullable File pSpillFile, long pSize)
+  {
+    exitCode = pExitCode;
+    heap = pHeap;
+    spillFile = pSpillFile;
+    size = pSize;
+  }
+
+  /**
+   * @return the exit code of the process
+   */
+  public int getExitCode()
+  {
+    return exitCode;
+  }
+
+  /**
+   * @return the count of bytes, that the process has written
+   */
+  public long getSize()
+  {
+    return size;
+  }
+
+  /**
+   * Returns the beginning of the output.
+   * A character, that would be split by the limit, will not be returned.
+   *
+   * @param pMaxBytes maximum count of bytes to return
+   * @return the first bytes of the output as string
+   */
+  @NotNull
+  public String getHead(int pMaxBytes) throws IOException
+  {
+    byte[] bytes = _read(0, (int) Math.min(size, pMaxBytes));
+    int end = bytes.length;
+
+    // the last character is only complete, if all of its continuation bytes have been read
+    if (bytes.length < size)
+    {
+      int start = end;
+      while (start > 0 && start > end - 4 && _isContinuation(bytes[start - 1]))
+        start--;
+      if (start > 0 && _getSequenceLength(bytes[start - 1]) > end - start + 1)
+        end = start - 1;
+    }
+    return new String(bytes, 0, end, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Returns the end of the output.
+   * A character, that would be split by the limit, will not be returned.
+   *
+   * @param pMaxBytes maximum count of bytes to return
+   * @return the last bytes of the output as string
+   */
+  @NotNull
+  public String getTail(int pMaxBytes) throws IOException
+  {
+    int length = (int) Math.min(size, pMaxBytes);
+    byte[] bytes = _read(size - length, length);
+
+    // continuation bytes at the beginning belong to a character, that starts before the limit
+    int start = 0;
+    while (start < bytes.length && start < 3 && _isContinuation(bytes[start]))
+      start++;
+    return new String(bytes, start, bytes.length - start, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Returns the output, if it is not bigger than the given limit, or its beginning and its end otherwise.
+   *
+   * @param pMaxBytes maximum count of bytes to read
+   * @return the output as string, the omitted part in the middle will be marked
+   */
+  @NotNull
+  public String getExcerpt(int pMaxBytes) throws IOException
+  {
+    if (size <= pMaxBytes)
+      return getContent();
+
+    String head = getHead(pMaxBytes / 2);
+    String tail = getTail(pMaxBytes / 2);
+    long omitted = size - head.getBytes(StandardCharsets.UTF_8).length - tail.getBytes(StandardCharsets.UTF_8).length;
+    return head + "\n[... " + omitted + " bytes omitted ...]\n" + tail;
+  }
+
+  /**
+   * @return the whole output as string
+   */
+  @NotNull
+  public String getContent() throws IOException
+  {
+    if (size > Integer.MAX_VALUE)
+      throw new IOException("Output is too big to be read at once (" + size + " bytes)");
+    return new String(_read(0, (int) size), StandardCharsets.UTF_8);
+  }
+
+  @Override
+  public void close()
+  {
+    if (spillFile == null)
+      return;
+
+    try
+    {
+      Files.deleteIfExists(spillFile.toPath());
+    }
+    catch (IOException e)
+    {
+      Logger.getLogger(NodeJSCapturedOutput.class.getName()).log(Level.WARNING, "Failed to delete captured output " + spillFile, e);
+    }
+  }
+
+  /**
+   * @param pByte byte to check
+   * @return true, if the byte is a continuation byte of an UTF-8 sequence
+   */
+  private static boolean _isContinuation(byte pByte)
+  {
+    return (pByte & 0xC0) == 0x80;
+  }
+
+  /**
+   * @param pLeadByte first byte of an UTF-8 sequence
+   * @return the count of bytes of the sequence, that starts with the given byte
+   */
+  private static int _getSequenceLength(byte pLeadByte)
+  {
+    if ((pLeadByte & 0xE0) == 0xC0)
+      return 2;
+    if ((pLeadByte & 0xF0) == 0xE0)
+      return 3;
+    if ((pLeadByte & 0xF8) == 0xF0)
+      return 4;
+    return 1;
+  }
+
+  /**
+   * Reads a range of the output
+   *
+   * @param pPosition start position
+   * @param pLength   count of bytes
+   * @return the bytes of the range
+   */
+  @NotNull
+  private byte[] _read(long pPosition, int pLength) throws IOException
+  {
+    byte[] result = new byte[pLength];
+
+    // heap part
+    int fromHeap = (int) Math.max(0, Math.min(pLength, heap.length - pPosition));
+    if (fromHeap > 0)
+      System.arraycopy(heap, (int) pPosition, result, 0, fromHeap);
+
+    // spilled part
+    int fromFile = pLength - fromHeap;
+    if (fromFile > 0)
+    {
+      if (spillFile == null)
+        throw new IOException("Captured output is incomplete");
+
+      long filePosition = Math.max(0, pPosition - heap.length);
+      // the file is not mapped, so that it can be deleted immediately on close
+      try (FileChannel channel = FileChannel.open(spillFile.toPath(), StandardOpenOption.READ))
+      {
+        ByteBuffer buffer = ByteBuffer.wrap(result, fromHeap, fromFile);
+        while (buffer.hasRemaining())
+          if (channel.read(buffer, filePosition + buffer.position() - fromHeap) < 0)
+            throw new IOException("Captured output is incomplete");
+      }
+    }
+
+    return result;
+  }
+
+}
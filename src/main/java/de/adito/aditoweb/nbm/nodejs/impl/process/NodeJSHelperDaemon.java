@@ -0,0 +1,329 @@
+package de.adito.aditoweb.nbm.nodejs.impl.process;
+
+import com.google.gson.*;
+import de.adito.aditoweb.nbm.nbide.nbaditointerface.javascript.node.*;
+import de.adito.aditoweb.nbm.nodejs.impl.NodeJSExecutorImpl;
+import org.jetbrains.annotations.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.*;
+
+/**
+ * Long living node process per node binary, that answers short requests (node and npm versions) without
+ * starting a new node process for every single request. Requests and responses are exchanged as length prefixed
+ * JSON frames over stdin / stdout. Every request has its own timeout, a daemon that does not answer in time will be terminated.
+ * If the process has crashed or the binary has changed, it will be restarted with the next request.
+ * The daemon is optional and has to be enabled with the system property {@value #_ENABLED_PROPERTY}.
+ *
+ * @author agent, 17.10.2026
+ */
+public class NodeJSHelperDaemon
+{
+
+  private static final String _ENABLED_PROPERTY = "de.adito.aditoweb.nbm.nodejs.helperDaemon";
+  private static final String _SCRIPT_RESOURCE = "/de/adito/aditoweb/nbm/nodejs/impl/process/helper-daemon.js";
+  private static final String _VERSION_PARAMETER = "--version";
+  private static final long _DEFAULT_TIMEOUT_MS = 2000;
+  private static final Logger _LOGGER = Logger.getLogger(NodeJSHelperDaemon.class.getName());
+  private static final Map<String, NodeJSHelperDaemon> _INSTANCES = new ConcurrentHashMap<>();
+  private static final AtomicInteger _THREAD_COUNT = new AtomicInteger();
+  private static File _script;
+
+  private final INodeJSEnvironment environment;
+  private final Map<Integer, CompletableFuture<JsonElement>> pendingRequests = new ConcurrentHashMap<>();
+  private final AtomicInteger nextRequestId = new AtomicInteger();
+  private final AtomicInteger restarts = new AtomicInteger(-1);
+  private Process process;
+  private DataOutputStream processInput;
+  private long binaryModified;
+
+  /**
+   * @return true, if the helper daemon may be used
+   */
+  public static boolean isEnabled()
+  {
+    return Boolean.getBoolean(_ENABLED_PROPERTY);
+  }
+
+  /**
+   * Returns the daemon for the node binary of the given environment. The daemon process will be started lazily with the first request.
+   *
+   * @param pEnvironment environment to run the daemon with
+   * @return the daemon
+   */
+  @NotNull
+  public static NodeJSHelperDaemon getInstance(@NotNull INodeJSEnvironment pEnvironment)
+  {
+    return _INSTANCES.computeIfAbsent(pEnvironment.getPath().getAbsolutePath(), pPath -> new NodeJSHelperDaemon(pEnvironment));
+  }
+
+  /**
+   * Stops all running daemons
+   */
+  public static void shutdownAll()
+  {
+    _INSTANCES.values().forEach(NodeJSHelperDaemon::stop);
+    _INSTANCES.clear();
+  }
+
+  /**
+   * Answers "--version" of the given base, if the daemon is enabled and able to answer it.
+   * Every other command has to be executed as a separate process.
+   *
+   * @param pEnvironment environment of the command
+   * @param pBase        base of the command
+   * @param pTimeoutMs   time in milliseconds to wait for the answer at most, -1 to use the default timeout
+   * @param pParams      parameters of the command
+   * @return the version like the command would print it, NULL if the command has to be executed as a separate process
+   */
+  @Nullable
+  public static String tryGetVersion(@NotNull INodeJSEnvironment pEnvironment, @NotNull INodeJSExecBase pBase, long pTimeoutMs,
+                                     @NotNull String... pParams) throws InterruptedException
+  {
+    if (!isEnabled() || pParams.length != 1 || !_VERSION_PARAMETER.equals(pParams[0]))
+      return null;
+
+    String command;
+    if (pBase.getBasePath().equals(INodeJSExecBase.node().getBasePath()))
+      command = "version";
+    else if (pBase.getBasePath().equals(INodeJSExecBase.packageManager().getBasePath()))
+      command = "npmVersion";
+    else
+      return null;
+
+    long timeout = pTimeoutMs < 0 ? _DEFAULT_TIMEOUT_MS : Math.min(pTimeoutMs, _DEFAULT_TIMEOUT_MS);
+    try
+    {
+      return getInstance(pEnvironment).request(command, new JsonObject(), timeout).get().getAsString();
+    }
+    catch (ExecutionException | RuntimeException e)
+    {
+      // the caller falls back to a separate process
+      _LOGGER.log(Level.FINE, "nodejs helper daemon could not answer " + command, e);
+      return null;
+    }
+  }
+
+  NodeJSHelperDaemon(@NotNull INodeJSEnvironment pEnvironment)
+  {
+    environment = pEnvironment;
+  }
+
+  /**
+   * Sends a single request to the daemon
+   *
+   * @param pCommand   command to execute
+   * @param pArgs      arguments of the command
+   * @param pTimeoutMs time in milliseconds, after the request fails with a TimeoutException and the daemon will be terminated
+   * @return future with the result of the request
+   */
+  @NotNull
+  public CompletableFuture<JsonElement> request(@NotNull String pCommand, @NotNull JsonObject pArgs, long pTimeoutMs)
+  {
+    int id = nextRequestId.incrementAndGet();
+    CompletableFuture<JsonElement> result = new CompletableFuture<>();
+    pendingRequests.put(id, result);
+
+    JsonObject request = new JsonObject();
+    request.addProperty("id", id);
+    request.addProperty("command", pCommand);
+    request.add("args", pArgs);
+    byte[] payload = request.toString().getBytes(StandardCharsets.UTF_8);
+
+    Process target = null;
+    try
+    {
+      synchronized (this)
+      {
+        DataOutputStream out = _ensureRunning();
+        target = process;
+        out.writeInt(payload.length);
+        out.write(payload);
+        out.flush();
+      }
+    }
+    catch (Exception e)
+    {
+      result.completeExceptionally(e);
+    }
+
+    Process requested = target;
+    return result
+        .orTimeout(pTimeoutMs, TimeUnit.MILLISECONDS)
+        .whenComplete((pResult, pEx) -> {
+          pendingRequests.remove(id);
+
+          // a hanging daemon would delay all following requests, so it will be restarted with the next one
+          if (pEx instanceof TimeoutException && requested != null)
+            _terminate(requested);
+        });
+  }
+
+  /**
+   * @return how often the daemon process had to be restarted, because it was not alive anymore or its binary has changed
+   */
+  public int getRestartCount()
+  {
+    return Math.max(0, restarts.get());
+  }
+
+  /**
+   * Stops the daemon process. It will be started again with the next request.
+   */
+  public synchronized void stop()
+  {
+    if (process != null)
+    {
+      // closing stdin lets the daemon exit gracefully
+      _closeSilently(processInput);
+      process.destroy();
+      process = null;
+      processInput = null;
+    }
+  }
+
+  /**
+   * @return the current daemon process, NULL if it was not started yet or has been stopped
+   */
+  @Nullable
+  synchronized Process getProcess()
+  {
+    return process;
+  }
+
+  /**
+   * Starts the daemon process, if it is not running or if its binary has changed
+   *
+   * @return the stream to write requests to
+   */
+  @NotNull
+  private synchronized DataOutputStream _ensureRunning() throws IOException
+  {
+    long modified = environment.getPath().lastModified();
+    if (process != null && process.isAlive() && binaryModified == modified)
+      return processInput;
+
+    stop();
+    restarts.incrementAndGet();
+
+    // interactive, because the callers wait for the answer - the daemon counts against the limits of the scheduler as long as it runs
+    Process newProcess = NodeJSExecutorImpl.getInternalUnboundExecutor(environment.getPath().getParentFile())
+        .withPriority(ENodeJSProcessPriority.INTERACTIVE)
+        .execute(environment, INodeJSExecBase.node(), _getScript().getAbsolutePath());
+    process = newProcess;
+    processInput = new DataOutputStream(new BufferedOutputStream(newProcess.getOutputStream()));
+    binaryModified = modified;
+
+    // the error stream is only read, so that the daemon does not block on a full pipe
+    NodeJSStreamPumpEngine.getInstance().pumpOutput(newProcess, newProcess.getErrorStream(), OutputStream.nullOutputStream());
+    Thread reader = new Thread(() -> _readResponses(newProcess), "tNodeJSHelperDaemon-" + _THREAD_COUNT.getAndIncrement());
+    reader.setDaemon(true);
+    reader.start();
+    return processInput;
+  }
+
+  /**
+   * Terminates the given daemon process, if it is still the current one
+   *
+   * @param pProcess process to terminate
+   */
+  private synchronized void _terminate(@NotNull Process pProcess)
+  {
+    if (process == pProcess)
+    {
+      _LOGGER.log(Level.WARNING, "nodejs helper daemon did not answer in time, it will be restarted ({0})", environment.getPath());
+      stop();
+    }
+  }
+
+  /**
+   * Reads all responses of the given process and completes the appropriate requests
+   *
+   * @param pProcess daemon process
+   */
+  private void _readResponses(@NotNull Process pProcess)
+  {
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(pProcess.getInputStream())))
+    {
+      while (true) //NOSONAR will be left with EOFException
+      {
+        byte[] payload = new byte[in.readInt()];
+        in.readFully(payload);
+        JsonObject response = JsonParser.parseString(new String(payload, StandardCharsets.UTF_8)).getAsJsonObject();
+        CompletableFuture<JsonElement> request = pendingRequests.remove(response.get("id").getAsInt());
+        if (request != null)
+        {
+          if (response.get("ok").getAsBoolean())
+            request.complete(response.get("result"));
+          else
+            request.completeExceptionally(new IOException(response.get("error").getAsString()));
+        }
+      }
+    }
+    catch (Exception e)
+    {
+      // EOF or stream closed: process has exited or daemon was stopped on purpose
+      if (!(e instanceof EOFException) && pProcess.isAlive() && _isCurrent(pProcess))
+      {
+        _LOGGER.log(Level.WARNING, "Failed to read response of nodejs helper daemon", e);
+        pProcess.destroyForcibly();
+      }
+    }
+
+    // the process is gone, so there will not be an answer for the currently pending requests
+    synchronized (this)
+    {
+      if (process == pProcess || process == null)
+        pendingRequests.values().forEach(pRequest -> pRequest.completeExceptionally(new IOException("nodejs helper daemon has exited")));
+    }
+  }
+
+  /**
+   * @param pProcess process to check
+   * @return true, if the given process is the current daemon process
+   */
+  private synchronized boolean _isCurrent(@NotNull Process pProcess)
+  {
+    return process == pProcess;
+  }
+
+  /**
+   * @return the script file of the daemon, extracted from the module resources
+   */
+  @NotNull
+  private static synchronized File _getScript() throws IOException
+  {
+    if (_script == null || !_script.exists())
+    {
+      Path script = Files.createTempFile("nodejs-helper-daemon", ".js");
+      try (InputStream is = NodeJSHelperDaemon.class.getResourceAsStream(_SCRIPT_RESOURCE))
+      {
+        if (is == null)
+          throw new IOException("nodejs helper daemon script not found (" + _SCRIPT_RESOURCE + ")");
+        Files.copy(is, script, StandardCopyOption.REPLACE_EXISTING);
+      }
+      _script = script.toFile();
+      _script.deleteOnExit();
+    }
+    return _script;
+  }
+
+  private static void _closeSilently(@Nullable Closeable pCloseable)
+  {
+    try
+    {
+      if (pCloseable != null)
+        pCloseable.close();
+    }
+    catch (IOException e)
+    {
+      // ignore
+    }
+  }
+
+}
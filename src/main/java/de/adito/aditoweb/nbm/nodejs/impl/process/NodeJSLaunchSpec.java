@@ -0,0 +1,264 @@
+package de.adito.aditoweb.nbm.nodejs.impl.process;
+
+import com.google.common.cache.*;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import de.adito.aditoweb.nbm.nbide.nbaditointerface.javascript.node.*;
+import org.jetbrains.annotations.*;
+import org.openide.util.BaseUtilities;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Immutable description of how a command of a nodejs environment has to be launched in a specific working directory.
+ * Resolving the executable and merging the environment variables is done once per (environment, exec base, working directory)
+ * and cached, so that launching a process only has to copy the parameters.
+ * A specification should be invalidated, if its executable could not be started.
+ *
+ * @author agent, 17.10.2026
+ */
+public class NodeJSLaunchSpec
+{
+
+  private static final String _PATH_ENVIRONMENT = "PATH";
+  private static final int _MAX_CACHED_SPECS = 64;
+  private static final Cache<_Key, NodeJSLaunchSpec> _CACHE = CacheBuilder.newBuilder()
+      .maximumSize(_MAX_CACHED_SPECS)
+      .build();
+
+  private final String executable;
+  private final File workingDir;
+  private final Map<String, String> environment;
+  private final Map<String, String> environmentOverrides;
+  private final boolean nodeScript;
+
+  /**
+   * Returns the (cached) specification for the given parameters
+   *
+   * @param pEnv        environment
+   * @param pBase       base
+   * @param pWorkingDir directory to execute commands in
+   * @return the specification
+   */
+  @NotNull
+  public static NodeJSLaunchSpec get(@NotNull INodeJSEnvironment pEnv, @NotNull INodeJSExecBase pBase, @NotNull File pWorkingDir)
+  {
+    try
+    {
+      return _CACHE.get(new _Key(pEnv, pBase, pWorkingDir), () -> _create(pEnv, pBase, pWorkingDir));
+    }
+    catch (ExecutionException | UncheckedExecutionException e)
+    {
+      // resolving failed, do not hide the original exception
+      if (e.getCause() instanceof RuntimeException)
+        throw (RuntimeException) e.getCause();
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  /**
+   * Removes the cached specification for the given parameters, so that it will be recreated on next access
+   *
+   * @param pEnv        environment
+   * @param pBase       base
+   * @param pWorkingDir directory to execute commands in
+   */
+  public static void invalidate(@NotNull INodeJSEnvironment pEnv, @NotNull INodeJSExecBase pBase, @NotNull File pWorkingDir)
+  {
+    _CACHE.invalidate(new _Key(pEnv, pBase, pWorkingDir));
+  }
+
+  /**
+   * Removes all cached specifications
+   */
+  public static void invalidateAll()
+  {
+    _CACHE.invalidateAll();
+  }
+
+  /**
+   * Checks, if the given executable is a javascript file with a node shebang, like npm on linux and mac
+   *
+   * @param pExecutable executable to check
+   * @return true, if it is a node script
+   */
+  public static boolean isNodeScriptFile(@NotNull File pExecutable)
+  {
+    String name = pExecutable.getName();
+    if (name.endsWith(".js") || name.endsWith(".cjs") || name.endsWith(".mjs"))
+      return true;
+    if (!pExecutable.isFile())
+      return false;
+
+    try (BufferedReader reader = Files.newBufferedReader(pExecutable.toPath(), StandardCharsets.ISO_8859_1))
+    {
+      String firstLine = reader.readLine();
+      return firstLine != null && firstLine.startsWith("#!") && firstLine.contains("node");
+    }
+    catch (IOException e)
+    {
+      // not readable, binary or something else
+      return false;
+    }
+  }
+
+  NodeJSLaunchSpec(@NotNull String pExecutable, boolean pNodeScript, @NotNull File pWorkingDir, @NotNull Map<String, String> pEnvironmentOverrides)
+  {
+    executable = pExecutable;
+    nodeScript = pNodeScript;
+    workingDir = pWorkingDir;
+    environmentOverrides = Collections.unmodifiableMap(new HashMap<>(pEnvironmentOverrides));
+
+    Map<String, String> merged = new HashMap<>(System.getenv());
+    merged.keySet().removeIf(pKey -> pEnvironmentOverrides.keySet().stream().anyMatch(pKey::equalsIgnoreCase));
+    merged.putAll(pEnvironmentOverrides);
+    environment = Collections.unmodifiableMap(merged);
+  }
+
+  /**
+   * @return the absolute path of the executable
+   */
+  @NotNull
+  public String getExecutable()
+  {
+    return executable;
+  }
+
+  /**
+   * @return true, if the executable is a javascript file, that is executed by node
+   */
+  public boolean isNodeScript()
+  {
+    return nodeScript;
+  }
+
+  /**
+   * @return the directory to execute commands in
+   */
+  @NotNull
+  public File getWorkingDir()
+  {
+    return workingDir;
+  }
+
+  /**
+   * @return all environment variables of the process
+   */
+  @NotNull
+  public Map<String, String> getEnvironment()
+  {
+    return environment;
+  }
+
+  /**
+   * @return the environment variables, that differ from the environment of this process
+   */
+  @NotNull
+  public Map<String, String> getEnvironmentOverrides()
+  {
+    return environmentOverrides;
+  }
+
+  /**
+   * @param pParams parameters
+   * @return the full command, the executable first
+   */
+  @NotNull
+  public List<String> getCommand(@NotNull String... pParams)
+  {
+    List<String> command = new ArrayList<>(pParams.length + 1);
+    command.add(executable);
+    Collections.addAll(command, pParams);
+    return command;
+  }
+
+  /**
+   * Creates a builder, that launches the executable with the given parameters
+   *
+   * @param pOverrides environment variables, that should be set for this single process only, NULL if there are none
+   * @param pParams    parameters
+   * @return the builder
+   */
+  @NotNull
+  public ProcessBuilder createProcessBuilder(@Nullable Map<String, String> pOverrides, @NotNull String... pParams)
+  {
+    ProcessBuilder builder = new ProcessBuilder(getCommand(pParams)).directory(workingDir);
+
+    // the builder already contains the environment of this process, so only the differences have to be set
+    if (!environmentOverrides.isEmpty() || (pOverrides != null && !pOverrides.isEmpty()))
+    {
+      Map<String, String> variables = builder.environment();
+      variables.putAll(environmentOverrides);
+      if (pOverrides != null)
+        variables.putAll(pOverrides);
+    }
+
+    return builder;
+  }
+
+  /**
+   * Creates a new specification
+   *
+   * @param pEnv        environment
+   * @param pBase       base
+   * @param pWorkingDir directory to execute commands in
+   * @return the specification
+   */
+  @NotNull
+  private static NodeJSLaunchSpec _create(@NotNull INodeJSEnvironment pEnv, @NotNull INodeJSExecBase pBase, @NotNull File pWorkingDir)
+  {
+    File executable = pBase.isRelativeToWorkingDir() ? new File(pWorkingDir, pBase.getBasePath()) : pEnv.resolveExecBase(pBase);
+
+    // modify path with our node environment
+    Map<String, String> overrides = new HashMap<>();
+    for (Map.Entry<String, String> entry : System.getenv().entrySet())
+      if (entry.getKey().equalsIgnoreCase(_PATH_ENVIRONMENT))
+        overrides.put(_PATH_ENVIRONMENT, pEnv.getPath().getParent() + (BaseUtilities.isWindows() ? ";" : ":") + entry.getValue());
+
+    return new NodeJSLaunchSpec(executable.getAbsolutePath(), isNodeScriptFile(executable), pWorkingDir, overrides);
+  }
+
+  /**
+   * Key of the cache
+   */
+  private static class _Key
+  {
+    private final Class<?> environmentType;
+    private final File environmentPath;
+    private final String basePath;
+    private final boolean relativeToWorkingDir;
+    private final File workingDir;
+
+    public _Key(@NotNull INodeJSEnvironment pEnv, @NotNull INodeJSExecBase pBase, @NotNull File pWorkingDir)
+    {
+      // environments resolve their bases differently, so the type is part of the key
+      environmentType = pEnv.getClass();
+      environmentPath = pEnv.getPath();
+      basePath = pBase.getBasePath();
+      relativeToWorkingDir = pBase.isRelativeToWorkingDir();
+      workingDir = pWorkingDir;
+    }
+
+    @Override
+    public boolean equals(Object pOther)
+    {
+      if (this == pOther)
+        return true;
+      if (pOther == null || getClass() != pOther.getClass())
+        return false;
+      _Key other = (_Key) pOther;
+      return relativeToWorkingDir == other.relativeToWorkingDir && environmentType.equals(other.environmentType) &&
+          environmentPath.equals(other.environmentPath) && basePath.equals(other.basePath) && workingDir.equals(other.workingDir);
+    }
+
+    @Override
+    public int hashCode()
+    {
+      return Objects.hash(environmentType, environmentPath, basePath, relativeToWorkingDir, workingDir);
+    }
+  }
+
+}
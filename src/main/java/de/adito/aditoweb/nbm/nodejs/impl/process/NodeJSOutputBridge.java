@@ -0,0 +1,401 @@
+package de.adito.aditoweb.nbm.nodejs.impl.process;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.jetbrains.annotations.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.logging.*;
+
+/**
+ * Bridge between the output streams of a process and the writers of an output window.
+ * Both streams are buffered line by line in one buffer, so that the order of stdout and stderr is kept.
+ * All bridges are flushed together by a shared background thread at a bounded frame rate,
+ * so that a process writing many small chunks does not flood the output window (and the EDT) with updates.
+ * If more lines are buffered than the limit allows, only the tail is kept and the count of dropped lines is written instead.
+ * The frame rate can be configured with the system property {@value #_FRAME_RATE_PROPERTY}, the limit of lines with {@value #_MAX_LINES_PROPERTY}.
+ *
+ * @author agent, 17.10.2026
+ */
+public class NodeJSOutputBridge implements Flushable, Closeable
+{
+
+  private static final String _FRAME_RATE_PROPERTY = "de.adito.aditoweb.nbm.nodejs.outputFrameRate";
+  private static final String _MAX_LINES_PROPERTY = "de.adito.aditoweb.nbm.nodejs.outputMaxLines";
+  private static final int _DEFAULT_FRAME_RATE = 20;
+  private static final int _DEFAULT_MAX_LINES = 5000;
+  private static final Logger _LOGGER = Logger.getLogger(NodeJSOutputBridge.class.getName());
+  private static ScheduledExecutorService _scheduler;
+
+  private final Writer outTarget;
+  private final Writer errTarget;
+  private final int maxLines;
+  private final long intervalNanos;
+  private final Deque<_Line> lines = new ArrayDeque<>();
+  private final _Stream out = new _Stream(false);
+  private final _Stream err = new _Stream(true);
+  private final Object flushLock = new Object();
+  private final ScheduledFuture<?> flushTask;
+  private long droppedLines = 0;
+  private long pendingDroppedLines = 0;
+  private long lastFrameNanos;
+  private boolean closed = false;
+
+  /**
+   * Stops the shared thread, that flushes all bridges
+   */
+  public static synchronized void shutdownAll()
+  {
+    if (_scheduler != null)
+      _scheduler.shutdownNow();
+    _scheduler = null;
+  }
+
+  /**
+   * Creates a new bridge with the configured frame rate and limit of lines
+   *
+   * @param pOut writer to write stdout to, will be closed if the bridge gets closed
+   * @param pErr writer to write stderr to, will be closed if the bridge gets closed
+   */
+  public NodeJSOutputBridge(@NotNull Writer pOut, @NotNull Writer pErr)
+  {
+    this(pOut, pErr, Math.max(1, Integer.getInteger(_MAX_LINES_PROPERTY, _DEFAULT_MAX_LINES)),
+         1000L / Math.max(1, Integer.getInteger(_FRAME_RATE_PROPERTY, _DEFAULT_FRAME_RATE)));
+  }
+
+  NodeJSOutputBridge(@NotNull Writer pOut, @NotNull Writer pErr, int pMaxLines, long pIntervalMs)
+  {
+    outTarget = pOut;
+    errTarget = pErr;
+    maxLines = pMaxLines;
+    intervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, pIntervalMs));
+    lastFrameNanos = System.nanoTime();
+    flushTask = _getScheduler().scheduleWithFixedDelay(this::_flushFrame, pIntervalMs, Math.max(1, pIntervalMs), TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * @return the stream for stdout of the process
+   */
+  @NotNull
+  public OutputStream getOut()
+  {
+    return out;
+  }
+
+  /**
+   * @return the stream for stderr of the process
+   */
+  @NotNull
+  public OutputStream getErr()
+  {
+    return err;
+  }
+
+  /**
+   * Writes all buffered lines to the targets immediately
+   */
+  @Override
+  public void flush()
+  {
+    _flushFrame();
+  }
+
+  /**
+   * Writes everything, that is still buffered, and closes both targets
+   */
+  @Override
+  public void close() throws IOException
+  {
+    synchronized (this)
+    {
+      if (closed)
+        return;
+      closed = true;
+    }
+
+    flushTask.cancel(false);
+    _flushFrame();
+    try
+    {
+      outTarget.close();
+    }
+    finally
+    {
+      errTarget.close();
+    }
+  }
+
+  /**
+   * @return the count of lines, that were dropped, because the limit was exceeded
+   */
+  public synchronized long getDroppedLines()
+  {
+    return droppedLines;
+  }
+
+  /**
+   * Buffers bytes, that were written to one of the streams
+   *
+   * @param pStream stream, that was written to
+   * @param pBytes  bytes
+   * @param pOffset offset of the bytes
+   * @param pLength count of the bytes
+   */
+  private synchronized void _write(@NotNull _Stream pStream, @NotNull byte[] pBytes, int pOffset, int pLength) throws IOException
+  {
+    if (closed)
+      throw new IOException("Stream closed");
+
+    int start = pOffset;
+    int end = pOffset + pLength;
+    for (int i = pOffset; i < end; i++)
+    {
+      if (pBytes[i] == '\n')
+      {
+        _append(pStream, pBytes, start, i + 1 - start);
+        pStream.openLine.complete = true;
+        pStream.openLine = null;
+        _dropExceedingLines();
+        start = i + 1;
+      }
+    }
+    if (end > start)
+      _append(pStream, pBytes, start, end - start);
+  }
+
+  /**
+   * Appends bytes to the open line of the given stream. A new line will be opened at the end of the buffer, if necessary.
+   *
+   * @param pStream stream, that was written to
+   * @param pBytes  bytes
+   * @param pOffset offset of the bytes
+   * @param pLength count of the bytes
+   */
+  private void _append(@NotNull _Stream pStream, @NotNull byte[] pBytes, int pOffset, int pLength)
+  {
+    if (pStream.openLine == null)
+    {
+      pStream.openLine = new _Line(pStream.error);
+      lines.addLast(pStream.openLine);
+    }
+    pStream.openLine.content.write(pBytes, pOffset, pLength);
+  }
+
+  /**
+   * Drops the oldest complete lines, if the limit is exceeded
+   */
+  private void _dropExceedingLines()
+  {
+    while (lines.size() > maxLines && lines.peekFirst().complete)
+    {
+      lines.removeFirst();
+      droppedLines++;
+      pendingDroppedLines++;
+    }
+  }
+
+  /**
+   * Writes all buffered content to the targets, if the last frame was written at least one interval ago
+   */
+  private void _flushFrameIfDue()
+  {
+    boolean due;
+    synchronized (this)
+    {
+      due = System.nanoTime() - lastFrameNanos >= intervalNanos;
+    }
+    if (due)
+      _flushFrame();
+  }
+
+  /**
+   * Writes all buffered content to the targets, in the order it was written
+   */
+  private void _flushFrame()
+  {
+    // the scheduler and close may flush at the same time, but the content must be written in order
+    synchronized (flushLock)
+    {
+      List<_Line> content = _drain();
+      if (content.isEmpty())
+        return;
+
+      try
+      {
+        // consecutive lines of the same stream are written at once
+        StringBuilder builder = new StringBuilder();
+        boolean error = content.get(0).error;
+        for (_Line line : content)
+        {
+          if (line.error != error)
+          {
+            _writeTo(error, builder);
+            error = line.error;
+          }
+          builder.append(new String(line.content.toByteArray(), StandardCharsets.UTF_8));
+        }
+        _writeTo(error, builder);
+        outTarget.flush();
+        errTarget.flush();
+      }
+      catch (IOException e)
+      {
+        _LOGGER.log(Level.FINE, "Failed to write output", e);
+      }
+    }
+  }
+
+  /**
+   * Writes the given content to the target of a stream and clears it
+   *
+   * @param pError   true, if the content was written to stderr
+   * @param pContent content to write
+   */
+  private void _writeTo(boolean pError, @NotNull StringBuilder pContent) throws IOException
+  {
+    (pError ? errTarget : outTarget).write(pContent.toString());
+    pContent.setLength(0);
+  }
+
+  /**
+   * Removes all buffered content
+   *
+   * @return the lines to write, the oldest first
+   */
+  @NotNull
+  private synchronized List<_Line> _drain()
+  {
+    lastFrameNanos = System.nanoTime();
+    List<_Line> content = new ArrayList<>(lines.size() + 1);
+    if (pendingDroppedLines > 0)
+    {
+      _Line dropped = new _Line(false);
+      byte[] message = ("... " + pendingDroppedLines + " lines dropped ...\n").getBytes(StandardCharsets.UTF_8);
+      dropped.content.write(message, 0, message.length);
+      content.add(dropped);
+    }
+    pendingDroppedLines = 0;
+
+    for (Iterator<_Line> iterator = lines.iterator(); iterator.hasNext(); )
+    {
+      _Line line = iterator.next();
+      if (line.complete || closed)
+      {
+        iterator.remove();
+        content.add(line);
+        continue;
+      }
+
+      // the incomplete line is written too, so that prompts and progress are visible, but no character may be split
+      byte[] partial = line.content.toByteArray();
+      int complete = _getCompleteLength(partial);
+      if (complete > 0)
+      {
+        _Line written = new _Line(line.error);
+        written.content.write(partial, 0, complete);
+        content.add(written);
+        line.content.reset();
+        line.content.write(partial, complete, partial.length - complete);
+      }
+    }
+    return content;
+  }
+
+  /**
+   * Determines the length of the given utf-8 bytes without a trailing incomplete character
+   *
+   * @param pBytes bytes to check
+   * @return the length of all complete characters
+   */
+  private static int _getCompleteLength(@NotNull byte[] pBytes)
+  {
+    // search the lead byte of the last character
+    for (int i = pBytes.length - 1; i >= Math.max(0, pBytes.length - 4); i--)
+    {
+      int b = pBytes[i] & 0xFF;
+      if ((b & 0xC0) == 0x80)
+        continue; // continuation byte
+
+      int expected = b >= 0xF0 ? 4 : b >= 0xE0 ? 3 : b >= 0xC0 ? 2 : 1;
+      return i + expected <= pBytes.length ? pBytes.length : i;
+    }
+    return pBytes.length;
+  }
+
+  /**
+   * @return the shared thread, that flushes all bridges
+   */
+  @NotNull
+  private static synchronized ScheduledExecutorService _getScheduler()
+  {
+    if (_scheduler == null)
+      _scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                                                                  .setDaemon(true)
+                                                                  .setNameFormat("tNodeJSOutputBridge-%d")
+                                                                  .build());
+    return _scheduler;
+  }
+
+  /**
+   * Line of one of the streams
+   */
+  private static class _Line
+  {
+    private final boolean error;
+    private final ByteArrayOutputStream content = new ByteArrayOutputStream();
+    private boolean complete = false;
+
+    public _Line(boolean pError)
+    {
+      error = pError;
+    }
+  }
+
+  /**
+   * One of the streams of the process, that writes to the shared buffer
+   */
+  private class _Stream extends OutputStream
+  {
+    private final boolean error;
+    private _Line openLine;
+
+    public _Stream(boolean pError)
+    {
+      error = pError;
+    }
+
+    @Override
+    public void write(int pByte) throws IOException
+    {
+      write(new byte[]{(byte) pByte}, 0, 1);
+    }
+
+    @Override
+    public void write(@NotNull byte[] pBytes, int pOffset, int pLength) throws IOException
+    {
+      _write(this, pBytes, pOffset, pLength);
+    }
+
+    /**
+     * Writes the buffered content only, if the last frame is older than the frame interval.
+     * Processes flush after every chunk, so flushing every time would defeat the batching.
+     */
+    @Override
+    public void flush()
+    {
+      _flushFrameIfDue();
+    }
+
+    /**
+     * Does nothing, the targets will be closed with the bridge
+     */
+    @Override
+    public void close()
+    {
+      flush();
+    }
+  }
+
+}
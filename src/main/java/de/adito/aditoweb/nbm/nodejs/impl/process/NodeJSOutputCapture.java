@@ -0,0 +1,120 @@
+package de.adito.aditoweb.nbm.nodejs.impl.process;
+
+import org.jetbrains.annotations.*;
+
+import java.io.*;
+import java.nio.file.Files;
+
+/**
+ * OutputStream to capture the output of a process with bounded memory.
+ * The first bytes (up to the heap limit) are kept in memory, everything else will be spilled to a temporary file.
+ * If the process has finished, the captured output can be read with {@link #finish(int)}.
+ *
+ * @author agent, 17.10.2026
+ */
+public class NodeJSOutputCapture extends OutputStream
+{
+
+  private final int heapLimit;
+  private final ByteArrayOutputStream heap;
+  private File spillFile;
+  private OutputStream spill;
+  private long size;
+  private boolean finished;
+
+  /**
+   * @param pHeapLimit count of bytes, that will be kept in memory
+   */
+  public NodeJSOutputCapture(int pHeapLimit)
+  {
+    heapLimit = pHeapLimit;
+    heap = new ByteArrayOutputStream(Math.min(pHeapLimit, 8192));
+  }
+
+  @Override
+  public synchronized void write(int pByte) throws IOException
+  {
+    write(new byte[]{(byte) pByte}, 0, 1);
+  }
+
+  @Override
+  public synchronized void write(@NotNull byte[] pBytes, int pOffset, int pLength) throws IOException
+  {
+    // output, that arrives after the capture was finished, will be dropped
+    if (finished)
+      return;
+
+    int heapPart = Math.min(pLength, Math.max(0, heapLimit - heap.size()));
+    heap.write(pBytes, pOffset, heapPart);
+    if (heapPart < pLength)
+      _getSpill().write(pBytes, pOffset + heapPart, pLength - heapPart);
+    size += pLength;
+  }
+
+  @Override
+  public synchronized void flush() throws IOException
+  {
+    if (spill != null)
+      spill.flush();
+  }
+
+  /**
+   * Finishes this capture. All further writes will be dropped.
+   *
+   * @param pExitCode exit code of the process
+   * @return the captured output, has to be closed to release the temporary file
+   */
+  @NotNull
+  public synchronized NodeJSCapturedOutput finish(int pExitCode) throws IOException
+  {
+    finished = true;
+    if (spill != null)
+      spill.close();
+    return new NodeJSCapturedOutput(pExitCode, heap.toByteArray(), spillFile, size);
+  }
+
+  /**
+   * Finishes this capture and releases all captured output
+   */
+  public synchronized void discard()
+  {
+    try
+    {
+      finish(-1).close();
+    }
+    catch (IOException e)
+    {
+      // nothing to release
+    }
+  }
+
+  @NotNull
+  private OutputStream _getSpill() throws IOException
+  {
+    if (spill == null)
+    {
+      // the file will be deleted, if the captured output gets closed
+      spillFile = Files.createTempFile("nodejs-output", ".log").toFile();
+      spill = new BufferedOutputStream(new FileOutputStream(spillFile));
+    }
+    return spill;
+  }
+
+  /**
+   * @return true, if the output was too big for the heap and had to be written to disk
+   */
+  public synchronized boolean isSpilled()
+  {
+    return spillFile != null;
+  }
+
+  /**
+   * @return the temporary file, that contains the output that did not fit in memory
+   */
+  @Nullable
+  synchronized File getSpillFile()
+  {
+    return spillFile;
+  }
+
+}
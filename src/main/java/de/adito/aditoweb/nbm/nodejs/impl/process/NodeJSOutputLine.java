@@ -0,0 +1,65 @@
+package de.adito.aditoweb.nbm.nodejs.impl.process;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A single line, that a nodejs process has written to one of its output streams
+ *
+ * @author agent, 17.10.2026
+ */
+public class NodeJSOutputLine
+{
+
+  private final EStream stream;
+  private final long timestamp;
+  private final String line;
+
+  public NodeJSOutputLine(@NotNull EStream pStream, long pTimestamp, @NotNull String pLine)
+  {
+    stream = pStream;
+    timestamp = pTimestamp;
+    line = pLine;
+  }
+
+  /**
+   * @return the stream, that the line was written to
+   */
+  @NotNull
+  public EStream getStream()
+  {
+    return stream;
+  }
+
+  /**
+   * @return the time in milliseconds, when the line was read
+   */
+  public long getTimestamp()
+  {
+    return timestamp;
+  }
+
+  /**
+   * @return the content of the line, without line separator
+   */
+  @NotNull
+  public String getLine()
+  {
+    return line;
+  }
+
+  @Override
+  public String toString()
+  {
+    return "[" + stream + "] " + line;
+  }
+
+  /**
+   * Output streams of a process
+   */
+  public enum EStream
+  {
+    OUT,
+    ERR
+  }
+
+}
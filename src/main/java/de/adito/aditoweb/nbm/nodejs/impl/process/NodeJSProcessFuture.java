@@ -0,0 +1,51 @@
+package de.adito.aditoweb.nbm.nodejs.impl.process;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Future of an asynchronously executed process, that completes with its exit code.
+ * Cancelling it terminates the whole process tree, but the tree may need some time to exit after the future was cancelled.
+ * The termination future tells, when the tree is really gone, so that a process can be restarted without overlapping its predecessor.
+ *
+ * @author agent, 17.10.2026
+ */
+public class NodeJSProcessFuture extends CompletableFuture<Integer>
+{
+
+  private final CompletableFuture<Void> termination = new CompletableFuture<>();
+
+  /**
+   * Returns the termination of the given future.
+   * Futures, that do not belong to a process, are terminated as soon as they are done.
+   *
+   * @param pFuture future of a process or any other future
+   * @return future that completes if the process tree has exited after the given future was done
+   */
+  @NotNull
+  public static CompletableFuture<Void> terminationOf(@NotNull CompletableFuture<?> pFuture)
+  {
+    if (pFuture instanceof NodeJSProcessFuture)
+      return ((NodeJSProcessFuture) pFuture).getTermination();
+    return pFuture.handle((pResult, pEx) -> null);
+  }
+
+  /**
+   * @return future that completes if the process has finished regularly or its process tree has exited after it was cancelled
+   */
+  @NotNull
+  public CompletableFuture<Void> getTermination()
+  {
+    return termination;
+  }
+
+  /**
+   * Marks the process tree of this future as exited
+   */
+  public void terminated()
+  {
+    termination.complete(null);
+  }
+
+}
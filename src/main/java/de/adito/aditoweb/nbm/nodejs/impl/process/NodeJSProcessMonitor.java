@@ -0,0 +1,325 @@
+package de.adito.aditoweb.nbm.nodejs.impl.process;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.jetbrains.annotations.*;
+import org.openide.util.BaseUtilities;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Predicate;
+import java.util.logging.*;
+import java.util.stream.*;
+
+/**
+ * Samples the resources of all child processes, that were started by nodejs executors, and keeps the results of the
+ * last finished processes in a ring buffer. The size of the buffer can be configured with the system property {@value #_CAPACITY_PROPERTY}.
+ * CPU time will be read from {@link ProcessHandle.Info}, the RSS from /proc/&lt;pid&gt;/status and is only available on linux.
+ * Long running processes are sampled less often, the longer they run, so that idle dev servers do not cost anything.
+ *
+ * @author agent, 17.10.2026
+ */
+public class NodeJSProcessMonitor
+{
+
+  private static final String _CAPACITY_PROPERTY = "de.adito.aditoweb.nbm.nodejs.processMonitor.capacity";
+  private static final int _DEFAULT_CAPACITY = 256;
+  private static final long _SAMPLE_INTERVAL_MS = 250;
+  private static final long _MAX_SAMPLE_INTERVAL_MS = 10000;
+  private static final String _RSS_KEY = "VmRSS:";
+  private static final String _PEAK_RSS_KEY = "VmHWM:";
+  private static final Logger _LOGGER = Logger.getLogger(NodeJSProcessMonitor.class.getName());
+  private static NodeJSProcessMonitor _INSTANCE;
+
+  private final int capacity;
+  private final Deque<NodeJSProcessRecord> records;
+  private final Set<_MonitoredProcess> running = ConcurrentHashMap.newKeySet();
+  private final ScheduledExecutorService sampler;
+  private final long sampleIntervalMs;
+
+  /**
+   * @return the shared monitor instance
+   */
+  @NotNull
+  public static synchronized NodeJSProcessMonitor getInstance()
+  {
+    if (_INSTANCE == null || _INSTANCE.sampler.isShutdown())
+      _INSTANCE = new NodeJSProcessMonitor(Integer.getInteger(_CAPACITY_PROPERTY, _DEFAULT_CAPACITY), _SAMPLE_INTERVAL_MS);
+    return _INSTANCE;
+  }
+
+  /**
+   * Shuts down the shared monitor instance, if it was created
+   */
+  public static synchronized void shutdownInstance()
+  {
+    if (_INSTANCE != null)
+      _INSTANCE.shutdown();
+  }
+
+  NodeJSProcessMonitor(int pCapacity, long pSampleIntervalMs)
+  {
+    capacity = Math.max(1, pCapacity);
+    records = new ArrayDeque<>(capacity);
+    sampleIntervalMs = pSampleIntervalMs;
+    sampler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                                                             .setDaemon(true)
+                                                             .setNameFormat("tNodeJSProcessMonitor-%d")
+                                                             .build());
+    sampler.scheduleWithFixedDelay(this::_sampleAll, pSampleIntervalMs, pSampleIntervalMs, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Starts monitoring the given process. The record will be published, as soon as the process has exited.
+   * If the process is already monitored, e.g. an idle process of the warm pool that runs a script now, only its label and arguments are replaced.
+   *
+   * @param pProcess   process to monitor
+   * @param pLabel     label of the process, normally the base path of the executed command
+   * @param pArguments arguments of the process
+   */
+  public void monitor(@NotNull Process pProcess, @NotNull String pLabel, @NotNull List<String> pArguments)
+  {
+    for (_MonitoredProcess existing : running)
+    {
+      if (existing.process == pProcess)
+      {
+        existing.label = pLabel;
+        existing.arguments = pArguments;
+        return;
+      }
+    }
+
+    _MonitoredProcess monitored = new _MonitoredProcess(pProcess, pLabel, pArguments, sampleIntervalMs);
+    monitored.sample();
+    running.add(monitored);
+    pProcess.onExit().whenComplete((pExited, pEx) -> _finish(monitored));
+  }
+
+  /**
+   * @return the count of processes, that are currently monitored
+   */
+  public int getRunningCount()
+  {
+    return running.size();
+  }
+
+  /**
+   * @return all records in the buffer, the oldest first
+   */
+  @NotNull
+  public List<NodeJSProcessRecord> getRecords()
+  {
+    synchronized (records)
+    {
+      return new ArrayList<>(records);
+    }
+  }
+
+  /**
+   * @param pFilter filter for the records
+   * @return all records in the buffer, that match the given filter, the oldest first
+   */
+  @NotNull
+  public List<NodeJSProcessRecord> getRecords(@NotNull Predicate<NodeJSProcessRecord> pFilter)
+  {
+    return getRecords().stream()
+        .filter(pFilter)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * @param pLabel label of the processes
+   * @return all records in the buffer with the given label, the oldest first
+   */
+  @NotNull
+  public List<NodeJSProcessRecord> getRecords(@NotNull String pLabel)
+  {
+    return getRecords(pRecord -> pRecord.getLabel().equals(pLabel));
+  }
+
+  /**
+   * Removes all records from the buffer
+   */
+  public void clear()
+  {
+    synchronized (records)
+    {
+      records.clear();
+    }
+  }
+
+  /**
+   * Stops sampling. Processes, that are still running, will not be recorded anymore.
+   */
+  public void shutdown()
+  {
+    sampler.shutdownNow();
+    running.clear();
+  }
+
+  /**
+   * Samples all running processes, that have to be sampled again
+   */
+  private void _sampleAll()
+  {
+    try
+    {
+      long now = System.nanoTime();
+      running.stream()
+          .filter(pMonitored -> pMonitored.isSampleDue(now))
+          .forEach(_MonitoredProcess::sample);
+    }
+    catch (Exception e)
+    {
+      // the sampler must not die, otherwise nothing will be sampled anymore
+      _LOGGER.log(Level.WARNING, "Failed to sample nodejs processes", e);
+    }
+  }
+
+  /**
+   * Creates the record of the given process and adds it to the buffer
+   *
+   * @param pMonitored process, that has exited
+   */
+  private void _finish(@NotNull _MonitoredProcess pMonitored)
+  {
+    if (!running.remove(pMonitored))
+      return;
+
+    // descendants may still be alive
+    pMonitored.sample();
+    NodeJSProcessRecord record = pMonitored.toRecord();
+    _LOGGER.log(Level.FINE, "Process finished: {0}", record);
+
+    synchronized (records)
+    {
+      if (records.size() >= capacity)
+        records.removeFirst();
+      records.addLast(record);
+    }
+  }
+
+  /**
+   * Reads the current and the peak resident set size of the given process
+   *
+   * @param pPid process id
+   * @return the current RSS in bytes at index 0 and the peak RSS at index 1, NULL if it could not be read
+   */
+  @Nullable
+  private static long[] _readRss(long pPid)
+  {
+    if (BaseUtilities.getOperatingSystem() != BaseUtilities.OS_LINUX)
+      return null;
+
+    try
+    {
+      long[] rss = {-1, -1};
+      for (String line : Files.readAllLines(Paths.get("/proc", String.valueOf(pPid), "status"), StandardCharsets.UTF_8))
+      {
+        // format: "VmRSS:     1234 kB"
+        if (line.startsWith(_RSS_KEY))
+          rss[0] = _parseKiloBytes(line, _RSS_KEY);
+        else if (line.startsWith(_PEAK_RSS_KEY))
+          rss[1] = _parseKiloBytes(line, _PEAK_RSS_KEY);
+      }
+      return rss[0] < 0 ? null : rss;
+    }
+    catch (IOException | NumberFormatException e)
+    {
+      // process already gone or no access
+      return null;
+    }
+  }
+
+  /**
+   * @param pLine line of /proc/&lt;pid&gt;/status
+   * @param pKey  key of the line
+   * @return the value of the line in bytes
+   */
+  private static long _parseKiloBytes(@NotNull String pLine, @NotNull String pKey)
+  {
+    return Long.parseLong(pLine.substring(pKey.length()).replace("kB", "").trim()) * 1024;
+  }
+
+  /**
+   * A single process, that is currently monitored
+   */
+  private static class _MonitoredProcess
+  {
+    private final Process process;
+    private volatile String label;
+    private volatile List<String> arguments;
+    private final long startTime = System.currentTimeMillis();
+    private final long startNanos = System.nanoTime();
+    private final long minIntervalNanos;
+    private final Map<Long, Long> cpuTimes = new ConcurrentHashMap<>();
+    private volatile long peakRss = -1;
+    private volatile long nextSampleNanos;
+
+    public _MonitoredProcess(@NotNull Process pProcess, @NotNull String pLabel, @NotNull List<String> pArguments, long pMinIntervalMs)
+    {
+      process = pProcess;
+      label = pLabel;
+      arguments = pArguments;
+      minIntervalNanos = TimeUnit.MILLISECONDS.toNanos(pMinIntervalMs);
+      nextSampleNanos = startNanos;
+    }
+
+    /**
+     * @param pNowNanos current value of {@link System#nanoTime()}
+     * @return true, if this process has to be sampled again
+     */
+    public boolean isSampleDue(long pNowNanos)
+    {
+      return pNowNanos - nextSampleNanos >= 0;
+    }
+
+    /**
+     * Reads the current values of the process and all of its descendants.
+     * The interval until the next sample grows with the age of the process, up to ten seconds.
+     */
+    public synchronized void sample()
+    {
+      long now = System.nanoTime();
+      long interval = Math.max(minIntervalNanos, (now - startNanos) / 4);
+      nextSampleNanos = now + Math.min(interval, TimeUnit.MILLISECONDS.toNanos(_MAX_SAMPLE_INTERVAL_MS));
+
+      long[] treeRss = {0, -1};
+      Stream.concat(Stream.of(process.toHandle()), process.descendants())
+          .forEach(pHandle -> {
+            long pid = pHandle.pid();
+
+            // cpu time is cumulative, so the last value of every process counts
+            pHandle.info().totalCpuDuration()
+                .map(Duration::toMillis)
+                .ifPresent(pCpu -> cpuTimes.merge(pid, pCpu, Math::max));
+
+            long[] rss = _readRss(pid);
+            if (rss != null)
+            {
+              treeRss[0] += rss[0];
+              treeRss[1] = Math.max(treeRss[1], rss[1]);
+            }
+          });
+
+      // the whole tree used at least as much memory as every single process of it at its peak
+      long rss = treeRss[1] < 0 ? -1 : Math.max(treeRss[0], treeRss[1]);
+      peakRss = Math.max(peakRss, rss);
+    }
+
+    /**
+     * @return the record with all sampled values
+     */
+    @NotNull
+    public NodeJSProcessRecord toRecord()
+    {
+      long wallTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+      long cpu = cpuTimes.isEmpty() ? -1 : cpuTimes.values().stream().mapToLong(Long::longValue).sum();
+      return new NodeJSProcessRecord(process.pid(), label, arguments, startTime, wallTime, cpu, peakRss, process.exitValue());
+    }
+  }
+
+}
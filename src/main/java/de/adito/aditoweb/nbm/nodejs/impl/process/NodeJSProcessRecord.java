@@ -0,0 +1,112 @@
+package de.adito.aditoweb.nbm.nodejs.impl.process;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Resources, that a single finished nodejs process has consumed.
+ * CPU time contains the values of all descendants, that were seen while the process was running.
+ * Peak RSS is the highest RSS of the whole process tree, that was seen while the process was running.
+ *
+ * @author agent, 17.10.2026
+ */
+public class NodeJSProcessRecord
+{
+
+  private final long pid;
+  private final String label;
+  private final List<String> arguments;
+  private final long startTime;
+  private final long wallTime;
+  private final long cpuTime;
+  private final long peakRss;
+  private final int exitCode;
+
+  public NodeJSProcessRecord(long pPid, @NotNull String pLabel, @NotNull List<String> pArguments, long pStartTime, long pWallTime,
+                             long pCpuTime, long pPeakRss, int pExitCode)
+  {
+    pid = pPid;
+    label = pLabel;
+    arguments = List.copyOf(pArguments);
+    startTime = pStartTime;
+    wallTime = pWallTime;
+    cpuTime = pCpuTime;
+    peakRss = pPeakRss;
+    exitCode = pExitCode;
+  }
+
+  /**
+   * @return the process id of the root process
+   */
+  public long getPid()
+  {
+    return pid;
+  }
+
+  /**
+   * @return the label of the process, normally the base path of the executed command
+   */
+  @NotNull
+  public String getLabel()
+  {
+    return label;
+  }
+
+  /**
+   * @return the arguments of the process
+   */
+  @NotNull
+  public List<String> getArguments()
+  {
+    return arguments;
+  }
+
+  /**
+   * @return the time in milliseconds, when the process was started
+   */
+  public long getStartTime()
+  {
+    return startTime;
+  }
+
+  /**
+   * @return the time in milliseconds, that the process was running
+   */
+  public long getWallTime()
+  {
+    return wallTime;
+  }
+
+  /**
+   * @return the consumed cpu time in milliseconds, -1 if it could not be determined
+   */
+  public long getCpuTime()
+  {
+    return cpuTime;
+  }
+
+  /**
+   * @return the peak resident set size of the process and its descendants together in bytes, -1 if it could not be determined
+   */
+  public long getPeakRss()
+  {
+    return peakRss;
+  }
+
+  /**
+   * @return the exit code of the process
+   */
+  public int getExitCode()
+  {
+    return exitCode;
+  }
+
+  @Override
+  public String toString()
+  {
+    return label + " " + String.join(" ", arguments) + " (pid " + pid + ", exit " + exitCode + ", wall " + wallTime + "ms, cpu " + cpuTime +
+        "ms, rss " + peakRss + "b)";
+  }
+
+}
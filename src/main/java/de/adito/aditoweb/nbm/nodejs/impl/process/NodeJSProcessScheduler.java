@@ -0,0 +1,588 @@
+package de.adito.aditoweb.nbm.nodejs.impl.process;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.jetbrains.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+import java.util.logging.*;
+
+/**
+ * Module wide scheduler that runs all child processes started by nodejs executors. It has two limits:
+ * <ul>
+ *   <li>The hard cap limits the count of all running child processes, regardless of their priority and how long they run.
+ *   A process counts against it, until it has exited. It can be configured with the system property {@value #_MAX_RUNNING_PROPERTY}.</li>
+ *   <li>The slots limit the count of processes, that start or run for a short time. A process, that is still running after
+ *   {@value #_DEFAULT_LONG_RUNNING_MS}ms (dev servers, watch scripts, ...), gives back its slot, so that long running processes
+ *   do not block short ones. {@link ENodeJSProcessPriority#INTERACTIVE} processes do not occupy a slot.
+ *   The count of slots can be configured with the system property {@value #_MAX_PROCESSES_PROPERTY},
+ *   the time after a process counts as long running with {@value #_LONG_RUNNING_PROPERTY}.</li>
+ * </ul>
+ * A process, that exceeds any of the limits, will be queued. Queued processes are started by their {@link ENodeJSProcessPriority},
+ * processes with the same priority in submission order. Shutting down the scheduler terminates the process trees of all running processes.
+ *
+ * @author agent, 17.10.2026
+ */
+public class NodeJSProcessScheduler
+{
+
+  private static final String _MAX_PROCESSES_PROPERTY = "de.adito.aditoweb.nbm.nodejs.maxConcurrentProcesses";
+  private static final String _MAX_RUNNING_PROPERTY = "de.adito.aditoweb.nbm.nodejs.maxRunningProcesses";
+  private static final String _LONG_RUNNING_PROPERTY = "de.adito.aditoweb.nbm.nodejs.longRunningProcessMs";
+  private static final long _DEFAULT_LONG_RUNNING_MS = 10000;
+  private static final long _SHUTDOWN_TIMEOUT_MS = 10000;
+  private static final long _KEEP_ALIVE_SECONDS = 60;
+  private static final Logger _LOGGER = Logger.getLogger(NodeJSProcessScheduler.class.getName());
+  private static NodeJSProcessScheduler _INSTANCE;
+
+  private final ThreadPoolExecutor executor;
+  private final ScheduledExecutorService slotTimer;
+  private final PriorityQueue<_ProcessTask<?>> queue = new PriorityQueue<>();
+  private final Set<_ProcessTask<?>> running = new HashSet<>();
+  private final int maxRunning;
+  private final long longRunningMs;
+  private final AtomicInteger activeProcesses = new AtomicInteger();
+  private final AtomicLong completedProcesses = new AtomicLong();
+  private final AtomicLong sequence = new AtomicLong();
+  private int maxProcesses;
+  private int usedSlots = 0;
+  private boolean shutdown = false;
+
+  /**
+   * @return the shared scheduler instance
+   */
+  @NotNull
+  public static synchronized NodeJSProcessScheduler getInstance()
+  {
+    if (_INSTANCE == null || _INSTANCE.isShutdown())
+    {
+      int maxProcesses = _getInteger(_MAX_PROCESSES_PROPERTY, Math.max(8, Runtime.getRuntime().availableProcessors() * 2));
+      _INSTANCE = new NodeJSProcessScheduler(maxProcesses, _getInteger(_MAX_RUNNING_PROPERTY, Math.max(32, maxProcesses * 4)),
+                                             Math.max(1, Long.getLong(_LONG_RUNNING_PROPERTY, _DEFAULT_LONG_RUNNING_MS)));
+    }
+    return _INSTANCE;
+  }
+
+  /**
+   * Shuts down the shared scheduler instance, if it was created, and terminates all running processes
+   */
+  public static synchronized void shutdownInstance()
+  {
+    if (_INSTANCE != null)
+      _INSTANCE.shutdown();
+  }
+
+  NodeJSProcessScheduler(int pMaxProcesses)
+  {
+    this(pMaxProcesses, Integer.MAX_VALUE, _DEFAULT_LONG_RUNNING_MS);
+  }
+
+  NodeJSProcessScheduler(int pMaxProcesses, int pMaxRunning, long pLongRunningMs)
+  {
+    maxProcesses = pMaxProcesses;
+    maxRunning = pMaxRunning;
+    longRunningMs = pLongRunningMs;
+
+    // the count of threads is limited by the hard cap, long running processes keep their thread but not their slot
+    executor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, _KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                                      new ThreadFactoryBuilder()
+                                          .setDaemon(true)
+                                          .setNameFormat("tNodeJSExecutor-%d")
+                                          .build());
+    slotTimer = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                                                               .setDaemon(true)
+                                                               .setNameFormat("tNodeJSProcessSlots-%d")
+                                                               .build());
+  }
+
+  /**
+   * Submits a new task that runs a child process with {@link ENodeJSProcessPriority#USER} priority.
+   * The task will be queued, if the maximum count of concurrent processes is reached.
+   *
+   * @param pTask Task that starts the process and waits for its completion
+   * @return future that completes with the result of the task
+   */
+  @NotNull
+  public <T> CompletableFuture<T> submit(@NotNull Supplier<T> pTask)
+  {
+    return submit(ENodeJSProcessPriority.USER, pTask);
+  }
+
+  /**
+   * Submits a new task that runs a child process.
+   * The task will be queued, if the maximum count of concurrent processes is reached.
+   *
+   * @param pPriority priority of the task in the queue
+   * @param pTask     Task that starts the process and waits for its completion
+   * @return future that completes with the result of the task
+   */
+  @NotNull
+  public <T> CompletableFuture<T> submit(@NotNull ENodeJSProcessPriority pPriority, @NotNull Supplier<T> pTask)
+  {
+    return submit(pPriority, pTask, null);
+  }
+
+  /**
+   * Submits a new task that runs a child process.
+   * The task will be queued, if the maximum count of concurrent processes is reached.
+   *
+   * @param pPriority priority of the task in the queue
+   * @param pTask     Task that starts the process and waits for its completion
+   * @param pOnQueued called with the count of processes, that occupy a slot, if the task has to wait for a free slot
+   * @return future that completes with the result of the task, cancel it to remove a queued task from the queue
+   */
+  @NotNull
+  public <T> CompletableFuture<T> submit(@NotNull ENodeJSProcessPriority pPriority, @NotNull Supplier<T> pTask, @Nullable IntConsumer pOnQueued)
+  {
+    return _submit(new _ProcessTask<>(pPriority, sequence.getAndIncrement(), pTask, false), pOnQueued);
+  }
+
+  /**
+   * Submits a new task that starts a child process and returns it without waiting for its completion, e.g. to read its output.
+   * The process counts against the limits of this scheduler, until it has exited.
+   * The task will be queued, if the maximum count of concurrent processes is reached.
+   *
+   * @param pPriority priority of the task in the queue
+   * @param pTask     Task that starts the process
+   * @param pOnQueued called with the count of processes, that occupy a slot, if the task has to wait for a free slot
+   * @return future that completes with the started process, cancel it to remove a queued task from the queue.
+   * A process, that was started after the future has been cancelled, will be terminated.
+   */
+  @NotNull
+  public CompletableFuture<Process> spawn(@NotNull ENodeJSProcessPriority pPriority, @NotNull Supplier<Process> pTask, @Nullable IntConsumer pOnQueued)
+  {
+    return _submit(new _ProcessTask<>(pPriority, sequence.getAndIncrement(), pTask, true), pOnQueued);
+  }
+
+  /**
+   * Starts the given task, if the limits allow it, or queues it otherwise
+   *
+   * @param pTask     task to submit
+   * @param pOnQueued called with the count of processes, that occupy a slot, if the task has to wait
+   * @return the future of the task
+   */
+  @NotNull
+  private <T> CompletableFuture<T> _submit(@NotNull _ProcessTask<T> pTask, @Nullable IntConsumer pOnQueued)
+  {
+    int occupied;
+    synchronized (this)
+    {
+      if (shutdown)
+      {
+        pTask.result.completeExceptionally(new RejectedExecutionException("nodejs process scheduler was shut down"));
+        return pTask.result;
+      }
+
+      if (queue.isEmpty() && _tryAdmit(pTask))
+        occupied = -1;
+      else
+      {
+        queue.add(pTask);
+        occupied = Math.max(usedSlots, running.size());
+      }
+    }
+
+    if (occupied < 0)
+      _execute(pTask);
+    else
+    {
+      _LOGGER.log(Level.INFO, "All {0} nodejs process slots are occupied, process has to wait", occupied);
+      if (pOnQueued != null)
+        pOnQueued.accept(occupied);
+
+      // a cancelled task does not have to wait in the queue anymore
+      pTask.result.whenComplete((pResult, pEx) -> {
+        if (pTask.result.isCancelled())
+          _removeQueued(pTask);
+      });
+    }
+
+    return pTask.result;
+  }
+
+  /**
+   * @return the count of tasks that are waiting for a free process slot
+   */
+  public synchronized int getQueueDepth()
+  {
+    return queue.size();
+  }
+
+  /**
+   * @return the count of processes that are currently running, including the long running ones without a slot and those,
+   * that were spawned and not waited for
+   */
+  public int getActiveProcesses()
+  {
+    return activeProcesses.get();
+  }
+
+  /**
+   * @return the count of slots, that are currently occupied by starting or short running processes
+   */
+  public synchronized int getUsedSlots()
+  {
+    return usedSlots;
+  }
+
+  /**
+   * @return the count of processes that were finished since this scheduler was created
+   */
+  public long getCompletedProcesses()
+  {
+    return completedProcesses.get();
+  }
+
+  /**
+   * @return the maximum count of concurrently running processes, regardless of their priority or how long they run
+   */
+  public int getMaxRunningProcesses()
+  {
+    return maxRunning;
+  }
+
+  /**
+   * @return the maximum count of concurrently starting or short running processes
+   */
+  public synchronized int getMaxConcurrentProcesses()
+  {
+    return maxProcesses;
+  }
+
+  /**
+   * Sets the maximum count of concurrently starting or short running processes.
+   * Already running processes will not be affected.
+   *
+   * @param pMaxProcesses new maximum, has to be greater than zero
+   */
+  public void setMaxConcurrentProcesses(int pMaxProcesses)
+  {
+    if (pMaxProcesses < 1)
+      throw new IllegalArgumentException("The maximum count of concurrent processes has to be greater than zero (" + pMaxProcesses + ")");
+
+    synchronized (this)
+    {
+      maxProcesses = pMaxProcesses;
+    }
+
+    // more slots may be available now
+    _startQueued();
+  }
+
+  /**
+   * @return true, if this scheduler does not accept new tasks anymore
+   */
+  public synchronized boolean isShutdown()
+  {
+    return shutdown;
+  }
+
+  /**
+   * Shuts down this scheduler. Queued tasks will not be executed anymore and the process trees of all running tasks will be terminated.
+   * Waits at most {@value #_SHUTDOWN_TIMEOUT_MS}ms until all of them have exited.
+   */
+  public void shutdown()
+  {
+    shutdown(_SHUTDOWN_TIMEOUT_MS);
+  }
+
+  /**
+   * Shuts down this scheduler. Queued tasks will not be executed anymore and the process trees of all running tasks will be terminated.
+   *
+   * @param pTimeoutMs time in milliseconds to wait at most, until all running processes have exited
+   */
+  void shutdown(long pTimeoutMs)
+  {
+    List<_ProcessTask<?>> queued;
+    List<_ProcessTask<?>> active;
+    synchronized (this)
+    {
+      shutdown = true;
+      queued = new ArrayList<>(queue);
+      queue.clear();
+      active = new ArrayList<>(running);
+    }
+
+    queued.forEach(pTask -> pTask.result.cancel(false));
+    active.forEach(_ProcessTask::terminate);
+
+    try
+    {
+      synchronized (this)
+      {
+        long deadline = System.currentTimeMillis() + pTimeoutMs;
+        while (!running.isEmpty() && System.currentTimeMillis() < deadline)
+          wait(Math.max(1, deadline - System.currentTimeMillis()));
+        if (!running.isEmpty())
+          _LOGGER.log(Level.WARNING, "{0} nodejs processes have not exited in time", running.size());
+      }
+    }
+    catch (InterruptedException e)
+    {
+      Thread.currentThread().interrupt();
+    }
+
+    executor.shutdownNow();
+    slotTimer.shutdownNow();
+  }
+
+  /**
+   * Marks the given task as running, if the limits allow it
+   *
+   * @param pTask task to start
+   * @return true, if the task may be started
+   */
+  private synchronized boolean _tryAdmit(@NotNull _ProcessTask<?> pTask)
+  {
+    if (running.size() >= maxRunning || (pTask.priority.isLimited() && usedSlots >= maxProcesses))
+      return false;
+
+    running.add(pTask);
+    if (pTask.priority.isLimited())
+      usedSlots++;
+    else
+      pTask.slotReleased.set(true);
+    return true;
+  }
+
+  /**
+   * Runs the given task, that already occupies a slot
+   *
+   * @param pTask task to run
+   */
+  private void _execute(@NotNull _ProcessTask<?> pTask)
+  {
+    try
+    {
+      executor.execute(pTask);
+    }
+    catch (RejectedExecutionException e)
+    {
+      pTask.result.completeExceptionally(e);
+      pTask.releaseSlot();
+      pTask.releaseRunning();
+    }
+  }
+
+  /**
+   * Gives back a slot and starts the next queued tasks, if slots are free
+   */
+  private void _releaseSlot()
+  {
+    synchronized (this)
+    {
+      usedSlots--;
+    }
+    _startQueued();
+  }
+
+  /**
+   * Gives back the place of a task, that has finished, in the hard cap and starts the next queued tasks
+   *
+   * @param pTask task, that has finished
+   */
+  private void _releaseRunning(@NotNull _ProcessTask<?> pTask)
+  {
+    synchronized (this)
+    {
+      if (!running.remove(pTask))
+        return;
+      notifyAll();
+    }
+    _startQueued();
+  }
+
+  /**
+   * Starts queued tasks, as long as the limits allow it.
+   * Interactive tasks are always at the head of the queue, so only the head has to be checked.
+   */
+  private void _startQueued()
+  {
+    while (true)
+    {
+      _ProcessTask<?> next;
+      synchronized (this)
+      {
+        if (shutdown || queue.isEmpty() || !_tryAdmit(queue.peek()))
+          return;
+        next = queue.poll();
+      }
+      _execute(next);
+    }
+  }
+
+  /**
+   * Removes a cancelled task from the queue
+   *
+   * @param pTask task to remove
+   */
+  private synchronized void _removeQueued(@NotNull _ProcessTask<?> pTask)
+  {
+    queue.remove(pTask);
+  }
+
+  /**
+   * Reads a limit from the system properties
+   *
+   * @param pProperty name of the system property
+   * @param pFallback value, if the property is not set or invalid
+   * @return the limit, at least 1
+   */
+  private static int _getInteger(@NotNull String pProperty, int pFallback)
+  {
+    try
+    {
+      return Math.max(1, Integer.getInteger(pProperty, pFallback));
+    }
+    catch (Exception e)
+    {
+      _LOGGER.log(Level.WARNING, "Invalid value for " + pProperty + ", using " + pFallback, e);
+      return pFallback;
+    }
+  }
+
+  /**
+   * Task that runs a single process and completes its future
+   */
+  private class _ProcessTask<T> implements Runnable, Comparable<_ProcessTask<?>>
+  {
+    private final ENodeJSProcessPriority priority;
+    private final long sequenceNumber;
+    private final Supplier<T> task;
+    private final boolean untilExit;
+    private final CompletableFuture<T> result = new CompletableFuture<>();
+    private final AtomicBoolean slotReleased = new AtomicBoolean();
+    private volatile Process spawned;
+
+    /**
+     * @param pPriority       priority of the task
+     * @param pSequenceNumber number, that orders tasks with the same priority
+     * @param pTask           task to run
+     * @param pUntilExit      true, if the task returns a process, that counts against the limits until it has exited
+     */
+    public _ProcessTask(@NotNull ENodeJSProcessPriority pPriority, long pSequenceNumber, @NotNull Supplier<T> pTask, boolean pUntilExit)
+    {
+      priority = pPriority;
+      sequenceNumber = pSequenceNumber;
+      task = pTask;
+      untilExit = pUntilExit;
+    }
+
+    @Override
+    public int compareTo(@NotNull _ProcessTask<?> pOther)
+    {
+      int byPriority = Integer.compare(priority.ordinal(), pOther.priority.ordinal());
+      return byPriority != 0 ? byPriority : Long.compare(sequenceNumber, pOther.sequenceNumber);
+    }
+
+    @Override
+    public void run()
+    {
+      // cancelled while waiting in queue
+      if (result.isDone())
+      {
+        releaseSlot();
+        releaseRunning();
+        return;
+      }
+
+      // the process keeps running, but it must not keep its slot forever
+      ScheduledFuture<?> longRunning = _scheduleRelease();
+      activeProcesses.incrementAndGet();
+      T value = null;
+      Throwable failure = null;
+      try
+      {
+        value = task.get();
+      }
+      catch (Throwable t) //NOSONAR every failure has to be passed to the future
+      {
+        failure = t;
+      }
+
+      Process process = untilExit && value instanceof Process ? (Process) value : null;
+      if (process == null)
+        _finished(longRunning);
+      else
+      {
+        // a spawned process counts, until it has exited
+        spawned = process;
+        process.onExit().whenComplete((pExited, pEx) -> _finished(longRunning));
+        if (isShutdown())
+          terminate();
+      }
+
+      // the statistics have to be up to date, before anyone gets notified
+      if (failure != null)
+        result.completeExceptionally(failure);
+      else if (!result.complete(value) && process != null)
+        // nobody waits for the process anymore
+        NodeJSProcessTreeKiller.terminateAsync(process);
+    }
+
+    /**
+     * Terminates the process of this task with all of its descendants
+     */
+    public void terminate()
+    {
+      Process process = spawned;
+      if (process != null)
+        NodeJSProcessTreeKiller.terminateAsync(process);
+      else
+
+        // the owner of the process terminates it, if the task gets cancelled
+        result.cancel(true);
+    }
+
+    /**
+     * Gives back the slot of this task, if it was not given back yet
+     */
+    public void releaseSlot()
+    {
+      if (slotReleased.compareAndSet(false, true))
+        _releaseSlot();
+    }
+
+    /**
+     * Gives back the place of this task in the hard cap
+     */
+    public void releaseRunning()
+    {
+      _releaseRunning(this);
+    }
+
+    /**
+     * Called, if the process of this task has finished
+     *
+     * @param pLongRunning timer, that gives back the slot if the process is long running
+     */
+    private void _finished(@Nullable ScheduledFuture<?> pLongRunning)
+    {
+      activeProcesses.decrementAndGet();
+      completedProcesses.incrementAndGet();
+      if (pLongRunning != null)
+        pLongRunning.cancel(false);
+      releaseSlot();
+      releaseRunning();
+    }
+
+    /**
+     * @return the timer, that gives back the slot, if the process counts as long running - NULL if the scheduler was shut down
+     */
+    @Nullable
+    private ScheduledFuture<?> _scheduleRelease()
+    {
+      try
+      {
+        return slotTimer.schedule(this::releaseSlot, longRunningMs, TimeUnit.MILLISECONDS);
+      }
+      catch (RejectedExecutionException e)
+      {
+        return null;
+      }
+    }
+  }
+
+}
@@ -0,0 +1,136 @@
+package de.adito.aditoweb.nbm.nodejs.impl.process;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.*;
+
+/**
+ * Terminates a process together with all of its descendants.
+ * Every process gets a graceful termination request first and will be killed forcibly, if it is still alive after a grace period.
+ * npm starts node, node may start other processes - killing only the root process would leave the others running.
+ *
+ * @author agent, 17.10.2026
+ */
+public class NodeJSProcessTreeKiller
+{
+
+  private static final long _DEFAULT_GRACE_PERIOD_MS = 3000;
+  private static final long _POLL_INTERVAL_MS = 50;
+  private static final long _KILL_TIMEOUT_MS = 2000;
+  private static final Logger _LOGGER = Logger.getLogger(NodeJSProcessTreeKiller.class.getName());
+  private static final AtomicLong _KILLED_PROCESSES = new AtomicLong();
+  private static final ExecutorService _EXECUTOR = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                                                                                     .setDaemon(true)
+                                                                                     .setNameFormat("tNodeJSProcessTreeKiller-%d")
+                                                                                     .build());
+
+  /**
+   * Terminates the given process and all of its descendants asynchronously
+   *
+   * @param pProcess root process
+   * @return future with the count of processes, that were terminated, completes if the processes are gone
+   */
+  @NotNull
+  public static CompletableFuture<Integer> terminateAsync(@NotNull Process pProcess)
+  {
+    // capture the tree right now, because the descendants will be reparented as soon as the root is gone
+    List<ProcessHandle> tree = _collectTree(pProcess.toHandle());
+    return CompletableFuture.supplyAsync(() -> _terminate(tree, _DEFAULT_GRACE_PERIOD_MS), _EXECUTOR);
+  }
+
+  /**
+   * Terminates the given process and all of its descendants and waits until they are gone
+   *
+   * @param pRoot          root process
+   * @param pGracePeriodMs time in milliseconds to wait for a graceful termination, before the processes will be killed forcibly
+   * @return the count of processes, that were terminated
+   */
+  public static int terminate(@NotNull ProcessHandle pRoot, long pGracePeriodMs)
+  {
+    return _terminate(_collectTree(pRoot), pGracePeriodMs);
+  }
+
+  /**
+   * @return the count of processes, that were terminated since the module was started
+   */
+  public static long getKilledProcessCount()
+  {
+    return _KILLED_PROCESSES.get();
+  }
+
+  /**
+   * @param pRoot root process
+   * @return the root process and all of its descendants, that are currently alive
+   */
+  @NotNull
+  private static List<ProcessHandle> _collectTree(@NotNull ProcessHandle pRoot)
+  {
+    List<ProcessHandle> tree = new ArrayList<>();
+    if (pRoot.isAlive())
+      tree.add(pRoot);
+    pRoot.descendants()
+        .filter(ProcessHandle::isAlive)
+        .forEach(tree::add);
+    return tree;
+  }
+
+  /**
+   * Terminates all given processes
+   *
+   * @param pTree          processes to terminate
+   * @param pGracePeriodMs time in milliseconds to wait for a graceful termination
+   * @return the count of processes, that were terminated
+   */
+  private static int _terminate(@NotNull List<ProcessHandle> pTree, long pGracePeriodMs)
+  {
+    if (pTree.isEmpty())
+      return 0;
+
+    // graceful first
+    pTree.forEach(ProcessHandle::destroy);
+
+    _awaitExit(pTree, pGracePeriodMs);
+
+    // everything, that is still alive, will be killed and has to be gone, before the tree counts as terminated
+    pTree.stream()
+        .filter(ProcessHandle::isAlive)
+        .forEach(ProcessHandle::destroyForcibly);
+    if (!_awaitExit(pTree, _KILL_TIMEOUT_MS))
+      _LOGGER.log(Level.WARNING, "Process tree of {0} is still alive after it was killed", pTree.get(0).pid());
+
+    _KILLED_PROCESSES.addAndGet(pTree.size());
+    _LOGGER.log(Level.FINE, "Terminated process tree of {0} ({1} processes)", new Object[]{pTree.get(0).pid(), pTree.size()});
+    return pTree.size();
+  }
+
+  /**
+   * Waits until all given processes have exited
+   *
+   * @param pTree      processes to wait for
+   * @param pTimeoutMs maximum time in milliseconds to wait
+   * @return true, if all processes have exited
+   */
+  private static boolean _awaitExit(@NotNull List<ProcessHandle> pTree, long pTimeoutMs)
+  {
+    try
+    {
+      long deadline = System.currentTimeMillis() + pTimeoutMs;
+      while (pTree.stream().anyMatch(ProcessHandle::isAlive) && System.currentTimeMillis() < deadline)
+        Thread.sleep(_POLL_INTERVAL_MS);
+    }
+    catch (InterruptedException e)
+    {
+      Thread.currentThread().interrupt();
+    }
+    return pTree.stream().noneMatch(ProcessHandle::isAlive);
+  }
+
+  private NodeJSProcessTreeKiller()
+  {
+  }
+
+}
@@ -0,0 +1,591 @@
+package de.adito.aditoweb.nbm.nodejs.impl.process;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.jetbrains.annotations.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.*;
+
+/**
+ * Module wide engine, that copies the output streams of all child processes to their targets.
+ * While a process is alive, a small fixed set of threads polls all registered streams and only reads the bytes, that are already available,
+ * so that no thread blocks on a single idle stream. The count of polling threads can be configured with the system property {@value #_THREADS_PROPERTY}.
+ * Process pipes do not signal, if data is available, so every stream has its own poll interval: it grows up to {@value #_MAX_IDLE_MS}ms
+ * while the stream is idle and is reset as soon as data has been read. A poller parks until the next stream is due,
+ * or until it gets woken up by a new stream, by the exit of a process or by a writer, that has written the backlog of a throttled stream.
+ * After the process has exited, its streams are read blocking until their end, because descendants of the process may still write to them.
+ * Read chunks are queued per stream and written to the target by a separate writer, so a slow target never stalls the other streams.
+ * A stream is not read anymore, if too much of its output is still waiting to be written.
+ * The writers, the blocking readers and the input pumps run in bounded pools,
+ * {@value #_BLOCKING_THREADS_PROPERTY} configures the count of blocking readers and of input pumps.
+ * All copy buffers are pooled and reused.
+ *
+ * @author agent, 17.10.2026
+ */
+public class NodeJSStreamPumpEngine
+{
+
+  private static final String _THREADS_PROPERTY = "de.adito.aditoweb.nbm.nodejs.pumpThreads";
+  private static final String _BLOCKING_THREADS_PROPERTY = "de.adito.aditoweb.nbm.nodejs.pumpBlockingThreads";
+  private static final int _DEFAULT_THREADS = 2;
+  private static final int _DEFAULT_BLOCKING_THREADS = 16;
+  private static final int _WRITER_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+  private static final long _KEEP_ALIVE_SECONDS = 60;
+  private static final int _BUFFER_SIZE = 8192;
+  private static final int _MAX_POOLED_BUFFERS = 32;
+  private static final int _MAX_QUEUED_BYTES = 256 * 1024;
+  private static final int _HANDOFF = -2;
+  private static final long _MIN_IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+  private static final long _MAX_IDLE_MS = 200;
+  private static final long _MAX_IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(_MAX_IDLE_MS);
+  private static final Logger _LOGGER = Logger.getLogger(NodeJSStreamPumpEngine.class.getName());
+  private static NodeJSStreamPumpEngine _INSTANCE;
+
+  private final BlockingQueue<byte[]> buffers = new ArrayBlockingQueue<>(_MAX_POOLED_BUFFERS);
+  private final Set<_Pump> activePumps = ConcurrentHashMap.newKeySet();
+  private final AtomicInteger nextPoller = new AtomicInteger();
+  private final List<_Poller> pollers = new ArrayList<>();
+  private final ThreadPoolExecutor blockingExecutor;
+  private final ThreadPoolExecutor inputExecutor;
+  private final ThreadPoolExecutor writerExecutor;
+  private volatile boolean shutdown;
+
+  /**
+   * @return the shared engine instance
+   */
+  @NotNull
+  public static synchronized NodeJSStreamPumpEngine getInstance()
+  {
+    if (_INSTANCE == null || _INSTANCE.shutdown)
+      _INSTANCE = new NodeJSStreamPumpEngine(Integer.getInteger(_THREADS_PROPERTY, _DEFAULT_THREADS),
+                                             Integer.getInteger(_BLOCKING_THREADS_PROPERTY, _DEFAULT_BLOCKING_THREADS));
+    return _INSTANCE;
+  }
+
+  /**
+   * Shuts down the shared engine instance, if it was created
+   */
+  public static synchronized void shutdownInstance()
+  {
+    if (_INSTANCE != null)
+      _INSTANCE.shutdown();
+  }
+
+  NodeJSStreamPumpEngine(int pPollingThreads)
+  {
+    this(pPollingThreads, _DEFAULT_BLOCKING_THREADS);
+  }
+
+  NodeJSStreamPumpEngine(int pPollingThreads, int pBlockingThreads)
+  {
+    // streams of exited processes are drained quickly, so a drain may wait in the queue, if all blocking readers are busy
+    blockingExecutor = _createPool(Math.max(1, pBlockingThreads), "tNodeJSStreamPump-%d");
+
+    // input pumps block as long as their process runs, so they must not occupy the threads of the drains
+    inputExecutor = _createPool(Math.max(1, pBlockingThreads), "tNodeJSStreamInput-%d");
+    writerExecutor = _createPool(_WRITER_THREADS, "tNodeJSStreamWriter-%d");
+    for (int i = 0; i < Math.max(1, pPollingThreads); i++)
+    {
+      _Poller poller = new _Poller();
+      Thread thread = new Thread(poller, "tNodeJSStreamPoller-" + i);
+      thread.setDaemon(true);
+      poller.thread = thread;
+      pollers.add(poller);
+      thread.start();
+    }
+  }
+
+  /**
+   * Copies an output stream of the given process to the given target, until the stream has ended.
+   * The stream may stay open after the process has exited, if a descendant of the process still writes to it.
+   * The target will be flushed, if all queued output was written, but not closed.
+   *
+   * @param pProcess process, that owns the stream
+   * @param pIn      stdout or stderr of the process
+   * @param pOut     target to copy to
+   * @return future that completes with the count of copied bytes, if the stream has ended and everything was written
+   */
+  @NotNull
+  public CompletableFuture<Long> pumpOutput(@NotNull Process pProcess, @NotNull InputStream pIn, @NotNull OutputStream pOut)
+  {
+    _Pump pump = new _Pump(pProcess, pIn, pOut);
+    if (shutdown)
+      pump.finish();
+    else
+      pollers.get(Math.floorMod(nextPoller.getAndIncrement(), pollers.size())).register(pump);
+    return pump.result;
+  }
+
+  /**
+   * Copies the given stream to the stdin of the given process and closes stdin afterwards.
+   * The source may block arbitrarily long, so it will always be copied blocking in its own thread.
+   * If all threads for input pumps are in use, copying starts as soon as one of them is free.
+   *
+   * @param pIn      source of the input
+   * @param pProcess process to write to
+   * @return future that completes if the source has ended, cancel it to stop copying
+   */
+  @NotNull
+  public Future<?> pumpInput(@NotNull InputStream pIn, @NotNull Process pProcess)
+  {
+    return inputExecutor.submit(() -> {
+      byte[] buffer = _borrowBuffer();
+      try (OutputStream stdin = pProcess.getOutputStream())
+      {
+        int read;
+        while ((read = pIn.read(buffer)) != -1)
+        {
+          stdin.write(buffer, 0, read);
+          stdin.flush();
+        }
+      }
+      catch (IOException e)
+      {
+        // process has ended
+        _LOGGER.log(Level.FINE, "Input pump ended", e);
+      }
+      finally
+      {
+        _releaseBuffer(buffer);
+      }
+    });
+  }
+
+  /**
+   * @return the count of streams, that are currently copied
+   */
+  public int getActivePumps()
+  {
+    return activePumps.size();
+  }
+
+  /**
+   * Stops copying. All streams, that are currently copied, will be completed with the bytes copied so far.
+   */
+  public void shutdown()
+  {
+    shutdown = true;
+    blockingExecutor.shutdownNow();
+    inputExecutor.shutdownNow();
+    writerExecutor.shutdownNow();
+    pollers.forEach(pPoller -> LockSupport.unpark(pPoller.thread));
+    new ArrayList<>(activePumps).forEach(_Pump::finish);
+  }
+
+  /**
+   * Creates a pool with a fixed maximum count of threads, that are only kept while they are used
+   *
+   * @param pThreads    maximum count of threads
+   * @param pNameFormat format of the thread names
+   * @return the pool
+   */
+  @NotNull
+  private static ThreadPoolExecutor _createPool(int pThreads, @NotNull String pNameFormat)
+  {
+    ThreadPoolExecutor pool = new ThreadPoolExecutor(pThreads, pThreads, _KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                                                     new ThreadFactoryBuilder()
+                                                         .setDaemon(true)
+                                                         .setNameFormat(pNameFormat)
+                                                         .build());
+    pool.allowCoreThreadTimeOut(true);
+    return pool;
+  }
+
+  @NotNull
+  private byte[] _borrowBuffer()
+  {
+    byte[] buffer = buffers.poll();
+    return buffer == null ? new byte[_BUFFER_SIZE] : buffer;
+  }
+
+  private void _releaseBuffer(@NotNull byte[] pBuffer)
+  {
+    //noinspection ResultOfMethodCallIgnored full pool, buffer will be garbage collected
+    buffers.offer(pBuffer);
+  }
+
+  /**
+   * Copies a single stream of a process
+   */
+  private class _Pump
+  {
+    private final Process process;
+    private final InputStream in;
+    private final OutputStream out;
+    private final CompletableFuture<Long> result = new CompletableFuture<>();
+    private final Queue<_Chunk> chunks = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queuedBytes = new AtomicInteger();
+    private final AtomicBoolean writing = new AtomicBoolean();
+    private volatile _Poller poller;
+    private volatile boolean signalled = false;
+    private volatile boolean throttled = false;
+    private volatile boolean ended = false;
+    private volatile long count = 0;
+    private boolean writeFailed = false;
+    private long idleNanos = _MIN_IDLE_NANOS;
+    private long dueNanos = System.nanoTime();
+
+    public _Pump(@NotNull Process pProcess, @NotNull InputStream pIn, @NotNull OutputStream pOut)
+    {
+      process = pProcess;
+      in = pIn;
+      out = pOut;
+      activePumps.add(this);
+    }
+
+    /**
+     * Reads everything, that can be read without blocking
+     *
+     * @return the count of bytes, that were read, -1 if the stream has ended
+     * or {@link #_HANDOFF} if the process has exited and the rest of the stream has to be read blocking
+     */
+    public int poll()
+    {
+      // the target is too slow, so the process has to wait until the queued output was written
+      if (queuedBytes.get() >= _MAX_QUEUED_BYTES)
+      {
+        throttled = true;
+        return 0;
+      }
+
+      try
+      {
+        // read the state of the process first, so nothing will be lost, that was written right before the exit
+        boolean alive = process.isAlive();
+        int available = in.available();
+        if (available > 0)
+        {
+          byte[] buffer = _borrowBuffer();
+          int read = in.read(buffer, 0, Math.min(available, buffer.length));
+          if (read < 0)
+          {
+            _releaseBuffer(buffer);
+            return -1;
+          }
+          _enqueue(buffer, read);
+          return read;
+        }
+
+        // descendants of the process may still write to the stream, so it has to be read until its end
+        return alive ? 0 : _HANDOFF;
+      }
+      catch (IOException e)
+      {
+        _LOGGER.log(Level.FINE, "Stream pump ended", e);
+        return -1;
+      }
+    }
+
+    /**
+     * Reads the stream blocking until it has ended
+     */
+    public void drain()
+    {
+      try
+      {
+        while (true)
+        {
+          _awaitCapacity();
+          byte[] buffer = _borrowBuffer();
+          int read = in.read(buffer);
+          if (read < 0)
+          {
+            _releaseBuffer(buffer);
+            return;
+          }
+          _enqueue(buffer, read);
+        }
+      }
+      catch (IOException e)
+      {
+        // the stream will be closed if the process was terminated, so this is expected
+        _LOGGER.log(Level.FINE, "Stream pump ended", e);
+      }
+      catch (InterruptedException e)
+      {
+        Thread.currentThread().interrupt();
+      }
+      finally
+      {
+        end();
+      }
+    }
+
+    /**
+     * Lets the poller of this pump poll it immediately
+     */
+    public void signal()
+    {
+      _Poller current = poller;
+      if (current != null)
+      {
+        signalled = true;
+        LockSupport.unpark(current.thread);
+      }
+    }
+
+    /**
+     * Marks the stream as ended, this pump completes as soon as everything was written
+     */
+    public void end()
+    {
+      ended = true;
+      _scheduleWrite();
+    }
+
+    /**
+     * Completes this pump
+     */
+    public void finish()
+    {
+      // not active anymore, before anyone gets notified
+      activePumps.remove(this);
+      result.complete(count);
+    }
+
+    /**
+     * Queues a chunk, that was read, to be written to the target
+     *
+     * @param pBuffer buffer with the chunk, it will be released after it was written
+     * @param pLength length of the chunk
+     */
+    private void _enqueue(@NotNull byte[] pBuffer, int pLength)
+    {
+      chunks.add(new _Chunk(pBuffer, pLength));
+      queuedBytes.addAndGet(pLength);
+      _scheduleWrite();
+    }
+
+    /**
+     * Starts the writer of this pump, if it is not running yet. Only one writer runs at the same time, so the order of the chunks is kept.
+     */
+    private void _scheduleWrite()
+    {
+      if (writing.compareAndSet(false, true))
+      {
+        try
+        {
+          writerExecutor.execute(this::_write);
+        }
+        catch (RejectedExecutionException e)
+        {
+          // engine was shut down
+          writing.set(false);
+          finish();
+        }
+      }
+    }
+
+    /**
+     * Writes all queued chunks to the target and flushes it afterwards
+     */
+    private void _write()
+    {
+      _Chunk chunk;
+      while ((chunk = chunks.poll()) != null)
+      {
+        try
+        {
+          // output of a closed target is discarded, but the stream has to be read anyway, so the process does not block
+          if (!writeFailed)
+          {
+            out.write(chunk.buffer, 0, chunk.length);
+            count += chunk.length;
+          }
+        }
+        catch (IOException e)
+        {
+          writeFailed = true;
+          _LOGGER.log(Level.FINE, "Stream target was closed", e);
+        }
+        finally
+        {
+          _releaseBuffer(chunk.buffer);
+          queuedBytes.addAndGet(-chunk.length);
+          _signalCapacity();
+        }
+
+        // the poller does not read a throttled stream, until it gets woken up
+        if (throttled && queuedBytes.get() < _MAX_QUEUED_BYTES)
+        {
+          throttled = false;
+          signal();
+        }
+      }
+
+      try
+      {
+        if (!writeFailed)
+          out.flush();
+      }
+      catch (IOException e)
+      {
+        writeFailed = true;
+        _LOGGER.log(Level.FINE, "Stream target was closed", e);
+      }
+
+      writing.set(false);
+
+      // chunks may have been queued after the queue was empty
+      if (!chunks.isEmpty())
+        _scheduleWrite();
+      else if (ended)
+        finish();
+    }
+
+    /**
+     * Waits until the target has written enough of the queued output
+     */
+    private synchronized void _awaitCapacity() throws InterruptedException
+    {
+      while (queuedBytes.get() >= _MAX_QUEUED_BYTES && !shutdown)
+        wait(50);
+    }
+
+    /**
+     * Wakes up the blocking reader of this pump, if it waits for the writer
+     */
+    private synchronized void _signalCapacity()
+    {
+      notifyAll();
+    }
+  }
+
+  /**
+   * Chunk of a stream, that was read but not written yet
+   */
+  private static class _Chunk
+  {
+    private final byte[] buffer;
+    private final int length;
+
+    public _Chunk(@NotNull byte[] pBuffer, int pLength)
+    {
+      buffer = pBuffer;
+      length = pLength;
+    }
+  }
+
+  /**
+   * Thread, that polls all of its pumps
+   */
+  private class _Poller implements Runnable
+  {
+    private final Queue<_Pump> registrations = new ConcurrentLinkedQueue<>();
+    private final List<_Pump> pumps = new ArrayList<>();
+    private Thread thread;
+
+    /**
+     * Adds a new pump to this poller
+     *
+     * @param pPump pump to add
+     */
+    public void register(@NotNull _Pump pPump)
+    {
+      pPump.poller = this;
+      registrations.add(pPump);
+      LockSupport.unpark(thread);
+
+      // the rest of the stream has to be read as soon as the process has exited
+      pPump.process.onExit().thenRun(pPump::signal);
+    }
+
+    @Override
+    public void run()
+    {
+      while (!shutdown)
+      {
+        _Pump registered;
+        while ((registered = registrations.poll()) != null)
+          pumps.add(registered);
+
+        // nothing to do, wait for the next registration
+        if (pumps.isEmpty())
+        {
+          LockSupport.park(this);
+          continue;
+        }
+
+        long now = System.nanoTime();
+        long parkNanos = Long.MAX_VALUE;
+        for (Iterator<_Pump> iterator = pumps.iterator(); iterator.hasNext(); )
+        {
+          _Pump pump = iterator.next();
+          if (!pump.signalled && pump.dueNanos - now > 0)
+          {
+            parkNanos = Math.min(parkNanos, pump.dueNanos - now);
+            continue;
+          }
+
+          pump.signalled = false;
+          int read = pump.poll();
+          if (read == _HANDOFF)
+          {
+            iterator.remove();
+            pump.poller = null;
+            _handOff(pump);
+          }
+          else if (read < 0)
+          {
+            iterator.remove();
+            pump.poller = null;
+            pump.end();
+          }
+          else if (read > 0)
+          {
+            // there may be more, so the stream will be polled again right away
+            pump.idleNanos = _MIN_IDLE_NANOS;
+            pump.dueNanos = now;
+            parkNanos = 0;
+          }
+          else if (pump.throttled)
+          {
+            // the writer wakes this poller up, the interval is only a fallback
+            pump.dueNanos = now + _MAX_IDLE_NANOS;
+            parkNanos = Math.min(parkNanos, _MAX_IDLE_NANOS);
+          }
+          else
+          {
+            // back off, so that idle processes do not cost cpu time
+            pump.dueNanos = now + pump.idleNanos;
+            parkNanos = Math.min(parkNanos, pump.idleNanos);
+            pump.idleNanos = Math.min(pump.idleNanos * 2, _MAX_IDLE_NANOS);
+          }
+        }
+
+        // no stream is due, so wait until the next one is or until a stream gets signalled
+        if (parkNanos == Long.MAX_VALUE)
+          LockSupport.park(this);
+        else if (parkNanos > 0)
+          LockSupport.parkNanos(this, parkNanos);
+      }
+
+      // shutdown: complete everything, that is still registered
+      pumps.addAll(registrations);
+      pumps.forEach(_Pump::finish);
+    }
+
+    /**
+     * Reads the rest of the stream of an exited process in its own thread
+     *
+     * @param pPump pump to drain
+     */
+    private void _handOff(@NotNull _Pump pPump)
+    {
+      try
+      {
+        blockingExecutor.execute(pPump::drain);
+      }
+      catch (RejectedExecutionException e)
+      {
+        // engine was shut down
+        pPump.finish();
+      }
+    }
+  }
+
+}
@@ -0,0 +1,354 @@
+package de.adito.aditoweb.nbm.nodejs.impl.process;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gson.*;
+import org.jetbrains.annotations.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.logging.*;
+
+/**
+ * Keeps a few idle, already initialized node processes per environment, so that launching a script does not have to pay
+ * the cold start of node. An idle process waits for the entry point of the script on its stdin and runs it afterwards.
+ * Environments, that were not used for a while, release their idle processes.
+ * Idle processes are started by the {@link NodeJSProcessScheduler} with {@link ENodeJSProcessPriority#MAINTENANCE} priority
+ * in a neutral working directory and are recorded by the {@link NodeJSProcessMonitor}. They only count against the limits of the scheduler
+ * while they are started, a launch that takes one over counts it like every other process.
+ * The pool is optional and has to be enabled with the system property {@value #_ENABLED_PROPERTY}.
+ *
+ * @author agent, 17.10.2026
+ */
+public class NodeJSWarmProcessPool
+{
+
+  private static final String _ENABLED_PROPERTY = "de.adito.aditoweb.nbm.nodejs.warmPool";
+  private static final String _SIZE_PROPERTY = "de.adito.aditoweb.nbm.nodejs.warmPool.size";
+  private static final String _SCRIPT_RESOURCE = "/de/adito/aditoweb/nbm/nodejs/impl/process/warm-bootstrap.js";
+  private static final String _MONITOR_LABEL = "warm-pool";
+  private static final int _DEFAULT_SIZE = 1;
+  private static final long _DEFAULT_IDLE_TIMEOUT_MS = TimeUnit.MINUTES.toMillis(5);
+  private static final Logger _LOGGER = Logger.getLogger(NodeJSWarmProcessPool.class.getName());
+  private static NodeJSWarmProcessPool _INSTANCE;
+  private static File _script;
+
+  private final int size;
+  private final long idleTimeoutMs;
+  private final Map<_Key, _Environment> environments = new ConcurrentHashMap<>();
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final ScheduledExecutorService executor;
+
+  /**
+   * @return true, if the pool may be used
+   */
+  public static boolean isEnabled()
+  {
+    return Boolean.getBoolean(_ENABLED_PROPERTY);
+  }
+
+  /**
+   * @return the shared pool instance
+   */
+  @NotNull
+  public static synchronized NodeJSWarmProcessPool getInstance()
+  {
+    if (_INSTANCE == null || _INSTANCE.executor.isShutdown())
+      _INSTANCE = new NodeJSWarmProcessPool(Math.max(1, Integer.getInteger(_SIZE_PROPERTY, _DEFAULT_SIZE)), _DEFAULT_IDLE_TIMEOUT_MS);
+    return _INSTANCE;
+  }
+
+  /**
+   * Shuts down the shared pool instance, if it was created
+   */
+  public static synchronized void shutdownInstance()
+  {
+    if (_INSTANCE != null)
+      _INSTANCE.shutdown();
+  }
+
+  NodeJSWarmProcessPool(int pSize, long pIdleTimeoutMs)
+  {
+    size = pSize;
+    idleTimeoutMs = pIdleTimeoutMs;
+    executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                                                              .setDaemon(true)
+                                                              .setNameFormat("tNodeJSWarmPool-%d")
+                                                              .build());
+    long interval = Math.max(1, pIdleTimeoutMs / 2);
+    executor.scheduleWithFixedDelay(this::_shrink, interval, interval, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Takes over an idle process of the given node binary and lets it run the given script.
+   * If there is no idle process, the pool will be filled for the next launch and NULL will be returned,
+   * so that the caller has to start the process by itself.
+   *
+   * @param pNodeBinary           node binary, that has to run the script
+   * @param pEnvironmentOverrides environment variables, that have to be set for the process
+   * @param pWorkingDir           directory to run the script in
+   * @param pScript               script to run, relative to the working directory or absolute
+   * @param pArguments            arguments of the script
+   * @return the process, that runs the script, or NULL if no idle process was available
+   */
+  @Nullable
+  public Process acquire(@NotNull File pNodeBinary, @NotNull Map<String, String> pEnvironmentOverrides, @NotNull File pWorkingDir,
+                         @NotNull String pScript, @NotNull List<String> pArguments)
+  {
+    _Environment environment = environments.computeIfAbsent(new _Key(pNodeBinary, pEnvironmentOverrides),
+                                                            pKey -> new _Environment(pKey));
+    environment.lastUsed = System.currentTimeMillis();
+
+    Process process;
+    while ((process = environment.idle.poll()) != null)
+    {
+      if (process.isAlive() && _sendEntry(process, pWorkingDir, pScript, pArguments))
+        break;
+      process.destroyForcibly();
+    }
+
+    if (process != null)
+      hits.incrementAndGet();
+    else
+      misses.incrementAndGet();
+
+    // fill up for the next launch
+    if (!executor.isShutdown())
+      executor.execute(() -> _fill(environment));
+
+    return process;
+  }
+
+  /**
+   * @return the count of launches, that took over an idle process
+   */
+  public long getHits()
+  {
+    return hits.get();
+  }
+
+  /**
+   * @return the count of launches, that did not find an idle process
+   */
+  public long getMisses()
+  {
+    return misses.get();
+  }
+
+  /**
+   * @return the ratio of hits to all launches, 0 if nothing was launched yet
+   */
+  public double getHitRate()
+  {
+    long all = hits.get() + misses.get();
+    return all == 0 ? 0 : (double) hits.get() / all;
+  }
+
+  /**
+   * @return the count of idle processes in all environments
+   */
+  public int getIdleCount()
+  {
+    return environments.values().stream()
+        .mapToInt(pEnvironment -> pEnvironment.idle.size())
+        .sum();
+  }
+
+  /**
+   * Stops all idle processes
+   */
+  public void shutdown()
+  {
+    executor.shutdownNow();
+    environments.values().forEach(_Environment::clear);
+    environments.clear();
+  }
+
+  /**
+   * Starts idle processes, until the environment has the configured count.
+   * The processes are started asynchronously by the scheduler, so filling never waits for a free slot.
+   *
+   * @param pEnvironment environment to fill
+   */
+  private void _fill(@NotNull _Environment pEnvironment)
+  {
+    pEnvironment.idle.removeIf(pProcess -> !pProcess.isAlive());
+    while (pEnvironment.idle.size() + pEnvironment.starting.get() < size && _isActive(pEnvironment))
+    {
+      pEnvironment.starting.incrementAndGet();
+      NodeJSProcessScheduler.getInstance().submit(ENodeJSProcessPriority.MAINTENANCE, () -> _start(pEnvironment.key), null)
+          .whenComplete((pProcess, pEx) -> {
+            pEnvironment.starting.decrementAndGet();
+            if (pProcess == null)
+            {
+              if (!(pEx instanceof CancellationException) && !(pEx instanceof RejectedExecutionException))
+                _LOGGER.log(Level.WARNING, "Failed to start warm nodejs process (" + pEnvironment.key.nodeBinary + ")", pEx);
+            }
+            else if (_isActive(pEnvironment))
+              pEnvironment.idle.add(pProcess);
+            else
+              pProcess.destroy();
+          });
+    }
+  }
+
+  /**
+   * Starts an idle process
+   *
+   * @param pKey identifies the node binary and the environment of the process
+   * @return the started process
+   */
+  @NotNull
+  private static Process _start(@NotNull _Key pKey)
+  {
+    try
+    {
+      // the bootstrap changes to the working directory of the script, until then the process must not hold any project directory
+      ProcessBuilder builder = new ProcessBuilder(pKey.nodeBinary.getAbsolutePath(), _getScript().getAbsolutePath())
+          .directory(new File(System.getProperty("java.io.tmpdir")));
+      builder.environment().putAll(pKey.environmentOverrides);
+      Process process = builder.start();
+      NodeJSProcessMonitor.getInstance().monitor(process, _MONITOR_LABEL, List.of());
+      return process;
+    }
+    catch (IOException e)
+    {
+      throw new CompletionException(e);
+    }
+  }
+
+  /**
+   * @param pEnvironment environment to check
+   * @return true, if the environment still belongs to this pool
+   */
+  private boolean _isActive(@NotNull _Environment pEnvironment)
+  {
+    return !executor.isShutdown() && environments.get(pEnvironment.key) == pEnvironment;
+  }
+
+  /**
+   * Releases all idle processes of environments, that were not used within the idle timeout
+   */
+  private void _shrink()
+  {
+    long threshold = System.currentTimeMillis() - idleTimeoutMs;
+    environments.values().removeIf(pEnvironment -> {
+      if (pEnvironment.lastUsed >= threshold)
+        return false;
+      pEnvironment.clear();
+      return true;
+    });
+  }
+
+  /**
+   * Sends the entry point to the given idle process
+   *
+   * @return true, if the entry was sent
+   */
+  private static boolean _sendEntry(@NotNull Process pProcess, @NotNull File pWorkingDir, @NotNull String pScript, @NotNull List<String> pArguments)
+  {
+    JsonObject entry = new JsonObject();
+    entry.addProperty("cwd", pWorkingDir.getAbsolutePath());
+    entry.addProperty("script", pScript);
+    JsonArray args = new JsonArray();
+    pArguments.forEach(args::add);
+    entry.add("args", args);
+
+    try
+    {
+      // stdin must not be closed, it belongs to the script now
+      OutputStream stdin = pProcess.getOutputStream();
+      stdin.write((entry + "\n").getBytes(StandardCharsets.UTF_8));
+      stdin.flush();
+      return true;
+    }
+    catch (IOException e)
+    {
+      return false;
+    }
+  }
+
+  /**
+   * @return the bootstrap script of the idle processes
+   */
+  @NotNull
+  private static synchronized File _getScript() throws IOException
+  {
+    if (_script == null || !_script.exists())
+    {
+      Path script = Files.createTempFile("nodejs-warm-bootstrap", ".js");
+      try (InputStream is = NodeJSWarmProcessPool.class.getResourceAsStream(_SCRIPT_RESOURCE))
+      {
+        if (is == null)
+          throw new IOException("nodejs warm bootstrap script not found (" + _SCRIPT_RESOURCE + ")");
+        Files.copy(is, script, StandardCopyOption.REPLACE_EXISTING);
+      }
+      _script = script.toFile();
+      _script.deleteOnExit();
+    }
+    return _script;
+  }
+
+  /**
+   * Idle processes of a single node binary
+   */
+  private static class _Environment
+  {
+    private final _Key key;
+    private final Queue<Process> idle = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger starting = new AtomicInteger();
+    private volatile long lastUsed = System.currentTimeMillis();
+
+    public _Environment(@NotNull _Key pKey)
+    {
+      key = pKey;
+    }
+
+    /**
+     * Stops all idle processes
+     */
+    public void clear()
+    {
+      Process process;
+      while ((process = idle.poll()) != null)
+        process.destroy();
+    }
+  }
+
+  /**
+   * Identifies the processes, that can be shared
+   */
+  private static class _Key
+  {
+    private final File nodeBinary;
+    private final Map<String, String> environmentOverrides;
+
+    public _Key(@NotNull File pNodeBinary, @NotNull Map<String, String> pEnvironmentOverrides)
+    {
+      nodeBinary = pNodeBinary.getAbsoluteFile();
+      environmentOverrides = Map.copyOf(pEnvironmentOverrides);
+    }
+
+    @Override
+    public boolean equals(Object pOther)
+    {
+      if (this == pOther)
+        return true;
+      if (pOther == null || getClass() != pOther.getClass())
+        return false;
+      _Key other = (_Key) pOther;
+      return nodeBinary.equals(other.nodeBinary) && environmentOverrides.equals(other.environmentOverrides);
+    }
+
+    @Override
+    public int hashCode()
+    {
+      return Objects.hash(nodeBinary, environmentOverrides);
+    }
+  }
+
+}
@@ -0,0 +1,347 @@
+package de.adito.aditoweb.nbm.nodejs.impl.runconfig;
+
+import de.adito.aditoweb.nbm.nbide.nbaditointerface.javascript.node.*;
+import de.adito.aditoweb.nbm.nodejs.impl.NodeJSExecutorImpl;
+import de.adito.aditoweb.nbm.nodejs.impl.parser.*;
+import de.adito.aditoweb.nbm.nodejs.impl.process.*;
+import org.jetbrains.annotations.*;
+import org.openide.util.BaseUtilities;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.*;
+
+/**
+ * Launches a script of the package.json directly with node, without starting the npm cli first.
+ * It behaves like "npm run": the pre- and post-scripts are run in order, node_modules/.bin is part of the path
+ * and the npm_* environment variables are set. Only simple scripts are supported (a node script or a package binary with plain
+ * arguments), everything else (shell operators, variables, globs, ...) has to be run by npm.
+ * The launcher is optional and has to be enabled with the system property {@value #_ENABLED_PROPERTY}.
+ *
+ * @author agent, 17.10.2026
+ */
+class NodeJSFastScriptLauncher
+{
+
+  private static final String _ENABLED_PROPERTY = "de.adito.aditoweb.nbm.nodejs.fastLaunch";
+  private static final String _PATH_ENVIRONMENT = "PATH";
+  private static final String _SHELL_CHARACTERS = "|&;<>()$`\\*?[]{}~!#%^\n\r";
+  private static final Pattern _CMD_SHIM_TARGET = Pattern.compile("\"%dp0%\\\\([^\"]+)\"");
+
+  private final INodeJSEnvironment environment;
+  private final File projectDir;
+  private final List<_Step> steps;
+
+  /**
+   * @return true, if scripts may be launched directly
+   */
+  public static boolean isEnabled()
+  {
+    return Boolean.getBoolean(_ENABLED_PROPERTY);
+  }
+
+  /**
+   * Creates a launcher for the given script
+   *
+   * @param pEnvironment environment to run the script with
+   * @param pProjectDir  directory, that contains the package.json
+   * @param pScriptName  name of the script
+   * @return the launcher or NULL, if the script (or one of its hooks) can not be launched directly and has to be run by npm
+   */
+  @Nullable
+  public static NodeJSFastScriptLauncher create(@NotNull INodeJSEnvironment pEnvironment, @NotNull File pProjectDir, @NotNull String pScriptName)
+  {
+    PackageJsonModel model = PackageParser.getModel(new File(pProjectDir, "package.json"));
+    Map<String, String> scripts = model.getScripts();
+    if (!scripts.containsKey(pScriptName))
+      return null;
+
+    List<_Step> steps = new ArrayList<>();
+    for (String event : List.of("pre" + pScriptName, pScriptName, "post" + pScriptName))
+    {
+      String script = scripts.get(event);
+      if (script == null)
+        continue;
+
+      List<String> command = _resolve(pProjectDir, script);
+      if (command == null)
+        return null;
+      steps.add(new _Step(event, script, command));
+    }
+
+    return new NodeJSFastScriptLauncher(pEnvironment, pProjectDir, steps);
+  }
+
+  private NodeJSFastScriptLauncher(@NotNull INodeJSEnvironment pEnvironment, @NotNull File pProjectDir, @NotNull List<_Step> pSteps)
+  {
+    environment = pEnvironment;
+    projectDir = pProjectDir;
+    steps = pSteps;
+  }
+
+  /**
+   * Runs all steps in order, until one of them fails
+   *
+   * @param pExecutor executor to start the processes with, has to execute in the project directory
+   * @param pOut      stream for stdout
+   * @param pErr      stream for stderr
+   * @return future that completes with the exit code of the last started step, cancel it to terminate the current step
+   */
+  @NotNull
+  public NodeJSProcessFuture launch(@NotNull NodeJSExecutorImpl pExecutor, @NotNull OutputStream pOut, @NotNull OutputStream pErr)
+  {
+    NodeJSProcessFuture result = new NodeJSProcessFuture();
+    AtomicReference<CompletableFuture<Integer>> current = new AtomicReference<>();
+    _launch(pExecutor, pOut, pErr, 0, result, current);
+
+    result.whenComplete((pExitCode, pEx) -> {
+      CompletableFuture<Integer> step;
+      synchronized (current)
+      {
+        step = current.get();
+        if (result.isCancelled() && step != null)
+          step.cancel(true);
+      }
+
+      // the launch is terminated, if the process tree of the current step has exited
+      if (step == null)
+        result.terminated();
+      else
+        NodeJSProcessFuture.terminationOf(step).whenComplete((pTerminated, pTerminationEx) -> result.terminated());
+    });
+
+    return result;
+  }
+
+  /**
+   * @return the commands of all steps, the node arguments only
+   */
+  @NotNull
+  List<List<String>> getCommands()
+  {
+    List<List<String>> commands = new ArrayList<>();
+    steps.forEach(pStep -> commands.add(pStep.command));
+    return commands;
+  }
+
+  /**
+   * Launches the step with the given index and all following steps afterwards
+   *
+   * @param pExecutor executor to start the processes with
+   * @param pOut      stream for stdout
+   * @param pErr      stream for stderr
+   * @param pIndex    index of the step to launch
+   * @param pResult   future to complete, if the last step has finished or a step has failed
+   * @param pCurrent  holder of the currently running step
+   */
+  private void _launch(@NotNull NodeJSExecutorImpl pExecutor, @NotNull OutputStream pOut, @NotNull OutputStream pErr, int pIndex,
+                       @NotNull CompletableFuture<Integer> pResult, @NotNull AtomicReference<CompletableFuture<Integer>> pCurrent)
+  {
+    CompletableFuture<Integer> future;
+    synchronized (pCurrent)
+    {
+      if (pResult.isDone())
+        return;
+
+      _Step step = steps.get(pIndex);
+      future = pExecutor.executeAsync(environment, INodeJSExecBase.node(), _getEnvironment(step),
+                                      pOut, pErr, null, step.command.toArray(new String[0]));
+      pCurrent.set(future);
+    }
+
+    future.whenComplete((pExitCode, pEx) -> {
+      if (pEx != null)
+        pResult.completeExceptionally(pEx);
+      else if (pExitCode != 0 || pIndex + 1 >= steps.size())
+        pResult.complete(pExitCode);
+      else
+        _launch(pExecutor, pOut, pErr, pIndex + 1, pResult, pCurrent);
+    });
+  }
+
+  /**
+   * Creates the environment variables, that npm would set for the given step
+   *
+   * @param pStep step to run
+   * @return the variables
+   */
+  @NotNull
+  private Map<String, String> _getEnvironment(@NotNull _Step pStep)
+  {
+    File packageJson = new File(projectDir, "package.json");
+    PackageJsonModel model = PackageParser.getModel(packageJson);
+    Map<String, String> variables = new HashMap<>();
+    variables.put("npm_lifecycle_event", pStep.event);
+    variables.put("npm_lifecycle_script", pStep.script);
+    variables.put("npm_package_json", packageJson.getAbsolutePath());
+    variables.put("npm_node_execpath", environment.getPath().getAbsolutePath());
+    variables.put("npm_command", "run-script");
+    variables.put("INIT_CWD", projectDir.getAbsolutePath());
+    if (model.getName() != null)
+      variables.put("npm_package_name", model.getName());
+    if (model.getVersion() != null)
+      variables.put("npm_package_version", model.getVersion());
+
+    // binaries of the project first, then the path of the environment
+    String path = NodeJSLaunchSpec.get(environment, INodeJSExecBase.node(), projectDir).getEnvironment().get(_PATH_ENVIRONMENT);
+    String binDir = new File(projectDir, "node_modules/.bin").getAbsolutePath();
+    variables.put(_PATH_ENVIRONMENT, path == null ? binDir : binDir + File.pathSeparator + path);
+    return variables;
+  }
+
+  /**
+   * Resolves the given script to the arguments of node
+   *
+   * @param pProjectDir directory, that contains the package.json
+   * @param pScript     script to resolve
+   * @return the arguments or NULL, if the script can not be run directly
+   */
+  @Nullable
+  private static List<String> _resolve(@NotNull File pProjectDir, @NotNull String pScript)
+  {
+    // variable assignments have to be done by a shell
+    List<String> tokens = _tokenize(pScript);
+    if (tokens == null || tokens.isEmpty() || tokens.get(0).contains("="))
+      return null;
+
+    String executable = tokens.get(0);
+    List<String> arguments = tokens.subList(1, tokens.size());
+    List<String> command = new ArrayList<>();
+    if (executable.equals("node"))
+    {
+      // without arguments node would start its repl
+      if (arguments.isEmpty())
+        return null;
+      command.addAll(arguments);
+    }
+    else
+    {
+      File script = _resolveBinary(new File(pProjectDir, "node_modules/.bin"), executable);
+      if (script == null)
+        return null;
+      command.add(script.getAbsolutePath());
+      command.addAll(arguments);
+    }
+
+    return command;
+  }
+
+  /**
+   * Splits the given script into its arguments
+   *
+   * @param pScript script to split
+   * @return the arguments or NULL, if the script contains anything a shell would have to interpret
+   */
+  @Nullable
+  private static List<String> _tokenize(@NotNull String pScript)
+  {
+    List<String> tokens = new ArrayList<>();
+    StringBuilder current = null;
+    char quote = 0;
+    for (char c : pScript.toCharArray())
+    {
+      if (quote != 0)
+      {
+        if (c == quote)
+          quote = 0;
+        else if (c == '$' || c == '`' || c == '\\' || c == '\n')
+          return null;
+        else
+          current.append(c);
+      }
+      else if (c == '"' || c == '\'')
+      {
+        quote = c;
+        if (current == null)
+          current = new StringBuilder();
+      }
+      else if (c == ' ' || c == '\t')
+      {
+        if (current != null)
+          tokens.add(current.toString());
+        current = null;
+      }
+      else if (_SHELL_CHARACTERS.indexOf(c) >= 0)
+        return null;
+      else
+      {
+        if (current == null)
+          current = new StringBuilder();
+        current.append(c);
+      }
+    }
+
+    // unterminated quote
+    if (quote != 0)
+      return null;
+    if (current != null)
+      tokens.add(current.toString());
+    return tokens;
+  }
+
+  /**
+   * Resolves the javascript file of a package binary
+   *
+   * @param pBinDir  node_modules/.bin
+   * @param pCommand name of the binary
+   * @return the javascript file or NULL, if it does not exist or is not executed by node
+   */
+  @Nullable
+  private static File _resolveBinary(@NotNull File pBinDir, @NotNull String pCommand)
+  {
+    try
+    {
+      File script;
+      if (BaseUtilities.isWindows())
+      {
+        // windows only contains shims, that reference the script relative to the .bin directory
+        Path shim = new File(pBinDir, pCommand + ".cmd").toPath();
+        if (!Files.isRegularFile(shim))
+          return null;
+        Matcher matcher = _CMD_SHIM_TARGET.matcher(new String(Files.readAllBytes(shim), StandardCharsets.UTF_8));
+        String target = null;
+        while (matcher.find())
+          target = matcher.group(1);
+        if (target == null)
+          return null;
+        script = new File(pBinDir, target).getCanonicalFile();
+      }
+      else
+      {
+        // the binary is a link to the script
+        Path link = new File(pBinDir, pCommand).toPath();
+        if (!Files.exists(link))
+          return null;
+        script = link.toRealPath().toFile();
+      }
+
+      return script.isFile() && NodeJSLaunchSpec.isNodeScriptFile(script) ? script : null;
+    }
+    catch (IOException e)
+    {
+      return null;
+    }
+  }
+
+  /**
+   * Single script, that has to be run
+   */
+  private static class _Step
+  {
+    private final String event;
+    private final String script;
+    private final List<String> command;
+
+    public _Step(@NotNull String pEvent, @NotNull String pScript, @NotNull List<String> pCommand)
+    {
+      event = pEvent;
+      script = pScript;
+      command = pCommand;
+    }
+  }
+
+}
@@ -0,0 +1,416 @@
+package de.adito.aditoweb.nbm.nodejs.impl.runconfig;
+
+import de.adito.aditoweb.nbm.nodejs.impl.process.NodeJSProcessFuture;
+import org.jetbrains.annotations.*;
+import org.netbeans.api.project.Project;
+import org.openide.*;
+import org.openide.util.*;
+import org.openide.windows.*;
+
+import javax.swing.*;
+import java.awt.event.ActionEvent;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+import java.util.logging.*;
+
+/**
+ * Keeps track of the runs of all run configs, that were started in this module.
+ * Every run gets its own output tab with actions to stop or restart it. Stopping a run cancels its future,
+ * which terminates the whole process tree (npm and all node processes it has started).
+ * A run counts as running until its process tree has exited, so a restart never overlaps with its predecessor.
+ * A tab will be reused for the next run of the same config, if it is still open and its run has finished.
+ * The runs are identified by a key of the project directory and the script name, see {@link #createKey(Project, Class, String)}.
+ *
+ * @author agent, 17.10.2026
+ */
+public class NodeJSRunningScripts
+{
+
+  private static final long _SHUTDOWN_TIMEOUT_MS = 10000;
+  private static NodeJSRunningScripts _INSTANCE;
+
+  private final BiFunction<String, Action[], InputOutput> ioFactory;
+  private final Map<List<String>, List<_Tab>> tabs = new HashMap<>();
+
+  /**
+   * @return the instance, that tracks all runs
+   */
+  @NotNull
+  public static synchronized NodeJSRunningScripts getInstance()
+  {
+    if (_INSTANCE == null)
+      _INSTANCE = new NodeJSRunningScripts((pTitle, pActions) -> IOProvider.get("nodejs_runconfig_executor").getIO(pTitle, pActions));
+    return _INSTANCE;
+  }
+
+  /**
+   * Stops all runs and waits until their process trees have exited, so that no process survives the module
+   */
+  public static synchronized void shutdownInstance()
+  {
+    if (_INSTANCE != null)
+    {
+      try
+      {
+        _INSTANCE.stopAll().get(_SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+      }
+      catch (InterruptedException e)
+      {
+        Thread.currentThread().interrupt();
+      }
+      catch (ExecutionException | TimeoutException e)
+      {
+        Logger.getLogger(NodeJSRunningScripts.class.getName()).log(Level.WARNING, "Not all scripts have terminated in time", e);
+      }
+    }
+    _INSTANCE = null;
+  }
+
+  NodeJSRunningScripts(@NotNull BiFunction<String, Action[], InputOutput> pIOFactory)
+  {
+    ioFactory = pIOFactory;
+  }
+
+  /**
+   * Creates the key of a run config. Run configs are recreated with every change of the environment or the package.json,
+   * so they are identified by the things, that stay the same for the user.
+   *
+   * @param pProject project, that contains the script
+   * @param pType    type of the run config, so that a script and a watch of the same script are tracked separately
+   * @param pName    name of the script or group
+   * @return the key
+   */
+  @NotNull
+  public static List<String> createKey(@NotNull Project pProject, @NotNull Class<?> pType, @NotNull String pName)
+  {
+    return List.of(pProject.getProjectDirectory().getPath(), pType.getName(), pName);
+  }
+
+  /**
+   * Starts a new run of the given config in an output tab with stop and restart actions
+   *
+   * @param pKey     key of the config to run
+   * @param pTitle   title of the output tab
+   * @param pStarter function, that starts the run and writes to the given tab,
+   *                 it returns a future, that completes if the run has finished and terminates the run if it gets cancelled
+   * @return the future of the run
+   */
+  @NotNull
+  public CompletableFuture<Integer> start(@NotNull List<String> pKey, @NotNull String pTitle,
+                                          @NotNull Function<InputOutput, CompletableFuture<Integer>> pStarter)
+  {
+    return _start(_getIdleTab(pKey, pTitle), pStarter);
+  }
+
+  /**
+   * Asks the user, if the given config should be started again, if it is already running.
+   * The user may restart it (the running instances will be stopped and have exited before this method returns)
+   * or start another instance.
+   *
+   * @param pKey         key of the config to start
+   * @param pDisplayName name of the config, that will be shown to the user
+   * @return true, if the config may be started
+   */
+  @NbBundle.Messages({
+      "LBL_AlreadyRunningTitle=Script is already running",
+      "LBL_AlreadyRunningMessage={0} is already running.\nDo you want to stop it and run it again or start another instance?",
+      "LBL_AlreadyRunningRestart=Restart",
+      "LBL_AlreadyRunningStartAnother=Start Another"
+  })
+  public boolean confirmStart(@NotNull List<String> pKey, @NotNull String pDisplayName)
+  {
+    if (!isRunning(pKey))
+      return true;
+
+    String restart = Bundle.LBL_AlreadyRunningRestart();
+    String startAnother = Bundle.LBL_AlreadyRunningStartAnother();
+    NotifyDescriptor descriptor = new NotifyDescriptor(Bundle.LBL_AlreadyRunningMessage(pDisplayName), Bundle.LBL_AlreadyRunningTitle(),
+                                                       NotifyDescriptor.DEFAULT_OPTION, NotifyDescriptor.QUESTION_MESSAGE,
+                                                       new Object[]{restart, startAnother, NotifyDescriptor.CANCEL_OPTION}, restart);
+    Object result = DialogDisplayer.getDefault().notify(descriptor);
+    if (restart.equals(result))
+      return stopAndWait(pKey);
+    return startAnother.equals(result);
+  }
+
+  /**
+   * @param pKey key of the config to check
+   * @return true, if at least one run of the given config has not terminated yet
+   */
+  public synchronized boolean isRunning(@NotNull List<String> pKey)
+  {
+    return tabs.getOrDefault(pKey, List.of()).stream()
+        .anyMatch(pTab -> !pTab.isIdle());
+  }
+
+  /**
+   * Stops all runs of the given config
+   *
+   * @param pKey key of the config to stop
+   * @return future that completes, if the process trees of all runs have exited
+   */
+  @NotNull
+  public CompletableFuture<Void> stop(@NotNull List<String> pKey)
+  {
+    List<_Tab> configTabs;
+    synchronized (this)
+    {
+      configTabs = new ArrayList<>(tabs.getOrDefault(pKey, List.of()));
+    }
+    return CompletableFuture.allOf(configTabs.stream()
+                                       .map(_Tab::stop)
+                                       .toArray(CompletableFuture<?>[]::new));
+  }
+
+  /**
+   * Stops all runs of the given config and waits, until their process trees have exited
+   *
+   * @param pKey key of the config to stop
+   * @return true, if all runs have terminated, false if the thread was interrupted
+   */
+  public boolean stopAndWait(@NotNull List<String> pKey)
+  {
+    try
+    {
+      stop(pKey).get();
+      return true;
+    }
+    catch (InterruptedException e)
+    {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+    catch (ExecutionException e)
+    {
+      // the terminations do not fail, the processes are gone anyway
+      return true;
+    }
+  }
+
+  /**
+   * Stops the runs of all configs
+   *
+   * @return future that completes, if the process trees of all runs have exited
+   */
+  @NotNull
+  public CompletableFuture<Void> stopAll()
+  {
+    List<_Tab> allTabs = new ArrayList<>();
+    synchronized (this)
+    {
+      tabs.values().forEach(allTabs::addAll);
+    }
+    return CompletableFuture.allOf(allTabs.stream()
+                                       .map(_Tab::stop)
+                                       .toArray(CompletableFuture<?>[]::new));
+  }
+
+  /**
+   * @return the count of configs, that have at least one tab
+   */
+  synchronized int getConfigCount()
+  {
+    return tabs.size();
+  }
+
+  /**
+   * Searches a tab of the given config, that is still open and does not show a running run, or creates a new one
+   *
+   * @param pKey   key of the config, that should be run in the tab
+   * @param pTitle title of the tab
+   * @return the tab
+   */
+  @NotNull
+  private synchronized _Tab _getIdleTab(@NotNull List<String> pKey, @NotNull String pTitle)
+  {
+    _prune();
+    List<_Tab> configTabs = tabs.computeIfAbsent(pKey, pIgnored -> new ArrayList<>());
+    for (_Tab tab : configTabs)
+      if (tab.isIdle())
+        return tab;
+
+    _Tab tab = new _Tab(pTitle);
+    configTabs.add(tab);
+    return tab;
+  }
+
+  /**
+   * Removes the tabs, that were closed by the user and whose run has terminated, and the configs without any tab
+   */
+  private synchronized void _prune()
+  {
+    tabs.values().forEach(pTabs -> pTabs.removeIf(pTab -> pTab.isIdle() && pTab.io.isClosed()));
+    tabs.values().removeIf(List::isEmpty);
+  }
+
+  /**
+   * Starts a run in the given tab
+   *
+   * @param pTab     tab to write to
+   * @param pStarter function, that starts the run
+   * @return the future of the run
+   */
+  @NotNull
+  private CompletableFuture<Integer> _start(@NotNull _Tab pTab, @NotNull Function<InputOutput, CompletableFuture<Integer>> pStarter)
+  {
+    NodeJSScriptRunConfig.resetIO(pTab.io);
+    pTab.io.select();
+
+    CompletableFuture<Integer> run = pStarter.apply(pTab.io);
+    synchronized (this)
+    {
+      pTab.run = run;
+      pTab.starter = pStarter;
+      pTab.restarting = false;
+    }
+    pTab.updateActions();
+
+    // the tab stays in use until the process tree has exited, so that the next run does not overlap
+    NodeJSProcessFuture.terminationOf(run).whenComplete((pTerminated, pEx) -> {
+      synchronized (this)
+      {
+        if (pTab.run == run)
+          pTab.run = null;
+        _prune();
+      }
+      pTab.updateActions();
+    });
+    return run;
+  }
+
+  /**
+   * Output tab, that shows a single run at the same time
+   */
+  private class _Tab
+  {
+    private final _StopAction stopAction = new _StopAction(this);
+    private final _RestartAction restartAction = new _RestartAction(this);
+    private final InputOutput io;
+    private CompletableFuture<Integer> run;
+    private Function<InputOutput, CompletableFuture<Integer>> starter;
+    private boolean restarting;
+
+    public _Tab(@NotNull String pTitle)
+    {
+      io = ioFactory.apply(pTitle, new Action[]{stopAction, restartAction});
+    }
+
+    /**
+     * @return true, if this tab does not show a run, whose process tree is still alive, and will not be restarted
+     */
+    public boolean isIdle()
+    {
+      synchronized (NodeJSRunningScripts.this)
+      {
+        return run == null && !restarting;
+      }
+    }
+
+    /**
+     * Stops the run of this tab, if it is still running
+     *
+     * @return future that completes, if the process tree of the run has exited
+     */
+    @NotNull
+    public CompletableFuture<Void> stop()
+    {
+      CompletableFuture<Integer> current;
+      synchronized (NodeJSRunningScripts.this)
+      {
+        current = run;
+      }
+      if (current == null)
+        return CompletableFuture.completedFuture(null);
+
+      // cancelling terminates the whole process tree
+      current.cancel(true);
+      return NodeJSProcessFuture.terminationOf(current);
+    }
+
+    /**
+     * Stops the run of this tab and starts it again, after its process tree has exited
+     */
+    public void restart()
+    {
+      Function<InputOutput, CompletableFuture<Integer>> current;
+      synchronized (NodeJSRunningScripts.this)
+      {
+        current = starter;
+
+        // the tab must not be taken by another run, while waiting for the termination
+        restarting = current != null;
+      }
+
+      stop().whenComplete((pTerminated, pEx) -> {
+        if (current != null)
+          _start(this, current);
+      });
+    }
+
+    /**
+     * Enables or disables the actions, depending on the state of the run
+     */
+    public void updateActions()
+    {
+      boolean running;
+      synchronized (NodeJSRunningScripts.this)
+      {
+        running = run != null;
+      }
+      SwingUtilities.invokeLater(() -> {
+        stopAction.setEnabled(running);
+        restartAction.setEnabled(true);
+      });
+    }
+  }
+
+  /**
+   * Action in the toolbar of the output tab, that stops the run
+   */
+  private static class _StopAction extends AbstractAction
+  {
+    private final _Tab tab;
+
+    @NbBundle.Messages("LBL_StopScript=Stop")
+    public _StopAction(@NotNull _Tab pTab)
+    {
+      super(Bundle.LBL_StopScript(), ImageUtilities.loadImageIcon("de/adito/aditoweb/nbm/nodejs/impl/runconfig/stop16.png", false)); //NOI18N
+      putValue(SHORT_DESCRIPTION, Bundle.LBL_StopScript());
+      setEnabled(false);
+      tab = pTab;
+    }
+
+    @Override
+    public void actionPerformed(ActionEvent pEvent)
+    {
+      setEnabled(false);
+      tab.stop();
+    }
+  }
+
+  /**
+   * Action in the toolbar of the output tab, that stops the run and starts it again
+   */
+  private static class _RestartAction extends AbstractAction
+  {
+    private final _Tab tab;
+
+    @NbBundle.Messages("LBL_RestartScript=Restart")
+    public _RestartAction(@NotNull _Tab pTab)
+    {
+      super(Bundle.LBL_RestartScript(), ImageUtilities.loadImageIcon("de/adito/aditoweb/nbm/nodejs/impl/runconfig/restart16.png", false)); //NOI18N
+      putValue(SHORT_DESCRIPTION, Bundle.LBL_RestartScript());
+      setEnabled(false);
+      tab = pTab;
+    }
+
+    @Override
+    public void actionPerformed(ActionEvent pEvent)
+    {
+      // starting the run may take a while, so the EDT must not be blocked
+      RequestProcessor.getDefault().post(tab::restart);
+    }
+  }
+
+}
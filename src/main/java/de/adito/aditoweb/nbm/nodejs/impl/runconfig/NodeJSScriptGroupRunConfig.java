@@ -0,0 +1,308 @@
+package de.adito.aditoweb.nbm.nodejs.impl.runconfig;
+
+import de.adito.aditoweb.nbm.nbide.nbaditointerface.javascript.node.*;
+import de.adito.aditoweb.nbm.nodejs.impl.process.*;
+import de.adito.nbm.runconfig.api.*;
+import io.reactivex.rxjava3.core.Observable;
+import org.jetbrains.annotations.NotNull;
+import org.netbeans.api.progress.ProgressHandle;
+import org.netbeans.api.project.Project;
+import org.openide.windows.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+/**
+ * RunConfig to execute a group of nodejs scripts, configured in the package.json.
+ * Scripts, that do not depend on each other, run in parallel (at most one per available processor).
+ * The group stops at the first script, that fails. Every script writes to its own output tab.
+ *
+ * @author agent, 17.10.2026
+ * @see de.adito.aditoweb.nbm.nodejs.impl.parser.PackageJsonModel#getRunGroups()
+ */
+class NodeJSScriptGroupRunConfig implements IRunConfig
+{
+
+  private final Project project;
+  private final INodeJSEnvironment environment;
+  private final String groupName;
+  private final Map<String, List<String>> scripts;
+
+  public NodeJSScriptGroupRunConfig(@NotNull Project pProject, @NotNull INodeJSEnvironment pEnvironment, @NotNull String pGroupName,
+                                    @NotNull Map<String, List<String>> pScripts)
+  {
+    project = pProject;
+    environment = pEnvironment;
+    groupName = pGroupName;
+    scripts = pScripts;
+  }
+
+  @NotNull
+  @Override
+  public Observable<Optional<IRunConfigCategory>> category()
+  {
+    return Observable.just(Optional.of(new NodeJSScriptGroupRunConfigCategory()));
+  }
+
+  @NotNull
+  @Override
+  public Observable<String> displayName()
+  {
+    return NodeJSScriptRunConfig.createDisplayName(project, groupName);
+  }
+
+  @Override
+  public void executeAsnyc(@NotNull ProgressHandle pProgressHandle) throws Exception
+  {
+    INodeJSExecutor executor = INodeJSExecutor.findInstance(project).orElse(null);
+    NodeJSRunningScripts runningScripts = NodeJSRunningScripts.getInstance();
+    List<String> key = NodeJSRunningScripts.createKey(project, NodeJSScriptGroupRunConfig.class, groupName);
+    if (executor == null || !runningScripts.confirmStart(key, groupName))
+      return;
+
+    // execute nonblocking, so that other runconfigs can be run in parallel
+    runningScripts.start(key, "NodeJS Group: " + groupName, pGroupIO -> {
+      PrintWriter log = pGroupIO.getOut();
+      CompletableFuture<Integer> result = execute(scripts, Runtime.getRuntime().availableProcessors(), pScript -> {
+        log.println("Starting " + pScript);
+        return _executeScript(executor, pScript)
+            .whenComplete((pExitCode, pEx) -> {
+              if (pEx != null)
+                log.println(pScript + " failed: " + pEx.getMessage());
+              else
+                log.println(pScript + " finished with exit code " + pExitCode);
+            });
+      });
+
+      // the future itself has to be returned, because cancelling it cancels all running scripts
+      result.whenComplete((pExitCode, pEx) -> {
+        if (result.isCancelled())
+          pGroupIO.getErr().println("Group " + groupName + " stopped");
+        else if (pEx != null)
+          pGroupIO.getErr().println("Group " + groupName + " failed: " + pEx.getMessage());
+        else if (pExitCode != 0)
+          pGroupIO.getErr().println("Group " + groupName + " stopped, a script failed with exit code " + pExitCode);
+        else
+          log.println("Group " + groupName + " finished");
+        log.close();
+      });
+      return result;
+    });
+  }
+
+  /**
+   * Executes all scripts of a group. A script is started, if all scripts it depends on have finished successfully.
+   * If a script fails, all running scripts will be cancelled and no more scripts will be started.
+   *
+   * @param pScripts     scripts to execute (Key: Script, Value: Scripts, that have to be finished before)
+   * @param pParallelism maximum count of scripts, that run at the same time
+   * @param pExecutor    function to execute a single script
+   * @return future that completes with 0 if all scripts were successful or with the exit code of the first failed script,
+   * cancel it to cancel all running scripts, its termination completes if all of them have exited
+   */
+  @NotNull
+  static NodeJSProcessFuture execute(@NotNull Map<String, List<String>> pScripts, int pParallelism,
+                                     @NotNull Function<String, CompletableFuture<Integer>> pExecutor)
+  {
+    NodeJSProcessFuture result = new NodeJSProcessFuture();
+    try
+    {
+      new _Execution(pScripts, Math.max(1, pParallelism), pExecutor, result).start();
+    }
+    catch (IllegalArgumentException e)
+    {
+      result.completeExceptionally(e);
+      result.terminated();
+    }
+    return result;
+  }
+
+  /**
+   * Executes a single script of the group in its own output tab
+   *
+   * @param pExecutor   executor of the project
+   * @param pScriptName script to execute
+   * @return future that completes with the exit code
+   */
+  @NotNull
+  private CompletableFuture<Integer> _executeScript(@NotNull INodeJSExecutor pExecutor, @NotNull String pScriptName)
+  {
+    InputOutput io = NodeJSScriptRunConfig.createIO("NodeJS Script: " + groupName + "/" + pScriptName);
+    NodeJSOutputBridge bridge = new NodeJSOutputBridge(io.getOut(), io.getErr()); //NOSONAR will be closed in future
+
+    CompletableFuture<Integer> future = NodeJSScriptRunConfig.execute(project, environment, pExecutor, pScriptName, bridge.getOut(), bridge.getErr());
+    future.whenComplete((pExitCode, pEx) -> {
+      try
+      {
+        bridge.close();
+      }
+      catch (Exception ex)
+      {
+        // do nothing
+      }
+    });
+    return future;
+  }
+
+  @Override
+  public boolean equals(Object pO)
+  {
+    if (this == pO) return true;
+    if (pO == null || getClass() != pO.getClass()) return false;
+    NodeJSScriptGroupRunConfig that = (NodeJSScriptGroupRunConfig) pO;
+    return Objects.equals(project, that.project) &&
+        Objects.equals(environment, that.environment) &&
+        Objects.equals(groupName, that.groupName) &&
+        Objects.equals(scripts, that.scripts);
+  }
+
+  @Override
+  public int hashCode()
+  {
+    return Objects.hash(project, environment, groupName, scripts);
+  }
+
+  /**
+   * State of a single execution of a group
+   */
+  private static class _Execution
+  {
+    private final Map<String, Set<String>> pending = new LinkedHashMap<>();
+    private final Map<String, CompletableFuture<Integer>> running = new HashMap<>();
+    private final int parallelism;
+    private final Function<String, CompletableFuture<Integer>> executor;
+    private final NodeJSProcessFuture result;
+
+    public _Execution(@NotNull Map<String, List<String>> pScripts, int pParallelism, @NotNull Function<String, CompletableFuture<Integer>> pExecutor,
+                      @NotNull NodeJSProcessFuture pResult)
+    {
+      parallelism = pParallelism;
+      executor = pExecutor;
+      result = pResult;
+
+      pScripts.forEach((pScript, pDependencies) -> {
+        for (String dependency : pDependencies)
+          if (!pScripts.containsKey(dependency))
+            throw new IllegalArgumentException("Script " + pScript + " depends on " + dependency + ", that is not part of the group");
+        pending.put(pScript, new HashSet<>(pDependencies));
+      });
+      _checkCycles(pScripts);
+
+      // cancelling the group cancels all running scripts, the group is terminated if all of them have exited
+      result.whenComplete((pExitCode, pEx) -> _cancelRunning().whenComplete((pTerminated, pTerminationEx) -> result.terminated()));
+    }
+
+    /**
+     * Starts all scripts, that do not have any dependencies
+     */
+    public synchronized void start()
+    {
+      if (pending.isEmpty())
+        result.complete(0);
+      else
+        _startReady();
+    }
+
+    /**
+     * Starts scripts, whose dependencies have finished, until the maximum count of running scripts is reached
+     */
+    private synchronized void _startReady()
+    {
+      while (!result.isDone() && running.size() < parallelism)
+      {
+        String script = pending.entrySet().stream()
+            .filter(pEntry -> pEntry.getValue().isEmpty())
+            .map(Map.Entry::getKey)
+            .findFirst()
+            .orElse(null);
+        if (script == null)
+          return;
+
+        pending.remove(script);
+        CompletableFuture<Integer> future;
+        try
+        {
+          future = executor.apply(script);
+        }
+        catch (RuntimeException e)
+        {
+          result.completeExceptionally(e);
+          return;
+        }
+
+        // the future may already be completed, so the state has to be read again in the next iteration
+        running.put(script, future);
+        future.whenComplete((pExitCode, pEx) -> _finished(script, pExitCode, pEx));
+      }
+    }
+
+    /**
+     * Called, if a script has finished
+     *
+     * @param pScript   script, that has finished
+     * @param pExitCode exit code of the script
+     * @param pEx       exception, if the script could not be executed
+     */
+    private synchronized void _finished(@NotNull String pScript, Integer pExitCode, Throwable pEx)
+    {
+      running.remove(pScript);
+      if (pEx != null)
+        result.completeExceptionally(pEx);
+      else if (pExitCode != 0)
+        result.complete(pExitCode);
+      else if (pending.isEmpty() && running.isEmpty())
+        result.complete(0);
+      else
+      {
+        pending.values().forEach(pDependencies -> pDependencies.remove(pScript));
+        _startReady();
+      }
+    }
+
+    /**
+     * Cancels all scripts, that are still running
+     *
+     * @return future that completes, if the process trees of all cancelled scripts have exited
+     */
+    @NotNull
+    private synchronized CompletableFuture<Void> _cancelRunning()
+    {
+      List<CompletableFuture<Void>> terminations = new ArrayList<>();
+      new ArrayList<>(running.values()).forEach(pFuture -> {
+        pFuture.cancel(true);
+        terminations.add(NodeJSProcessFuture.terminationOf(pFuture));
+      });
+      return CompletableFuture.allOf(terminations.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * Checks, that the scripts do not depend on each other in a cycle, because such a group would never finish
+     *
+     * @param pScripts scripts to check
+     */
+    private static void _checkCycles(@NotNull Map<String, List<String>> pScripts)
+    {
+      Map<String, Set<String>> remaining = new HashMap<>();
+      pScripts.forEach((pScript, pDependencies) -> remaining.put(pScript, new HashSet<>(pDependencies)));
+
+      boolean removed = true;
+      while (removed)
+      {
+        Set<String> ready = new HashSet<>();
+        remaining.forEach((pScript, pDependencies) -> {
+          if (pDependencies.isEmpty())
+            ready.add(pScript);
+        });
+        ready.forEach(remaining::remove);
+        remaining.values().forEach(pDependencies -> pDependencies.removeAll(ready));
+        removed = !ready.isEmpty();
+      }
+
+      if (!remaining.isEmpty())
+        throw new IllegalArgumentException("Scripts depend on each other in a cycle: " + String.join(", ", remaining.keySet()));
+    }
+  }
+
+}
@@ -0,0 +1,44 @@
+package de.adito.aditoweb.nbm.nodejs.impl.runconfig;
+
+import de.adito.nbm.runconfig.api.IRunConfigCategory;
+import io.reactivex.rxjava3.core.Observable;
+import org.jetbrains.annotations.NotNull;
+import org.openide.util.*;
+
+import java.awt.*;
+import java.util.Optional;
+
+/**
+ * Category for NodeJSScriptGroupRunConfig
+ *
+ * @author agent, 17.10.2026
+ * @see NodeJSScriptGroupRunConfig
+ */
+class NodeJSScriptGroupRunConfigCategory implements IRunConfigCategory
+{
+
+  private static final Image _ICON = ImageUtilities.loadImage("de/adito/aditoweb/nbm/nodejs/impl/runconfig/nodejs16.png"); //NOI18N
+
+  @NotNull
+  @Override
+  public String getName()
+  {
+    return "de-adito-aditoweb-nbm-nodejs-impl-runconfig-NodeJSScriptGroupRunConfigCategory";
+  }
+
+  @NotNull
+  @Override
+  @NbBundle.Messages("LBL_RunConfigGroupCategoryTitle=Script Groups")
+  public Observable<String> title()
+  {
+    return Observable.just(Bundle.LBL_RunConfigGroupCategoryTitle());
+  }
+
+  @NotNull
+  @Override
+  public Observable<Optional<Image>> icon()
+  {
+    return Observable.just(Optional.of(_ICON));
+  }
+
+}
@@ -1,20 +1,22 @@
 package de.adito.aditoweb.nbm.nodejs.impl.runconfig;
 
 import de.adito.aditoweb.nbm.nbide.nbaditointerface.javascript.node.*;
+import de.adito.aditoweb.nbm.nodejs.impl.*;
+import de.adito.aditoweb.nbm.nodejs.impl.process.NodeJSOutputBridge;
 import de.adito.nbm.runconfig.api.*;
 import de.adito.nbm.runconfig.spi.IActiveConfigComponentProvider;
 import de.adito.observables.netbeans.*;
 import io.reactivex.rxjava3.core.Observable;
-import org.apache.commons.io.output.WriterOutputStream;
 import org.jetbrains.annotations.NotNull;
 import org.netbeans.api.progress.ProgressHandle;
 import org.netbeans.api.project.*;
 import org.netbeans.api.project.ui.OpenProjects;
+import org.openide.filesystems.FileUtil;
 import org.openide.windows.*;
 
-import java.io.OutputStream;
-import java.nio.charset.StandardCharsets;
+import java.io.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * RunConfig to execute a single nodejs script
@@ -45,75 +47,139 @@ class NodeJSScriptRunConfig implements IRunConfig
   @NotNull
   @Override
   public Observable<String> displayName()
+  {
+    return createDisplayName(project, scriptName);
+  }
+
+  @Override
+  public void executeAsnyc(@NotNull ProgressHandle pProgressHandle) throws Exception
+  {
+    INodeJSExecutor executor = INodeJSExecutor.findInstance(project).orElse(null);
+    NodeJSRunningScripts runningScripts = NodeJSRunningScripts.getInstance();
+    List<String> key = NodeJSRunningScripts.createKey(project, NodeJSScriptRunConfig.class, scriptName);
+    if (executor == null || !runningScripts.confirmStart(key, scriptName))
+      return;
+
+    // execute nonblocking, so that other runconfigs can be run in parallel
+    runningScripts.start(key, "NodeJS Script: " + scriptName, pIO -> {
+      NodeJSOutputBridge bridge = new NodeJSOutputBridge(pIO.getOut(), pIO.getErr()); //NOSONAR will be closed in future
+
+      // the future itself has to be returned, because cancelling it terminates the process tree
+      CompletableFuture<Integer> future = execute(project, environment, executor, scriptName, bridge.getOut(), bridge.getErr());
+      future.whenComplete((pExitCode, pEx) -> {
+        try
+        {
+          bridge.close();
+        }
+        catch (Exception ex)
+        {
+          // do nothing
+        }
+      });
+      return future;
+    });
+  }
+
+  /**
+   * Creates the display name of a run config, that contains the name of the project if more than one project is open
+   *
+   * @param pProject project of the run config
+   * @param pName    name of the run config
+   * @return Observable with the display name
+   */
+  @NotNull
+  static Observable<String> createDisplayName(@NotNull Project pProject, @NotNull String pName)
   {
     return OpenProjectsObservable.create()
         .switchMap(pProjects -> {
           if (pProjects.size() > 1)
-            return ProjectObservable.createInfos(project)
+            return ProjectObservable.createInfos(pProject)
                 .map(ProjectInformation::getDisplayName)
-                .map(pName -> " (" + pName + ")");
+                .map(pProjectName -> " (" + pProjectName + ")");
           return Observable.just("");
         })
         .map(pProjectName -> {
-          String text = scriptName;
           if (pProjectName.trim().isEmpty())
-            return text;
-          return text + IActiveConfigComponentProvider.DISPLAY_NAME_SEPARATOR + pProjectName;
+            return pName;
+          return pName + IActiveConfigComponentProvider.DISPLAY_NAME_SEPARATOR + pProjectName;
         });
   }
 
-  @Override
-  public void executeAsnyc(@NotNull ProgressHandle pProgressHandle) throws Exception
+  /**
+   * Executes a script directly, if the fast launch is enabled and the script supports it, or with "npm run" otherwise.
+   * The script runs with the current environment of the project, because a restart reuses the starter of a run config,
+   * that may have been created with an outdated environment.
+   *
+   * @param pProject     project, that contains the script
+   * @param pEnvironment environment of the run config, it is used if the current environment of the project is not known
+   * @param pExecutor    executor of the project
+   * @param pScriptName  name of the script
+   * @param pOut         stream for stdout
+   * @param pErr         stream for stderr
+   * @return future that completes with the exit code
+   */
+  @NotNull
+  static CompletableFuture<Integer> execute(@NotNull Project pProject, @NotNull INodeJSEnvironment pEnvironment, @NotNull INodeJSExecutor pExecutor,
+                                            @NotNull String pScriptName, @NotNull OutputStream pOut, @NotNull OutputStream pErr)
   {
-    INodeJSExecutor executor = INodeJSExecutor.findInstance(project).orElse(null);
-    if (executor != null)
+    INodeJSEnvironment environment = _getCurrentEnvironment(pProject, pEnvironment);
+    if (NodeJSFastScriptLauncher.isEnabled() && pExecutor instanceof NodeJSExecutorImpl)
     {
-      InputOutput io = _createIO();
-      OutputStream out = new WriterOutputStream(io.getOut(), StandardCharsets.UTF_8); //NOSONAR will be closed in future
-      OutputStream err = new WriterOutputStream(io.getErr(), StandardCharsets.UTF_8); //NOSONAR will be closed in future
-
-      // execute nonblocking, so that other runconfigs can be run in parallel
-      executor.executeAsync(environment, INodeJSExecBase.packageManager(), out, err, null, "run", scriptName)
-          .handle((pExitCode, pEx) -> {
-            try
-            {
-              out.flush();
-              out.close();
-              err.flush();
-              err.close();
-            }
-            catch (Exception ex)
-            {
-              // do nothing
-            }
-
-            return pExitCode;
-          });
+      File projectDir = FileUtil.toFile(pProject.getProjectDirectory());
+      NodeJSFastScriptLauncher launcher = projectDir == null ? null : NodeJSFastScriptLauncher.create(environment, projectDir, pScriptName);
+      if (launcher != null)
+        return launcher.launch((NodeJSExecutorImpl) pExecutor, pOut, pErr);
     }
+
+    return pExecutor.executeAsync(environment, INodeJSExecBase.packageManager(), pOut, pErr, null, "run", pScriptName);
   }
 
+  /**
+   * Returns the current environment of the given project, without blocking
+   *
+   * @param pProject  project
+   * @param pFallback environment to use, if the current one is not known
+   * @return the environment
+   */
+  @NotNull
+  private static INodeJSEnvironment _getCurrentEnvironment(@NotNull Project pProject, @NotNull INodeJSEnvironment pFallback)
+  {
+    INodeJSProvider provider = pProject.getLookup().lookup(INodeJSProvider.class);
+    if (provider instanceof NodeJSProviderImpl)
+      return ((NodeJSProviderImpl) provider).getSnapshot().orElse(pFallback);
+    return pFallback;
+  }
 
   /**
+   * @param pTitle title of the output tab
    * @return a new IO instance to write to
    */
   @NotNull
-  private InputOutput _createIO()
+  static InputOutput createIO(@NotNull String pTitle)
   {
-    InputOutput io = IOProvider.get("nodejs_runconfig_executor").getIO("NodeJS Script: " + scriptName, false);
+    InputOutput io = IOProvider.get("nodejs_runconfig_executor").getIO(pTitle, false);
+    resetIO(io);
+    io.select();
+    return io;
+  }
 
+  /**
+   * Clears the content of the given IO, so that it can be written again
+   *
+   * @param pIO IO to reset
+   */
+  static void resetIO(@NotNull InputOutput pIO)
+  {
     try
     {
-      io.getOut().reset();
-      io.getErr().reset();
-      io.getIn().reset();
+      pIO.getOut().reset();
+      pIO.getErr().reset();
+      pIO.getIn().reset();
     }
     catch (Exception e)
     {
       // do nothing
     }
-
-    io.select();
-    return io;
   }
 
   @Override
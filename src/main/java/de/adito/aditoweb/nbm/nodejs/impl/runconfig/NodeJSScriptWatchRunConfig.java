@@ -0,0 +1,220 @@
+package de.adito.aditoweb.nbm.nodejs.impl.runconfig;
+
+import de.adito.aditoweb.nbm.nbide.nbaditointerface.javascript.node.*;
+import de.adito.aditoweb.nbm.nodejs.impl.NodeJSProjectFileWatcher;
+import de.adito.aditoweb.nbm.nodejs.impl.process.*;
+import de.adito.nbm.runconfig.api.*;
+import io.reactivex.rxjava3.core.*;
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.disposables.Disposable;
+import org.apache.commons.io.output.CloseShieldWriter;
+import org.jetbrains.annotations.*;
+import org.netbeans.api.progress.ProgressHandle;
+import org.netbeans.api.project.Project;
+import org.openide.filesystems.FileUtil;
+import org.openide.util.NbBundle;
+import org.openide.windows.*;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.*;
+import java.util.logging.*;
+import java.util.stream.Collectors;
+
+/**
+ * RunConfig to execute a nodejs script again and again, if files of the project change.
+ * The files to watch are configured in the package.json as glob patterns. Changes, that occur in a short period of time
+ * (e.g. "save all"), trigger only one run. A run, that is still active, will be terminated with its whole process tree
+ * and the next one is started after that tree has exited. Executing the run config again restarts the watch.
+ *
+ * @author agent, 17.10.2026
+ * @see de.adito.aditoweb.nbm.nodejs.impl.parser.PackageJsonModel#getWatchScripts()
+ */
+class NodeJSScriptWatchRunConfig implements IRunConfig
+{
+
+  private static final long _DEBOUNCE_MS = 300;
+
+  private final Project project;
+  private final INodeJSEnvironment environment;
+  private final String scriptName;
+  private final List<String> globs;
+
+  public NodeJSScriptWatchRunConfig(@NotNull Project pProject, @NotNull INodeJSEnvironment pEnvironment, @NotNull String pScriptName,
+                                    @NotNull List<String> pGlobs)
+  {
+    project = pProject;
+    environment = pEnvironment;
+    scriptName = pScriptName;
+    globs = pGlobs;
+  }
+
+  @NotNull
+  @Override
+  public Observable<Optional<IRunConfigCategory>> category()
+  {
+    return Observable.just(Optional.of(new NodeJSScriptRunConfigCategory()));
+  }
+
+  @NotNull
+  @Override
+  @NbBundle.Messages("LBL_WatchRunConfigName={0} (watch)")
+  public Observable<String> displayName()
+  {
+    return NodeJSScriptRunConfig.createDisplayName(project, Bundle.LBL_WatchRunConfigName(scriptName));
+  }
+
+  @Override
+  public void executeAsnyc(@NotNull ProgressHandle pProgressHandle) throws Exception
+  {
+    INodeJSExecutor executor = INodeJSExecutor.findInstance(project).orElse(null);
+    File projectDir = FileUtil.toFile(project.getProjectDirectory());
+    if (executor == null || projectDir == null)
+      return;
+
+    // only one watch per script, a running one will be replaced after it has terminated
+    NodeJSRunningScripts runningScripts = NodeJSRunningScripts.getInstance();
+    List<String> key = NodeJSRunningScripts.createKey(project, NodeJSScriptWatchRunConfig.class, scriptName);
+    if (!runningScripts.stopAndWait(key))
+      return;
+
+    List<PathMatcher> matchers = globs.stream()
+        .map(pGlob -> FileSystems.getDefault().getPathMatcher("glob:" + pGlob))
+        .collect(Collectors.toList());
+
+    runningScripts.start(key, "NodeJS Watch: " + scriptName, pIO -> {
+      Observable<File> changes = NodeJSProjectFileWatcher.getInstance(project).observeChanges()
+          .filter(pFile -> _matches(projectDir, matchers, pFile))
+          .debounce(_DEBOUNCE_MS, TimeUnit.MILLISECONDS);
+      NodeJSProcessFuture watching = watch(changes, pChanged -> _run(executor, pIO, pChanged.orElse(null)),
+                                           pExitCode -> pIO.getOut().println("Finished with exit code " + pExitCode + ", waiting for changes ..."));
+      watching.whenComplete((pResult, pEx) -> {
+        if (pEx != null && !watching.isCancelled())
+          Logger.getLogger(NodeJSScriptWatchRunConfig.class.getName()).log(Level.WARNING, "Failed to watch " + scriptName, pEx);
+      });
+      return watching;
+    });
+  }
+
+  /**
+   * Runs once immediately and again on every change. A change cancels the current run, the next one is started
+   * not before the process tree of the cancelled run has exited, so that two runs never overlap.
+   *
+   * @param pChanges  changed files, that trigger a new run
+   * @param pRun      function to start a single run, gets the changed file or nothing on the first run
+   * @param pFinished called with the exit code of every run, that was not cancelled
+   * @return future that only completes, if the watch fails or gets cancelled. Cancelling it terminates the current run,
+   * its termination completes if the process tree of the last run has exited
+   */
+  @NotNull
+  static NodeJSProcessFuture watch(@NotNull Observable<File> pChanges, @NotNull Function<Optional<File>, CompletableFuture<Integer>> pRun,
+                                   @NotNull IntConsumer pFinished)
+  {
+    NodeJSProcessFuture watching = new NodeJSProcessFuture();
+    AtomicReference<CompletableFuture<Void>> lastTermination = new AtomicReference<>(CompletableFuture.completedFuture(null));
+    Disposable watch = pChanges
+        .map(Optional::of)
+        .startWithItem(Optional.empty())
+
+        // a new change disposes the current run, which terminates its process tree
+        .switchMap(pChanged -> Completable.defer(() -> Completable.fromCompletionStage(lastTermination.get()))
+            .andThen(Observable.<Integer>create(pEmitter -> {
+              CompletableFuture<Integer> future = pRun.apply(pChanged);
+              lastTermination.set(NodeJSProcessFuture.terminationOf(future));
+              pEmitter.setCancellable(() -> future.cancel(true));
+
+              // cancelled runs do not have to be reported, the next one is already waiting
+              future.whenComplete((pExitCode, pEx) -> {
+                if (pExitCode != null)
+                  pEmitter.onNext(pExitCode);
+              });
+            })))
+        .subscribe(pFinished::accept, watching::completeExceptionally);
+
+    // disposing cancels the current run, so the last termination has to be read afterwards
+    watching.whenComplete((pResult, pEx) -> {
+      watch.dispose();
+      lastTermination.get().whenComplete((pTerminated, pTerminationEx) -> watching.terminated());
+    });
+    return watching;
+  }
+
+  /**
+   * Runs the script once
+   *
+   * @param pExecutor executor of the project
+   * @param pIO       output window tab
+   * @param pChanged  file, that triggered the run, NULL on the first run
+   * @return future that completes with the exit code, cancel it to terminate the process tree
+   */
+  @NotNull
+  private CompletableFuture<Integer> _run(@NotNull INodeJSExecutor pExecutor, @NotNull InputOutput pIO, @Nullable File pChanged)
+  {
+    if (pChanged != null)
+      pIO.getOut().println("\n" + pChanged.getName() + " changed, running " + scriptName + " again ...");
+
+    // the tab is used by all runs, so the bridges must not close it
+    NodeJSOutputBridge bridge = new NodeJSOutputBridge(new CloseShieldWriter(pIO.getOut()), new CloseShieldWriter(pIO.getErr()));
+    CompletableFuture<Integer> future = NodeJSScriptRunConfig.execute(project, environment, pExecutor, scriptName, bridge.getOut(), bridge.getErr());
+    future.whenComplete((pExitCode, pEx) -> {
+      try
+      {
+        bridge.close();
+      }
+      catch (Exception ex)
+      {
+        // do nothing
+      }
+
+      if (pEx != null && !future.isCancelled())
+        pIO.getErr().println("Failed to run " + scriptName + ": " + pEx.getMessage());
+    });
+    return future;
+  }
+
+  /**
+   * Checks, if the given file matches any of the glob patterns
+   *
+   * @param pProjectDir directory, the patterns are relative to
+   * @param pMatchers   matchers of all glob patterns
+   * @param pFile       changed file
+   * @return true, if the file matches
+   */
+  private static boolean _matches(@NotNull File pProjectDir, @NotNull List<PathMatcher> pMatchers, @NotNull File pFile)
+  {
+    Path relative;
+    try
+    {
+      relative = pProjectDir.toPath().relativize(pFile.toPath());
+    }
+    catch (IllegalArgumentException e)
+    {
+      // not part of the project
+      return false;
+    }
+
+    return pMatchers.stream().anyMatch(pMatcher -> pMatcher.matches(relative));
+  }
+
+  @Override
+  public boolean equals(Object pO)
+  {
+    if (this == pO) return true;
+    if (pO == null || getClass() != pO.getClass()) return false;
+    NodeJSScriptWatchRunConfig that = (NodeJSScriptWatchRunConfig) pO;
+    return Objects.equals(project, that.project) &&
+        Objects.equals(environment, that.environment) &&
+        Objects.equals(scriptName, that.scriptName) &&
+        Objects.equals(globs, that.globs);
+  }
+
+  @Override
+  public int hashCode()
+  {
+    return Objects.hash(project, environment, scriptName, globs);
+  }
+
+}
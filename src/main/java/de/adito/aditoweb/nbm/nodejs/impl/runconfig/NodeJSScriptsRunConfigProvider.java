@@ -1,7 +1,8 @@
 package de.adito.aditoweb.nbm.nodejs.impl.runconfig;
 
 import de.adito.aditoweb.nbm.nbide.nbaditointerface.javascript.node.*;
-import de.adito.aditoweb.nbm.nodejs.impl.parser.PackageParser;
+import de.adito.aditoweb.nbm.nodejs.impl.NodeJSProjectFileWatcher;
+import de.adito.aditoweb.nbm.nodejs.impl.parser.*;
 import de.adito.nbm.runconfig.api.*;
 import de.adito.observables.netbeans.*;
 import io.reactivex.rxjava3.core.Observable;
@@ -9,9 +10,8 @@ import org.jetbrains.annotations.NotNull;
 import org.netbeans.api.project.Project;
 import org.openide.util.lookup.ServiceProvider;
 
-import java.io.File;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.stream.*;
 
 /**
  * @author w.glanzer, 12.05.2021
@@ -77,13 +77,21 @@ public class NodeJSScriptsRunConfigProvider implements ISystemRunConfigProvider
   @NotNull
   private Observable<List<IRunConfig>> _createRunConfigsForProject(@NotNull Project pProject, @NotNull INodeJSEnvironment pEnvironment)
   {
-    return FileObservable.create(new File(pProject.getProjectDirectory().getPath(), "package.json"))
+    return NodeJSProjectFileWatcher.getInstance(pProject).observe("package.json")
         .map(pFileOpt -> pFileOpt
-            .map(PackageParser::parseScripts)
-            .orElse(Map.of()))
-        .map(pScripts -> pScripts.keySet().stream()
-            .sorted(String.CASE_INSENSITIVE_ORDER)
-            .map(pScript -> new NodeJSScriptRunConfig(pProject, pEnvironment, pScript))
+            .map(PackageParser::getModel)
+            .orElse(PackageJsonModel.EMPTY))
+        .map(pModel -> Stream.of(pModel.getScripts().keySet().stream()
+                                     .sorted(String.CASE_INSENSITIVE_ORDER)
+                                     .map(pScript -> new NodeJSScriptRunConfig(pProject, pEnvironment, pScript)),
+                                 pModel.getWatchScripts().entrySet().stream()
+                                     .filter(pWatch -> pModel.getScripts().containsKey(pWatch.getKey()))
+                                     .sorted(Map.Entry.comparingByKey(String.CASE_INSENSITIVE_ORDER))
+                                     .map(pWatch -> new NodeJSScriptWatchRunConfig(pProject, pEnvironment, pWatch.getKey(), pWatch.getValue())),
+                                 pModel.getRunGroups().entrySet().stream()
+                                     .sorted(Map.Entry.comparingByKey(String.CASE_INSENSITIVE_ORDER))
+                                     .map(pGroup -> new NodeJSScriptGroupRunConfig(pProject, pEnvironment, pGroup.getKey(), pGroup.getValue())))
+            .flatMap(pConfigs -> pConfigs)
             .collect(Collectors.<IRunConfig>toList()))
         .distinctUntilChanged();
   }
@@ -3,12 +3,16 @@ package de.adito.aditoweb.nbm.nodejs.impl.version;
 import com.google.common.base.Strings;
 import de.adito.aditoweb.nbm.nbide.nbaditointerface.javascript.node.*;
 import de.adito.aditoweb.nbm.nodejs.impl.NodeJSExecutorImpl;
+import de.adito.aditoweb.nbm.nodejs.impl.jfr.NodeJSEnvironmentProbeEvent;
+import de.adito.aditoweb.nbm.nodejs.impl.process.*;
+import io.reactivex.rxjava3.core.Single;
 import lombok.ToString;
 import org.jetbrains.annotations.*;
 import org.openide.util.BaseUtilities;
 
 import java.io.*;
-import java.util.concurrent.TimeoutException;
+import java.util.Optional;
+import java.util.concurrent.*;
 
 /**
  * @author w.glanzer, 08.03.2021
@@ -16,6 +20,12 @@ import java.util.concurrent.TimeoutException;
 public class NodeJSEnvironmentFactory
 {
 
+  private static final NodeJSInstallationVersionReader _INSTALLATION_READER = new NodeJSInstallationVersionReader();
+  private static final long _PROBE_TIMEOUT_MS = 2000;
+  private static final NodeJSEnvironmentProbeCache _PROBE_CACHE = new NodeJSEnvironmentProbeCache(NodeJSEnvironmentFactory::_probeVersion);
+  private static final NodeJSEnvironmentProbeScheduler<NodeJSEnvironmentProbeCache.ProbeResult> _PROBE_SCHEDULER =
+      new NodeJSEnvironmentProbeScheduler<>(2, _PROBE_CACHE::get);
+
   /**
    * Creates an environment from a nodejs binary
    *
@@ -31,6 +41,56 @@ public class NodeJSEnvironmentFactory
     return null;
   }
 
+  /**
+   * Creates an environment from a nodejs binary, without blocking the calling thread.
+   * The binary will be probed on a dedicated scheduler, concurrent calls for the same binary share a single probe.
+   * Cancelling the returned future cancels the probe, if nobody else is waiting for it.
+   *
+   * @param pBinary Binary of the installation
+   * @return future with the (valid) env or an empty optional, if the binary is invalid
+   */
+  @NotNull
+  public static CompletableFuture<Optional<INodeJSEnvironment>> createAsync(@NotNull File pBinary)
+  {
+    // already probed, no need to switch threads
+    NodeJSEnvironmentProbeCache.ProbeResult cached = _PROBE_CACHE.getIfPresent(pBinary);
+    if (cached != null)
+      return CompletableFuture.completedFuture(_toEnvironment(pBinary, cached));
+
+    CompletableFuture<NodeJSEnvironmentProbeCache.ProbeResult> probe = _PROBE_SCHEDULER.probe(pBinary);
+    CompletableFuture<Optional<INodeJSEnvironment>> result = probe.thenApply(pResult -> _toEnvironment(pBinary, pResult));
+
+    // propagate cancellation to the probe
+    result.whenComplete((pEnv, pEx) -> {
+      if (result.isCancelled())
+        probe.cancel(true);
+    });
+    return result;
+  }
+
+  /**
+   * Creates an environment from a nodejs binary, without blocking the calling thread.
+   * Disposing the subscription cancels the probe, if nobody else is waiting for it.
+   *
+   * @param pBinary Binary of the installation
+   * @return Single with the (valid) env or an empty optional, if the binary is invalid
+   * @see #createAsync(File)
+   */
+  @NotNull
+  public static Single<Optional<INodeJSEnvironment>> createSingle(@NotNull File pBinary)
+  {
+    return Single.create(pEmitter -> {
+      CompletableFuture<Optional<INodeJSEnvironment>> future = createAsync(pBinary);
+      pEmitter.setCancellable(() -> future.cancel(true));
+      future.whenComplete((pEnv, pEx) -> {
+        if (pEx != null)
+          pEmitter.tryOnError(pEx);
+        else
+          pEmitter.onSuccess(pEnv);
+      });
+    });
+  }
+
   private NodeJSEnvironmentFactory()
   {
   }
@@ -80,16 +140,10 @@ public class NodeJSEnvironmentFactory
     @Override
     public String getVersion()
     {
-      _ensureValid();
-
-      try
-      {
-        return _readVersion();
-      }
-      catch (Exception e)
-      {
-        throw new IllegalStateException("Failed to retrieve version from nodejs package (" + getPath() + ")", e);
-      }
+      String version = _PROBE_CACHE.get(nodejsBinary).getVersion();
+      if (version == null)
+        throw new IllegalArgumentException("NodeJSVersion is not valid (" + getPath() + ")");
+      return version;
     }
 
     /**
@@ -98,68 +152,133 @@ public class NodeJSEnvironmentFactory
     @Override
     public boolean isValid()
     {
-      try
-      {
-        return !_readVersion().isEmpty();
-      }
-      catch (Exception e)
+      return _PROBE_CACHE.get(nodejsBinary).isValid();
+    }
+  }
+
+  /**
+   * Converts a probe result to an environment
+   *
+   * @param pBinary binary that was probed
+   * @param pResult result of the probe
+   * @return the environment, if valid
+   */
+  @NotNull
+  private static Optional<INodeJSEnvironment> _toEnvironment(@NotNull File pBinary, @NotNull NodeJSEnvironmentProbeCache.ProbeResult pResult)
+  {
+    if (pResult.isValid())
+      return Optional.of(new _BinaryEnvironment(pBinary));
+    return Optional.empty();
+  }
+
+  /**
+   * Extracts the version from the given nodejs binary.
+   * Tries to read it from the installation metadata first, because this does not need a separate process.
+   *
+   * @param pBinary binary to read the version from
+   * @return the version
+   */
+  @NotNull
+  private static String _probeVersion(@NotNull File pBinary) throws IOException, InterruptedException, TimeoutException
+  {
+    NodeJSEnvironmentProbeEvent event = new NodeJSEnvironmentProbeEvent();
+    event.begin();
+    event.setBinary(pBinary.getAbsolutePath());
+
+    try
+    {
+      String version = _INSTALLATION_READER.readVersion(pBinary);
+      if (version != null)
+        event.setSource("metadata");
+      else
       {
-        return false;
+        // fallback: execute the binary
+        event.setSource("process");
+        version = _readVersion(pBinary);
       }
-    }
 
-    /**
-     * Ensures, that this version is valid
-     */
-    private void _ensureValid()
+      event.setVersion(version);
+      return version;
+    }
+    finally
     {
-      if (!isValid())
-        throw new IllegalArgumentException("NodeJSVersion is not valid (" + getPath() + ")");
+      // failed probes will be committed without version
+      event.commit();
     }
+  }
 
-    /**
-     * Extracts the version from this package
-     *
-     * @return the version
-     */
-    @NotNull
-    private String _readVersion() throws IOException, InterruptedException, TimeoutException
+  /**
+   * Extracts the version from the given nodejs binary by executing it.
+   * The helper daemon of the binary is asked first, if it is enabled, so that repeated probes do not need a node start.
+   * Otherwise the process is started through the shared process scheduler with interactive priority, so it is not queued behind
+   * background processes. A hanging binary will be killed with its process tree after the timeout or on interruption.
+   *
+   * @param pBinary binary to execute
+   * @return the version
+   */
+  @NotNull
+  private static String _readVersion(@NotNull File pBinary) throws IOException, InterruptedException, TimeoutException
+  {
+    INodeJSEnvironment probeEnv = new INodeJSEnvironment()
     {
-      String result = NodeJSExecutorImpl.getInternalUnboundExecutor(new File(".")).executeSync(new INodeJSEnvironment()
+      @NotNull
+      @Override
+      public File getPath()
+      {
+        return pBinary;
+      }
+
+      @NotNull
+      @Override
+      public File resolveExecBase(@NotNull INodeJSExecBase pBase)
+      {
+        return pBinary;
+      }
+
+      @NotNull
+      @Override
+      public String getVersion()
+      {
+        return "invalid";
+      }
+
+      @Override
+      public boolean isValid()
       {
-        @NotNull
-        @Override
-        public File getPath()
-        {
-          return _BinaryEnvironment.this.getPath();
-        }
-
-        @NotNull
-        @Override
-        public File resolveExecBase(@NotNull INodeJSExecBase pBase)
-        {
-          return _BinaryEnvironment.this.getPath();
-        }
-
-        @NotNull
-        @Override
-        public String getVersion()
-        {
-          return "invalid";
-        }
-
-        @Override
-        public boolean isValid()
-        {
-          return true;
-        }
-      }, INodeJSExecBase.node(), 2000, "--version");
-
-      // only read last line, because this line contains the version
-      String[] lines = result.split("\n");
-      if (lines.length == 0)
-        return "";
-      return lines[lines.length - 1];
+        return true;
+      }
+    };
+
+    String version = NodeJSHelperDaemon.tryGetVersion(probeEnv, INodeJSExecBase.node(), _PROBE_TIMEOUT_MS, "--version");
+    if (version != null)
+      return version;
+
+    try
+    {
+      // the editor waits for the version, so the probe must not be queued behind other processes
+      return NodeJSExecutorImpl.getInternalUnboundExecutor(new File("."))
+          .withPriority(ENodeJSProcessPriority.INTERACTIVE)
+          .executeStreaming(probeEnv, INodeJSExecBase.node(), "--version")
+          .filter(pLine -> pLine.getStream() == NodeJSOutputLine.EStream.OUT)
+          .map(pLine -> pLine.getLine().trim())
+          .filter(pLine -> !pLine.isEmpty())
+
+          // only read last line, because this line contains the version
+          .lastElement()
+          .timeout(_PROBE_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+          .blockingGet("");
+    }
+    catch (RuntimeException e)
+    {
+      // checked exceptions are wrapped by rx, failed starts by the scheduler
+      Throwable cause = e.getCause();
+      if (cause instanceof TimeoutException)
+        throw new TimeoutException("nodejs binary did not respond in time (" + pBinary + ")");
+      if (cause instanceof InterruptedException)
+        throw (InterruptedException) cause;
+      if (cause instanceof IOException)
+        throw (IOException) cause;
+      throw e;
     }
   }
 
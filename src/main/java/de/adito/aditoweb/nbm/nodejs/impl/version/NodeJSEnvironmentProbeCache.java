@@ -0,0 +1,226 @@
+package de.adito.aditoweb.nbm.nodejs.impl.version;
+
+import org.jetbrains.annotations.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Process wide cache for the results of nodejs binary probes.
+ * A result is remembered per binary and identified by its canonical path, file size and last modification time,
+ * so that it will be dropped as soon as the binary changes on disk.
+ *
+ * @author agent, 17.10.2026
+ */
+class NodeJSEnvironmentProbeCache
+{
+
+  private final Map<String, _Entry> entries = new ConcurrentHashMap<>();
+  private final IProbe probe;
+
+  NodeJSEnvironmentProbeCache(@NotNull IProbe pProbe)
+  {
+    probe = pProbe;
+  }
+
+  /**
+   * Returns the probe result of the given binary.
+   * The binary will only be probed, if there is no cached result for its current state on disk.
+   *
+   * @param pBinary binary to probe
+   * @return the result, never null
+   */
+  @NotNull
+  public ProbeResult get(@NotNull File pBinary)
+  {
+    _Stamp stamp = _Stamp.of(pBinary);
+    if (stamp == null)
+    {
+      // binary does not exist (anymore)
+      invalidate(pBinary);
+      return ProbeResult.INVALID;
+    }
+
+    _Entry entry = entries.get(stamp.path);
+    if (entry != null && entry.stamp.equals(stamp))
+      return entry.result;
+
+    try
+    {
+      String version = probe.readVersion(pBinary);
+      ProbeResult result = version.isEmpty() ? ProbeResult.INVALID : new ProbeResult(version);
+      entries.put(stamp.path, new _Entry(stamp, result));
+      return result;
+    }
+    catch (TimeoutException | InterruptedException e)
+    {
+      // transient failures should not be remembered, the next call may succeed
+      if (e instanceof InterruptedException)
+        Thread.currentThread().interrupt();
+      return ProbeResult.INVALID;
+    }
+    catch (Exception e)
+    {
+      entries.put(stamp.path, new _Entry(stamp, ProbeResult.INVALID));
+      return ProbeResult.INVALID;
+    }
+  }
+
+  /**
+   * Returns the cached probe result of the given binary, without probing it
+   *
+   * @param pBinary binary
+   * @return the result or null, if the binary has to be probed
+   */
+  @Nullable
+  public ProbeResult getIfPresent(@NotNull File pBinary)
+  {
+    _Stamp stamp = _Stamp.of(pBinary);
+    if (stamp == null)
+      return ProbeResult.INVALID;
+
+    _Entry entry = entries.get(stamp.path);
+    if (entry != null && entry.stamp.equals(stamp))
+      return entry.result;
+    return null;
+  }
+
+  /**
+   * Removes the cached result of the given binary
+   *
+   * @param pBinary binary
+   */
+  public void invalidate(@NotNull File pBinary)
+  {
+    entries.remove(_Stamp.canonicalPath(pBinary));
+  }
+
+  /**
+   * Removes all cached results
+   */
+  public void clear()
+  {
+    entries.clear();
+  }
+
+  /**
+   * Reads the version of a nodejs binary
+   */
+  interface IProbe
+  {
+    /**
+     * @param pBinary binary to read the version from
+     * @return the version or an empty string, if the binary did not return a version
+     */
+    @NotNull
+    String readVersion(@NotNull File pBinary) throws IOException, InterruptedException, TimeoutException;
+  }
+
+  /**
+   * Result of a single probe
+   */
+  static class ProbeResult
+  {
+    static final ProbeResult INVALID = new ProbeResult(null);
+
+    private final String version;
+
+    ProbeResult(@Nullable String pVersion)
+    {
+      version = pVersion;
+    }
+
+    /**
+     * @return true, if the probed binary is a valid nodejs binary
+     */
+    public boolean isValid()
+    {
+      return version != null;
+    }
+
+    /**
+     * @return the version of the probed binary, null if it is invalid
+     */
+    @Nullable
+    public String getVersion()
+    {
+      return version;
+    }
+  }
+
+  /**
+   * Identifies the state of a binary on disk
+   */
+  private static class _Stamp
+  {
+    private final String path;
+    private final long size;
+    private final long lastModified;
+
+    private _Stamp(@NotNull String pPath, long pSize, long pLastModified)
+    {
+      path = pPath;
+      size = pSize;
+      lastModified = pLastModified;
+    }
+
+    /**
+     * @param pBinary binary to create the stamp for
+     * @return the stamp or null, if the binary does not exist
+     */
+    @Nullable
+    static _Stamp of(@NotNull File pBinary)
+    {
+      if (!pBinary.isFile())
+        return null;
+      return new _Stamp(canonicalPath(pBinary), pBinary.length(), pBinary.lastModified());
+    }
+
+    @NotNull
+    static String canonicalPath(@NotNull File pFile)
+    {
+      try
+      {
+        return pFile.getCanonicalPath();
+      }
+      catch (IOException e)
+      {
+        return pFile.getAbsolutePath();
+      }
+    }
+
+    @Override
+    public boolean equals(Object pO)
+    {
+      if (this == pO) return true;
+      if (pO == null || getClass() != pO.getClass()) return false;
+      _Stamp that = (_Stamp) pO;
+      return size == that.size &&
+          lastModified == that.lastModified &&
+          path.equals(that.path);
+    }
+
+    @Override
+    public int hashCode()
+    {
+      return Objects.hash(path, size, lastModified);
+    }
+  }
+
+  /**
+   * Cached result with the state of the binary it was read from
+   */
+  private static class _Entry
+  {
+    private final _Stamp stamp;
+    private final ProbeResult result;
+
+    private _Entry(@NotNull _Stamp pStamp, @NotNull ProbeResult pResult)
+    {
+      stamp = pStamp;
+      result = pResult;
+    }
+  }
+
+}
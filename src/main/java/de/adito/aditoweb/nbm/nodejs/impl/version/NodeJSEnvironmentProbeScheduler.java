@@ -0,0 +1,170 @@
+package de.adito.aditoweb.nbm.nodejs.impl.version;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+/**
+ * Runs binary probes asynchronously on a small, dedicated pool, so that slow or hanging binaries cannot block shared threads.
+ * Concurrent requests for the same binary are merged into a single probe. A probe will be cancelled (and its thread
+ * interrupted), if all of its requests were cancelled.
+ *
+ * @author agent, 17.10.2026
+ */
+class NodeJSEnvironmentProbeScheduler<T>
+{
+
+  private final ThreadPoolExecutor executor;
+  private final Function<File, T> probe;
+  private final Map<String, _SharedProbe> runningProbes = new ConcurrentHashMap<>();
+
+  NodeJSEnvironmentProbeScheduler(int pThreads, @NotNull Function<File, T> pProbe)
+  {
+    probe = pProbe;
+    executor = new ThreadPoolExecutor(pThreads, pThreads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                                      new ThreadFactoryBuilder()
+                                          .setDaemon(true)
+                                          .setNameFormat("tNodeJSProbe-%d")
+                                          .build());
+    executor.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * Probes the given binary asynchronously.
+   * If the binary is already being probed, the running probe will be reused.
+   *
+   * @param pBinary binary to probe
+   * @return future with the result, may be cancelled
+   */
+  @NotNull
+  public CompletableFuture<T> probe(@NotNull File pBinary)
+  {
+    String key = _key(pBinary);
+    _SharedProbe sharedProbe = runningProbes.compute(key, (pKey, pExisting) -> {
+      _SharedProbe p = pExisting != null && !pExisting.result.isDone() ? pExisting : new _SharedProbe(pKey, pBinary);
+      p.subscribers++;
+      return p;
+    });
+    sharedProbe.start();
+    return sharedProbe.subscribe();
+  }
+
+  /**
+   * @return the count of binaries that are currently probed
+   */
+  public int getRunningProbes()
+  {
+    return runningProbes.size();
+  }
+
+  @NotNull
+  private static String _key(@NotNull File pBinary)
+  {
+    try
+    {
+      return pBinary.getCanonicalPath();
+    }
+    catch (IOException e)
+    {
+      return pBinary.getAbsolutePath();
+    }
+  }
+
+  /**
+   * A probe that may be shared among several requests
+   */
+  private class _SharedProbe implements Runnable
+  {
+    private final String key;
+    private final File binary;
+    private final CompletableFuture<T> result = new CompletableFuture<>();
+    private int subscribers; // guarded by runningProbes#compute
+    private Future<?> task;
+
+    public _SharedProbe(@NotNull String pKey, @NotNull File pBinary)
+    {
+      key = pKey;
+      binary = pBinary;
+    }
+
+    /**
+     * Starts this probe, if it was not started yet
+     */
+    public synchronized void start()
+    {
+      if (task == null)
+      {
+        try
+        {
+          task = executor.submit(this);
+        }
+        catch (RejectedExecutionException e)
+        {
+          result.completeExceptionally(e);
+        }
+      }
+    }
+
+    /**
+     * @return a new future for a single request of this probe
+     */
+    @NotNull
+    public CompletableFuture<T> subscribe()
+    {
+      CompletableFuture<T> request = new CompletableFuture<>();
+      result.whenComplete((pResult, pEx) -> {
+        if (pEx != null)
+          request.completeExceptionally(pEx);
+        else
+          request.complete(pResult);
+      });
+      request.whenComplete((pResult, pEx) -> {
+        if (request.isCancelled())
+          _unsubscribe();
+      });
+      return request;
+    }
+
+    @Override
+    public void run()
+    {
+      try
+      {
+        result.complete(probe.apply(binary));
+      }
+      catch (Throwable t) //NOSONAR every failure has to be passed to the future
+      {
+        result.completeExceptionally(t);
+      }
+      finally
+      {
+        runningProbes.remove(key, this);
+      }
+    }
+
+    /**
+     * Removes a single request from this probe and cancels it, if there are no requests left
+     */
+    private void _unsubscribe()
+    {
+      runningProbes.computeIfPresent(key, (pKey, pExisting) -> {
+        if (pExisting != this || --subscribers > 0)
+          return pExisting;
+
+        // nobody is interested anymore
+        result.cancel(false);
+        synchronized (this)
+        {
+          if (task != null)
+            task.cancel(true);
+        }
+        return null;
+      });
+    }
+  }
+
+}
@@ -0,0 +1,115 @@
+package de.adito.aditoweb.nbm.nodejs.impl.version;
+
+import de.adito.aditoweb.nbm.nodejs.impl.options.downloader.INodeJSDownloader;
+import org.jetbrains.annotations.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.regex.*;
+
+/**
+ * Reads the version of a nodejs installation from its metadata on disk, without starting a node process.
+ * Checks the "include/node/node_version.h" header first and the name of the distribution folder afterwards.
+ *
+ * @author agent, 17.10.2026
+ */
+class NodeJSInstallationVersionReader
+{
+
+  private static final String _VERSION_HEADER = "include/node/node_version.h";
+  private static final Pattern _DEFINE_REGEX = Pattern.compile("^\\s*#define\\s+NODE_(MAJOR_VERSION|MINOR_VERSION|PATCH_VERSION|VERSION_IS_RELEASE)\\s+(\\d+)\\s*$");
+  private static final Pattern _DIST_FOLDER_REGEX = Pattern.compile("^node-(v\\d+\\.\\d+\\.\\d+)-[^-]+-[^-]+$");
+
+  /**
+   * Reads the version of the installation, that contains the given binary
+   *
+   * @param pBinary nodejs binary
+   * @return the version (like "v16.1.0") or null, if it can not be determined without executing the binary
+   */
+  @Nullable
+  public String readVersion(@NotNull File pBinary)
+  {
+    File binary = _canonical(pBinary);
+    if (!binary.isFile() || !binary.canExecute())
+      return null;
+
+    File installation = INodeJSDownloader.getInstance().findInstallationFromNodeExecutable(binary);
+    if (installation == null)
+      return null;
+
+    String version = readVersionFromHeader(installation);
+    if (version == null)
+      version = readVersionFromFolderName(installation);
+    return version;
+  }
+
+  /**
+   * Reads the version from the "node_version.h" header of the installation
+   *
+   * @param pInstallation installation root
+   * @return the version or null, if no (released) version could be read
+   */
+  @Nullable
+  String readVersionFromHeader(@NotNull File pInstallation)
+  {
+    File header = new File(pInstallation, _VERSION_HEADER);
+    if (!header.isFile() || !header.canRead())
+      return null;
+
+    try
+    {
+      Map<String, String> defines = new HashMap<>();
+      for (String line : Files.readAllLines(header.toPath(), StandardCharsets.UTF_8))
+      {
+        Matcher matcher = _DEFINE_REGEX.matcher(line);
+        if (matcher.matches())
+          defines.putIfAbsent(matcher.group(1), matcher.group(2));
+      }
+
+      String major = defines.get("MAJOR_VERSION");
+      String minor = defines.get("MINOR_VERSION");
+      String patch = defines.get("PATCH_VERSION");
+
+      // pre-releases have a suffix that is not contained in the header
+      if (major == null || minor == null || patch == null || "0".equals(defines.get("VERSION_IS_RELEASE")))
+        return null;
+
+      return "v" + major + "." + minor + "." + patch;
+    }
+    catch (Exception e)
+    {
+      return null;
+    }
+  }
+
+  /**
+   * Reads the version from the folder name of an extracted nodejs distribution, like "node-v16.1.0-linux-x64"
+   *
+   * @param pInstallation installation root
+   * @return the version or null, if the folder is not named like a distribution
+   */
+  @Nullable
+  String readVersionFromFolderName(@NotNull File pInstallation)
+  {
+    Matcher matcher = _DIST_FOLDER_REGEX.matcher(pInstallation.getName());
+    if (matcher.matches())
+      return matcher.group(1);
+    return null;
+  }
+
+  @NotNull
+  private static File _canonical(@NotNull File pFile)
+  {
+    try
+    {
+      return pFile.getCanonicalFile();
+    }
+    catch (IOException e)
+    {
+      return pFile;
+    }
+  }
+
+}
@@ -0,0 +1,69 @@
+/*
+ * Long living helper process of the NodeJS module.
+ * Reads requests from stdin and writes responses to stdout.
+ * Every message is a frame with a 4 byte big endian length header, followed by an UTF-8 encoded JSON object.
+ *
+ * Request:  { "id": 1, "command": "version", "args": {} }
+ * Response: { "id": 1, "ok": true, "result": "v16.1.0" } or { "id": 1, "ok": false, "error": "message" }
+ */
+'use strict';
+
+const fs = require('fs');
+const path = require('path');
+
+const handlers = {
+  version: () => process.version,
+  npmVersion: () => {
+    const nodeDir = path.dirname(process.execPath);
+    const candidates = [
+      path.join(nodeDir, 'node_modules', 'npm', 'package.json'),
+      path.join(nodeDir, '..', 'lib', 'node_modules', 'npm', 'package.json')
+    ];
+    for (const candidate of candidates) {
+      if (fs.existsSync(candidate))
+        return JSON.parse(fs.readFileSync(candidate, 'utf8')).version;
+    }
+    throw new Error('npm installation not found next to ' + process.execPath);
+  }
+};
+
+function send(response) {
+  const payload = Buffer.from(JSON.stringify(response), 'utf8');
+  const header = Buffer.alloc(4);
+  header.writeUInt32BE(payload.length, 0);
+  process.stdout.write(Buffer.concat([header, payload]));
+}
+
+function handle(request) {
+  Promise.resolve()
+    .then(() => {
+      const handler = handlers[request.command];
+      if (!handler)
+        throw new Error('Unknown command: ' + request.command);
+      return handler(request.args || {});
+    })
+    .then(
+      (result) => send({ id: request.id, ok: true, result: result === undefined ? null : result }),
+      (error) => send({ id: request.id, ok: false, error: String((error && error.message) || error) }));
+}
+
+let buffer = Buffer.alloc(0);
+process.stdin.on('data', (chunk) => {
+  buffer = Buffer.concat([buffer, chunk]);
+  while (buffer.length >= 4) {
+    const length = buffer.readUInt32BE(0);
+    if (buffer.length < 4 + length)
+      break;
+    const frame = buffer.slice(4, 4 + length);
+    buffer = buffer.slice(4 + length);
+    try {
+      handle(JSON.parse(frame.toString('utf8')));
+    }
+    catch (e) {
+      process.stderr.write('Invalid request frame: ' + e + '\n');
+    }
+  }
+});
+
+// the parent closed our stdin, so nobody is listening anymore
+process.stdin.on('end', () => process.exit(0));
@@ -0,0 +1,38 @@
+/*
+ * Pre-started node process of the NodeJS module.
+ * Waits for a single entry line on stdin and then runs the script, as if node was started with it.
+ * Everything after the entry line on stdin belongs to the script.
+ *
+ * Entry: { "cwd": "/project", "script": "node_modules/x/cli.js", "args": ["--stdio"] }
+ */
+'use strict';
+
+const fs = require('fs');
+const path = require('path');
+const Module = require('module');
+
+function readEntryLine() {
+  const buffer = Buffer.alloc(1);
+  const bytes = [];
+  for (;;) {
+    // read byte by byte, so nothing that belongs to the script is consumed
+    const read = fs.readSync(0, buffer, 0, 1, null);
+    if (read === 0)
+      return null;
+    if (buffer[0] === 0x0a)
+      return Buffer.from(bytes).toString('utf8');
+    bytes.push(buffer[0]);
+  }
+}
+
+const line = readEntryLine();
+
+// pool was shut down
+if (line === null)
+  process.exit(0);
+
+const entry = JSON.parse(line);
+process.chdir(entry.cwd);
+const script = path.resolve(entry.cwd, entry.script);
+process.argv = [process.argv[0], script].concat(entry.args || []);
+Module.runMain(script);
@@ -0,0 +1,96 @@
+package de.adito.aditoweb.nbm.nodejs.impl;
+
+import de.adito.aditoweb.nbm.nbide.nbaditointerface.javascript.node.*;
+import de.adito.aditoweb.nbm.nodejs.impl.process.NodeJSOutputLine;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.condition.*;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * @author agent, 17.10.2026
+ * @see NodeJSExecutorImpl#executeStreaming(INodeJSEnvironment, INodeJSExecBase, String...)
+ */
+@EnabledOnOs({OS.LINUX, OS.MAC})
+class Test_NodeJSExecutorStreaming
+{
+
+  private final File shell = new File("/bin/sh");
+  private INodeJSEnvironment env;
+  private INodeJSExecBase base;
+  private NodeJSExecutorImpl executor;
+
+  @BeforeEach
+  void setUp()
+  {
+    env = Mockito.mock(INodeJSEnvironment.class);
+    Mockito.when(env.getPath()).thenReturn(shell);
+    Mockito.when(env.resolveExecBase(Mockito.any())).thenReturn(shell);
+    Mockito.when(env.isValid()).thenReturn(true);
+
+    base = Mockito.mock(INodeJSExecBase.class);
+    Mockito.when(base.getBasePath()).thenReturn("sh");
+    Mockito.when(base.isRelativeToWorkingDir()).thenReturn(false);
+
+    executor = NodeJSExecutorImpl.getInternalUnboundExecutor(new File("."));
+  }
+
+  @Test
+  void test_readLines()
+  {
+    List<NodeJSOutputLine> lines = executor.executeStreaming(env, base, "-c", "echo first; echo error >&2; echo second")
+        .toList()
+        .timeout(10, TimeUnit.SECONDS)
+        .blockingGet();
+
+    Assertions.assertEquals(List.of("first", "second"), _lines(lines, NodeJSOutputLine.EStream.OUT));
+    Assertions.assertEquals(List.of("error"), _lines(lines, NodeJSOutputLine.EStream.ERR));
+  }
+
+  @Test
+  void test_stdinClosed()
+  {
+    // cat only terminates, if its input was closed
+    List<NodeJSOutputLine> lines = executor.executeStreaming(env, base, "-c", "cat; echo done")
+        .toList()
+        .timeout(10, TimeUnit.SECONDS)
+        .blockingGet();
+
+    Assertions.assertEquals(List.of("done"), _lines(lines, NodeJSOutputLine.EStream.OUT));
+  }
+
+  @Test
+  void test_disposeTerminatesTree() throws Exception
+  {
+    File pidFile = File.createTempFile("streaming", ".pid");
+    pidFile.deleteOnExit();
+
+    // the child of the shell writes its pid and keeps running
+    String first = executor.executeStreaming(env, base, "-c", "sleep 60 & echo $! > " + pidFile.getAbsolutePath() + "; echo started; wait")
+        .map(NodeJSOutputLine::getLine)
+        .firstOrError()
+        .timeout(10, TimeUnit.SECONDS)
+        .blockingGet();
+    Assertions.assertEquals("started", first);
+
+    long pid = Long.parseLong(Files.readString(pidFile.toPath()).trim());
+    long timeout = System.currentTimeMillis() + 10000;
+    while (ProcessHandle.of(pid).map(ProcessHandle::isAlive).orElse(false) && System.currentTimeMillis() < timeout)
+      Thread.sleep(50);
+    Assertions.assertFalse(ProcessHandle.of(pid).map(ProcessHandle::isAlive).orElse(false));
+  }
+
+  private static List<String> _lines(List<NodeJSOutputLine> pLines, NodeJSOutputLine.EStream pStream)
+  {
+    return pLines.stream()
+        .filter(pLine -> pLine.getStream() == pStream)
+        .map(NodeJSOutputLine::getLine)
+        .collect(Collectors.toList());
+  }
+
+}
@@ -0,0 +1,75 @@
+package de.adito.aditoweb.nbm.nodejs.impl;
+
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.subjects.BehaviorSubject;
+import org.junit.jupiter.api.*;
+import org.mockito.Mockito;
+import org.netbeans.api.project.Project;
+import org.openide.filesystems.FileObject;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author agent, 17.10.2026
+ * @see NodeJSProjectFileWatcher
+ */
+class Test_NodeJSProjectFileWatcher
+{
+
+  private final AtomicInteger createdWatches = new AtomicInteger();
+  private final BehaviorSubject<Optional<File>> events = BehaviorSubject.createDefault(Optional.empty());
+  private NodeJSProjectFileWatcher watcher;
+
+  @BeforeEach
+  void setUp()
+  {
+    FileObject projectDir = Mockito.mock(FileObject.class);
+    Mockito.when(projectDir.getPath()).thenReturn("target/project");
+    Project project = Mockito.mock(Project.class);
+    Mockito.when(project.getProjectDirectory()).thenReturn(projectDir);
+
+    watcher = new NodeJSProjectFileWatcher(project, pFile -> {
+      createdWatches.incrementAndGet();
+      return events;
+    });
+  }
+
+  @Test
+  void test_sharedWatch()
+  {
+    Observable<Optional<File>> packageJson = watcher.observe("package.json");
+    Assertions.assertSame(packageJson, watcher.observe("package.json"));
+
+    Disposable first = packageJson.subscribe();
+    Disposable second = watcher.observe("package.json").subscribe();
+    Assertions.assertEquals(1, createdWatches.get());
+    Assertions.assertEquals(1, watcher.getActiveWatchCount());
+
+    first.dispose();
+    Assertions.assertEquals(1, watcher.getActiveWatchCount());
+    second.dispose();
+    Assertions.assertEquals(0, watcher.getActiveWatchCount());
+  }
+
+  @Test
+  void test_burstMerged()
+  {
+    List<Optional<File>> received = new ArrayList<>();
+    Disposable disposable = watcher.observe("package.json").subscribe(received::add);
+    for (int i = 0; i < 10; i++)
+      events.onNext(Optional.of(new File("package.json" + i)));
+
+    // the first state immediately, the latest one after the window
+    Assertions.assertEquals(1, received.size());
+    Assertions.assertEquals(Optional.of(new File("package.json9")),
+                            watcher.observe("package.json").timeout(2, TimeUnit.SECONDS)
+                                .filter(Optional::isPresent)
+                                .blockingFirst());
+    disposable.dispose();
+  }
+
+}
@@ -2,8 +2,11 @@ package de.adito.aditoweb.nbm.nodejs.impl.parser;
 
 import org.junit.jupiter.api.*;
 
-import java.io.StringReader;
-import java.util.Map;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
 
 /**
  * @author w.glanzer, 12.05.2021
@@ -38,4 +41,69 @@ class Test_PackageParser
     Assertions.assertEquals(Map.of(), PackageParser.parseScripts(new StringReader("{ scripts: {   / \"")));
   }
 
-}
\ No newline at end of file
+  @Test
+  void test_parseEngines()
+  {
+    Assertions.assertEquals(Map.of("node", ">=14", "npm", "^7.0.0"),
+                            PackageParser.parseEngines(new StringReader("{ engines: { \"node\": \">=14\", \"npm\": \"^7.0.0\" }, scripts: {} }")));
+    Assertions.assertEquals(Map.of(), PackageParser.parseEngines(new StringReader("{ name: \"test\" }")));
+  }
+
+  @Test
+  void test_parseModel()
+  {
+    PackageJsonModel model = PackageJsonModel.parse(new StringReader("{ name: \"test\", config: { scripts: { nested: \"x\" } }, " +
+                                                                         "workspaces: { packages: [\"packages/*\"] }, " +
+                                                                         "dependencies: { \"rxjs\": \"^7.0.0\" }, scripts: { build: \"tsc\" }, " +
+                                                                         "adito: { runGroups: { verify: { lint: [], build: [\"lint\"] }, all: [\"a\", \"b\"] }, " +
+                                                                         "watch: { build: [\"src/**/*.ts\"], lint: \"src/**\" } } }"));
+    Assertions.assertEquals(Map.of("build", "tsc"), model.getScripts());
+    Assertions.assertEquals(List.of("packages/*"), model.getWorkspaces());
+    Assertions.assertEquals(Map.of("rxjs", "^7.0.0"), model.getDependencies());
+    Assertions.assertEquals(Map.of(), model.getDevDependencies());
+    Assertions.assertEquals(Map.of("verify", Map.of("lint", List.of(), "build", List.of("lint")),
+                                   "all", Map.of("a", List.of(), "b", List.of())), model.getRunGroups());
+    Assertions.assertEquals(Map.of("build", List.of("src/**/*.ts"), "lint", List.of("src/**")), model.getWatchScripts());
+  }
+
+  @Test
+  void test_getModel_cached() throws IOException
+  {
+    Path packageJson = Files.createTempFile("package", ".json");
+    try
+    {
+      Files.write(packageJson, "{ scripts: { build: \"tsc\" } }".getBytes(StandardCharsets.UTF_8));
+      PackageJsonModel model = PackageParser.getModel(packageJson.toFile());
+      Assertions.assertSame(model, PackageParser.getModel(packageJson.toFile()));
+
+      Files.write(packageJson, "{ scripts: { build: \"tsc -b\" } }".getBytes(StandardCharsets.UTF_8));
+      Assertions.assertEquals(Map.of("build", "tsc -b"), PackageParser.getModel(packageJson.toFile()).getScripts());
+    }
+    finally
+    {
+      Files.delete(packageJson);
+    }
+  }
+
+  @Test
+  void test_getModel_sameTimestampAndLength() throws IOException
+  {
+    Path packageJson = Files.createTempFile("package", ".json");
+    try
+    {
+      Files.write(packageJson, "{ scripts: { build: \"tsc -a\" } }".getBytes(StandardCharsets.UTF_8));
+      FileTime modified = Files.getLastModifiedTime(packageJson);
+      Assertions.assertEquals(Map.of("build", "tsc -a"), PackageParser.getModel(packageJson.toFile()).getScripts());
+
+      // changed in the same timestamp, e.g. by a fast tool or a coarse file system
+      Files.write(packageJson, "{ scripts: { build: \"tsc -b\" } }".getBytes(StandardCharsets.UTF_8));
+      Files.setLastModifiedTime(packageJson, modified);
+      Assertions.assertEquals(Map.of("build", "tsc -b"), PackageParser.getModel(packageJson.toFile()).getScripts());
+    }
+    finally
+    {
+      Files.delete(packageJson);
+    }
+  }
+
+}
@@ -0,0 +1,83 @@
+package de.adito.aditoweb.nbm.nodejs.impl.process;
+
+import com.google.gson.JsonObject;
+import de.adito.aditoweb.nbm.nbide.nbaditointerface.javascript.node.*;
+import org.junit.jupiter.api.*;
+import org.mockito.Mockito;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+
+/**
+ * @author agent, 17.10.2026
+ * @see NodeJSHelperDaemon
+ */
+class Test_NodeJSHelperDaemon
+{
+
+  private File node;
+  private NodeJSHelperDaemon daemon;
+
+  @BeforeEach
+  void setUp()
+  {
+    node = Stream.of(System.getenv("PATH").split(File.pathSeparator))
+        .map(pDir -> new File(pDir, "node"))
+        .filter(File::canExecute)
+        .findFirst()
+        .orElse(null);
+    Assumptions.assumeTrue(node != null, "node has to be installed");
+
+    INodeJSEnvironment environment = Mockito.mock(INodeJSEnvironment.class);
+    Mockito.when(environment.getPath()).thenReturn(node);
+    Mockito.when(environment.resolveExecBase(Mockito.any())).thenReturn(node);
+    Mockito.when(environment.isValid()).thenReturn(true);
+    daemon = new NodeJSHelperDaemon(environment);
+  }
+
+  @AfterEach
+  void tearDown()
+  {
+    if (daemon != null)
+      daemon.stop();
+  }
+
+  @Test
+  void test_version() throws Exception
+  {
+    Process process = new ProcessBuilder(node.getAbsolutePath(), "--version").start();
+    String expected = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+
+    Assertions.assertEquals(expected, daemon.request("version", new JsonObject(), 5000).get(10, TimeUnit.SECONDS).getAsString());
+    Assertions.assertEquals(expected, daemon.request("version", new JsonObject(), 5000).get(10, TimeUnit.SECONDS).getAsString());
+    Assertions.assertEquals(0, daemon.getRestartCount());
+  }
+
+  @Test
+  void test_restartAfterCrash() throws Exception
+  {
+    daemon.request("version", new JsonObject(), 5000).get(10, TimeUnit.SECONDS);
+    Process crashed = daemon.getProcess();
+    Assertions.assertNotNull(crashed);
+    crashed.destroyForcibly().waitFor(5, TimeUnit.SECONDS);
+
+    // the next request starts a new process
+    Assertions.assertTrue(daemon.request("version", new JsonObject(), 5000).get(10, TimeUnit.SECONDS).getAsString().startsWith("v"));
+    Assertions.assertNotSame(crashed, daemon.getProcess());
+    Assertions.assertEquals(1, daemon.getRestartCount());
+  }
+
+  @Test
+  void test_unknownCommand()
+  {
+    CompletableFuture<?> request = daemon.request("unknown", new JsonObject(), 5000);
+    ExecutionException failure = Assertions.assertThrows(ExecutionException.class, () -> request.get(10, TimeUnit.SECONDS));
+    Assertions.assertTrue(failure.getCause() instanceof IOException);
+
+    // a failed request does not affect the daemon
+    Assertions.assertEquals(0, daemon.getRestartCount());
+  }
+
+}
@@ -0,0 +1,60 @@
+package de.adito.aditoweb.nbm.nodejs.impl.process;
+
+import de.adito.aditoweb.nbm.nbide.nbaditointerface.javascript.node.*;
+import org.junit.jupiter.api.*;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.util.Map;
+
+/**
+ * @author agent, 17.10.2026
+ * @see NodeJSLaunchSpec
+ */
+class Test_NodeJSLaunchSpec
+{
+
+  private final File workingDir = new File("target/launchspec");
+  private INodeJSEnvironment env;
+  private INodeJSExecBase base;
+
+  @BeforeEach
+  void setUp()
+  {
+    NodeJSLaunchSpec.invalidateAll();
+
+    env = Mockito.mock(INodeJSEnvironment.class);
+    Mockito.when(env.getPath()).thenReturn(new File("/opt/node/bin/node"));
+    Mockito.when(env.resolveExecBase(Mockito.any())).thenReturn(new File("/opt/node/bin/npm"));
+
+    base = Mockito.mock(INodeJSExecBase.class);
+    Mockito.when(base.getBasePath()).thenReturn("npm");
+    Mockito.when(base.isRelativeToWorkingDir()).thenReturn(false);
+  }
+
+  @Test
+  void test_cached()
+  {
+    NodeJSLaunchSpec spec = NodeJSLaunchSpec.get(env, base, workingDir);
+    Assertions.assertSame(spec, NodeJSLaunchSpec.get(env, base, workingDir));
+    Mockito.verify(env, Mockito.times(1)).resolveExecBase(base);
+
+    NodeJSLaunchSpec.invalidate(env, base, workingDir);
+    Assertions.assertNotSame(spec, NodeJSLaunchSpec.get(env, base, workingDir));
+  }
+
+  @Test
+  void test_createProcessBuilder()
+  {
+    ProcessBuilder builder = NodeJSLaunchSpec.get(env, base, workingDir)
+        .createProcessBuilder(Map.of("NODE_ENV", "test"), "run", "build");
+
+    Assertions.assertEquals(new File("/opt/node/bin/npm").getAbsolutePath(), builder.command().get(0));
+    Assertions.assertEquals("build", builder.command().get(2));
+    Assertions.assertEquals(workingDir, builder.directory());
+    Assertions.assertEquals("test", builder.environment().get("NODE_ENV"));
+    if (System.getenv("PATH") != null)
+      Assertions.assertTrue(builder.environment().get("PATH").startsWith(new File("/opt/node/bin").getPath()));
+  }
+
+}
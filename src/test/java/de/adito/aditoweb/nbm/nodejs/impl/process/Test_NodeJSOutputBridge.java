@@ -0,0 +1,114 @@
+package de.adito.aditoweb.nbm.nodejs.impl.process;
+
+import org.junit.jupiter.api.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author agent, 17.10.2026
+ * @see NodeJSOutputBridge
+ */
+class Test_NodeJSOutputBridge
+{
+
+  private final AtomicInteger writes = new AtomicInteger();
+  private final List<String> written = Collections.synchronizedList(new ArrayList<>());
+  private final StringWriter target = _createTarget("");
+  private final StringWriter errTarget = _createTarget("err:");
+
+  @Test
+  void test_batched() throws IOException
+  {
+    NodeJSOutputBridge bridge = new NodeJSOutputBridge(target, errTarget, 1000, 10000);
+    for (int i = 0; i < 100; i++)
+    {
+      bridge.getOut().write(("line " + i + "\n").getBytes(StandardCharsets.UTF_8));
+      bridge.getOut().flush();
+    }
+    Assertions.assertEquals(0, writes.get());
+
+    bridge.close();
+    Assertions.assertEquals(1, writes.get());
+    Assertions.assertTrue(target.toString().startsWith("line 0\nline 1\n"));
+    Assertions.assertTrue(target.toString().endsWith("line 99\n"));
+  }
+
+  @Test
+  void test_flush() throws IOException
+  {
+    NodeJSOutputBridge bridge = new NodeJSOutputBridge(target, errTarget, 1000, 10000);
+    bridge.getOut().write("line\n".getBytes(StandardCharsets.UTF_8));
+    bridge.getOut().write("prompt> ".getBytes(StandardCharsets.UTF_8));
+
+    bridge.flush();
+    Assertions.assertEquals("line\nprompt> ", target.toString());
+
+    bridge.getOut().write("input\n".getBytes(StandardCharsets.UTF_8));
+    bridge.close();
+    Assertions.assertEquals("line\nprompt> input\n", target.toString());
+  }
+
+  @Test
+  void test_order() throws IOException
+  {
+    NodeJSOutputBridge bridge = new NodeJSOutputBridge(target, errTarget, 1000, 10000);
+    bridge.getOut().write("first\n".getBytes(StandardCharsets.UTF_8));
+    bridge.getErr().write("second\n".getBytes(StandardCharsets.UTF_8));
+    bridge.getOut().write("third\n".getBytes(StandardCharsets.UTF_8));
+    bridge.getOut().write("fourth\n".getBytes(StandardCharsets.UTF_8));
+    bridge.close();
+
+    Assertions.assertEquals(List.of("first\n", "err:second\n", "third\nfourth\n"), written);
+  }
+
+  @Test
+  void test_tail() throws IOException
+  {
+    NodeJSOutputBridge bridge = new NodeJSOutputBridge(target, errTarget, 10, 10000);
+    for (int i = 0; i < 100; i++)
+      bridge.getOut().write(("line " + i + "\n").getBytes(StandardCharsets.UTF_8));
+    bridge.getOut().write("prompt> ".getBytes(StandardCharsets.UTF_8));
+    bridge.close();
+
+    Assertions.assertEquals(90, bridge.getDroppedLines());
+    Assertions.assertTrue(target.toString().startsWith("... 90 lines dropped ...\nline 90\n"));
+    Assertions.assertTrue(target.toString().endsWith("line 99\nprompt> "));
+  }
+
+  @Test
+  void test_splitCharacter() throws Exception
+  {
+    NodeJSOutputBridge bridge = new NodeJSOutputBridge(target, errTarget, 10, 10);
+    byte[] bytes = "\u00e4\u00f6\u00fc".getBytes(StandardCharsets.UTF_8);
+    bridge.getOut().write(bytes, 0, 3);
+    Thread.sleep(200);
+    bridge.getOut().write(bytes, 3, bytes.length - 3);
+    bridge.close();
+
+    Assertions.assertEquals("\u00e4\u00f6\u00fc", target.toString());
+  }
+
+  /**
+   * Creates a target, that records all writes
+   *
+   * @param pPrefix prefix of the recorded writes
+   * @return the target
+   */
+  private StringWriter _createTarget(String pPrefix)
+  {
+    return new StringWriter()
+    {
+      @Override
+      public void write(String pString)
+      {
+        writes.incrementAndGet();
+        written.add(pPrefix + pString);
+        super.write(pString);
+      }
+    };
+  }
+
+}
@@ -0,0 +1,97 @@
+package de.adito.aditoweb.nbm.nodejs.impl.process;
+
+import org.junit.jupiter.api.*;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * @author agent, 17.10.2026
+ * @see NodeJSOutputCapture
+ */
+class Test_NodeJSOutputCapture
+{
+
+  @Test
+  void test_heapOnly() throws Exception
+  {
+    NodeJSOutputCapture capture = new NodeJSOutputCapture(100);
+    capture.write("hello world".getBytes(StandardCharsets.UTF_8));
+
+    try (NodeJSCapturedOutput output = capture.finish(0))
+    {
+      Assertions.assertFalse(capture.isSpilled());
+      Assertions.assertEquals(0, output.getExitCode());
+      Assertions.assertEquals("hello world", output.getContent());
+      Assertions.assertEquals("hello", output.getHead(5));
+      Assertions.assertEquals("world", output.getTail(5));
+    }
+  }
+
+  @Test
+  void test_spillToDisk() throws Exception
+  {
+    NodeJSOutputCapture capture = new NodeJSOutputCapture(10);
+    capture.write("0123456789abcdefghij".getBytes(StandardCharsets.UTF_8));
+    capture.write("KLMNO".getBytes(StandardCharsets.UTF_8));
+
+    File spillFile;
+    try (NodeJSCapturedOutput output = capture.finish(1))
+    {
+      spillFile = capture.getSpillFile();
+      Assertions.assertTrue(capture.isSpilled());
+      Assertions.assertNotNull(spillFile);
+      Assertions.assertEquals(25, output.getSize());
+      Assertions.assertEquals("0123456789abcdefghijKLMNO", output.getContent());
+      Assertions.assertEquals("012345678", output.getHead(9));
+      Assertions.assertEquals("89abcdefghijKLMNO", output.getTail(17));
+      Assertions.assertEquals("jKLMNO", output.getTail(6));
+    }
+
+    Assertions.assertFalse(spillFile.exists());
+  }
+
+  @Test
+  void test_characterBoundaries() throws Exception
+  {
+    NodeJSOutputCapture capture = new NodeJSOutputCapture(4);
+    capture.write("a\u00e4\u20acb".getBytes(StandardCharsets.UTF_8));
+
+    try (NodeJSCapturedOutput output = capture.finish(0))
+    {
+      // 'a' (1 byte), umlaut (2 bytes), euro sign (3 bytes), 'b' (1 byte)
+      Assertions.assertEquals("a", output.getHead(2));
+      Assertions.assertEquals("a\u00e4", output.getHead(4));
+      Assertions.assertEquals("a\u00e4", output.getHead(5));
+      Assertions.assertEquals("b", output.getTail(3));
+      Assertions.assertEquals("\u20acb", output.getTail(4));
+      Assertions.assertEquals("\u20acb", output.getTail(5));
+    }
+  }
+
+  @Test
+  void test_excerpt() throws Exception
+  {
+    NodeJSOutputCapture capture = new NodeJSOutputCapture(4);
+    capture.write("0123456789abcdefghij".getBytes(StandardCharsets.UTF_8));
+
+    try (NodeJSCapturedOutput output = capture.finish(0))
+    {
+      Assertions.assertEquals("0123456789abcdefghij", output.getExcerpt(20));
+      Assertions.assertEquals("01234\n[... 10 bytes omitted ...]\nfghij", output.getExcerpt(10));
+    }
+  }
+
+  @Test
+  void test_dropAfterFinish() throws Exception
+  {
+    NodeJSOutputCapture capture = new NodeJSOutputCapture(10);
+    capture.write("abc".getBytes(StandardCharsets.UTF_8));
+    try (NodeJSCapturedOutput output = capture.finish(0))
+    {
+      capture.write("def".getBytes(StandardCharsets.UTF_8));
+      Assertions.assertEquals("abc", output.getContent());
+    }
+  }
+
+}
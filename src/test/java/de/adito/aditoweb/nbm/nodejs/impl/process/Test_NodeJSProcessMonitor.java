@@ -0,0 +1,108 @@
+package de.adito.aditoweb.nbm.nodejs.impl.process;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.condition.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author agent, 17.10.2026
+ * @see NodeJSProcessMonitor
+ */
+class Test_NodeJSProcessMonitor
+{
+
+  private NodeJSProcessMonitor monitor;
+
+  @BeforeEach
+  void setUp()
+  {
+    monitor = new NodeJSProcessMonitor(2, 20);
+  }
+
+  @AfterEach
+  void tearDown()
+  {
+    monitor.shutdown();
+  }
+
+  @Test
+  @EnabledOnOs({OS.LINUX, OS.MAC})
+  void test_recordFinishedProcess() throws Exception
+  {
+    _run("first", "exit 3");
+
+    List<NodeJSProcessRecord> records = monitor.getRecords("first");
+    Assertions.assertEquals(1, records.size());
+    Assertions.assertEquals(3, records.get(0).getExitCode());
+    Assertions.assertEquals(List.of("-c", "exit 3"), records.get(0).getArguments());
+    Assertions.assertTrue(records.get(0).getWallTime() >= 0);
+    Assertions.assertEquals(0, monitor.getRunningCount());
+  }
+
+  @Test
+  @EnabledOnOs({OS.LINUX, OS.MAC})
+  void test_ringBufferCapacity() throws Exception
+  {
+    _run("first", "exit 0");
+    _run("second", "exit 0");
+    _run("third", "exit 0");
+
+    List<NodeJSProcessRecord> records = monitor.getRecords();
+    Assertions.assertEquals(2, records.size());
+    Assertions.assertEquals("second", records.get(0).getLabel());
+    Assertions.assertEquals("third", records.get(1).getLabel());
+  }
+
+  @Test
+  @EnabledOnOs(OS.LINUX)
+  void test_peakRssOfTree() throws Exception
+  {
+    _run("single", "sleep 0.3");
+
+    // three children, that run at the same time
+    _run("tree", "sleep 0.3 & sleep 0.3 & sleep 0.3 & wait");
+
+    long single = monitor.getRecords("single").get(0).getPeakRss();
+    long tree = monitor.getRecords("tree").get(0).getPeakRss();
+    Assertions.assertTrue(single > 0);
+    Assertions.assertTrue(tree > single, "tree " + tree + " <= single " + single);
+  }
+
+  @Test
+  @EnabledOnOs({OS.LINUX, OS.MAC})
+  void test_monitorAgainReplacesLabel() throws Exception
+  {
+    // an idle process, that gets taken over by a launch
+    Process process = new ProcessBuilder("sh", "-c", "sleep 0.2").start();
+    monitor.monitor(process, "idle", List.of());
+    monitor.monitor(process, "launch", List.of("script.js"));
+    Assertions.assertEquals(1, monitor.getRunningCount());
+    Assertions.assertTrue(process.waitFor(5, TimeUnit.SECONDS));
+
+    long deadline = System.currentTimeMillis() + 5000;
+    while (monitor.getRecords().isEmpty() && System.currentTimeMillis() < deadline)
+      Thread.sleep(10);
+    Assertions.assertEquals(1, monitor.getRecords().size());
+    Assertions.assertEquals(List.of("script.js"), monitor.getRecords("launch").get(0).getArguments());
+  }
+
+  /**
+   * Runs a shell script and waits until it was recorded
+   *
+   * @param pLabel  label of the process
+   * @param pScript script to execute
+   */
+  private void _run(String pLabel, String pScript) throws Exception
+  {
+    Process process = new ProcessBuilder("sh", "-c", pScript).start();
+    monitor.monitor(process, pLabel, List.of("-c", pScript));
+    Assertions.assertTrue(process.waitFor(5, TimeUnit.SECONDS));
+
+    long deadline = System.currentTimeMillis() + 5000;
+    while (monitor.getRecords(pLabel).isEmpty() && System.currentTimeMillis() < deadline)
+      Thread.sleep(10);
+  }
+
+}
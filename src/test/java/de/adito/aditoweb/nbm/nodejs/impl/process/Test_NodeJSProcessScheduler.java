@@ -0,0 +1,251 @@
+package de.adito.aditoweb.nbm.nodejs.impl.process;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.condition.*;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author agent, 17.10.2026
+ * @see NodeJSProcessScheduler
+ */
+class Test_NodeJSProcessScheduler
+{
+
+  private NodeJSProcessScheduler scheduler;
+
+  @BeforeEach
+  void setUp()
+  {
+    scheduler = new NodeJSProcessScheduler(1);
+  }
+
+  @AfterEach
+  void tearDown()
+  {
+    scheduler.shutdown();
+  }
+
+  @Test
+  void test_limitConcurrentProcesses() throws Exception
+  {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    CompletableFuture<Integer> first = scheduler.submit(() -> {
+      started.countDown();
+      _await(release);
+      return 1;
+    });
+    CompletableFuture<Integer> second = scheduler.submit(() -> 2);
+
+    Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+    Assertions.assertEquals(1, scheduler.getActiveProcesses());
+    Assertions.assertEquals(1, scheduler.getQueueDepth());
+    Assertions.assertFalse(second.isDone());
+
+    release.countDown();
+    Assertions.assertEquals(1, first.get(5, TimeUnit.SECONDS));
+    Assertions.assertEquals(2, second.get(5, TimeUnit.SECONDS));
+    Assertions.assertEquals(0, scheduler.getQueueDepth());
+  }
+
+  @Test
+  void test_shutdownCancelsQueued() throws Exception
+  {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    CompletableFuture<Integer> running = scheduler.submit(() -> {
+      started.countDown();
+      _await(release);
+      return 1;
+    });
+    CompletableFuture<Integer> queued = scheduler.submit(() -> 2);
+    Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+    scheduler.shutdown(100);
+    release.countDown();
+
+    // the owner of a running task terminates its process, if the task gets cancelled
+    Assertions.assertTrue(running.isCancelled());
+    Assertions.assertTrue(queued.isCancelled());
+    Assertions.assertTrue(scheduler.submit(() -> 3).isCompletedExceptionally());
+  }
+
+  @Test
+  void test_priorityOrder() throws Exception
+  {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    scheduler.submit(() -> {
+      started.countDown();
+      _await(release);
+      return 0;
+    });
+    Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+    List<ENodeJSProcessPriority> order = new CopyOnWriteArrayList<>();
+    CompletableFuture<Boolean> maintenance = scheduler.submit(ENodeJSProcessPriority.MAINTENANCE, () -> order.add(ENodeJSProcessPriority.MAINTENANCE));
+    CompletableFuture<Boolean> background = scheduler.submit(ENodeJSProcessPriority.BACKGROUND, () -> order.add(ENodeJSProcessPriority.BACKGROUND));
+    CompletableFuture<Boolean> user = scheduler.submit(ENodeJSProcessPriority.USER, () -> order.add(ENodeJSProcessPriority.USER));
+
+    release.countDown();
+    CompletableFuture.allOf(maintenance, background, user).get(5, TimeUnit.SECONDS);
+    Assertions.assertEquals(List.of(ENodeJSProcessPriority.USER, ENodeJSProcessPriority.BACKGROUND, ENodeJSProcessPriority.MAINTENANCE), order);
+  }
+
+  @Test
+  void test_interactiveNotQueued() throws Exception
+  {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    scheduler.submit(() -> {
+      started.countDown();
+      _await(release);
+      return 1;
+    });
+    Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+    // the only slot is occupied, but the editor must not wait for it
+    Assertions.assertEquals(2, scheduler.submit(ENodeJSProcessPriority.INTERACTIVE, () -> 2).get(5, TimeUnit.SECONDS));
+    Assertions.assertEquals(0, scheduler.getQueueDepth());
+    Assertions.assertEquals(1, scheduler.getUsedSlots());
+    release.countDown();
+  }
+
+  @Test
+  void test_longRunningReleasesSlot() throws Exception
+  {
+    NodeJSProcessScheduler shortSlots = new NodeJSProcessScheduler(1, Integer.MAX_VALUE, 100);
+    CountDownLatch release = new CountDownLatch(1);
+    try
+    {
+      CompletableFuture<Integer> longRunning = shortSlots.submit(() -> {
+        _await(release);
+        return 1;
+      });
+
+      // the second process must not wait until the first one has finished
+      Assertions.assertEquals(2, shortSlots.submit(() -> 2).get(5, TimeUnit.SECONDS));
+      Assertions.assertFalse(longRunning.isDone());
+      Assertions.assertEquals(1, shortSlots.getActiveProcesses());
+      Assertions.assertEquals(0, shortSlots.getUsedSlots());
+
+      release.countDown();
+      Assertions.assertEquals(1, longRunning.get(5, TimeUnit.SECONDS));
+    }
+    finally
+    {
+      release.countDown();
+      shortSlots.shutdown();
+    }
+  }
+
+  @Test
+  void test_hardCap() throws Exception
+  {
+    NodeJSProcessScheduler capped = new NodeJSProcessScheduler(1, 2, 100);
+    CountDownLatch release = new CountDownLatch(1);
+    try
+    {
+      CompletableFuture<Integer> first = capped.submit(() -> {
+        _await(release);
+        return 1;
+      });
+      CompletableFuture<Integer> second = capped.submit(ENodeJSProcessPriority.INTERACTIVE, () -> {
+        _await(release);
+        return 2;
+      });
+
+      // neither long running nor interactive processes may exceed the hard cap
+      CompletableFuture<Integer> third = capped.submit(ENodeJSProcessPriority.INTERACTIVE, () -> 3);
+      Thread.sleep(300);
+      Assertions.assertEquals(0, capped.getUsedSlots());
+      Assertions.assertEquals(1, capped.getQueueDepth());
+      Assertions.assertFalse(third.isDone());
+
+      release.countDown();
+      Assertions.assertEquals(1, first.get(5, TimeUnit.SECONDS));
+      Assertions.assertEquals(2, second.get(5, TimeUnit.SECONDS));
+      Assertions.assertEquals(3, third.get(5, TimeUnit.SECONDS));
+    }
+    finally
+    {
+      release.countDown();
+      capped.shutdown();
+    }
+  }
+
+  @Test
+  @EnabledOnOs({OS.LINUX, OS.MAC})
+  void test_spawnCountsUntilExit() throws Exception
+  {
+    Process process = scheduler.spawn(ENodeJSProcessPriority.USER, () -> _startSleep(30), null).get(5, TimeUnit.SECONDS);
+
+    // the process is still running, so the next one has to wait
+    CompletableFuture<Integer> queued = scheduler.submit(() -> 2);
+    Assertions.assertEquals(1, scheduler.getActiveProcesses());
+    Assertions.assertEquals(1, scheduler.getQueueDepth());
+
+    process.destroyForcibly();
+    Assertions.assertEquals(2, queued.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  @EnabledOnOs({OS.LINUX, OS.MAC})
+  void test_shutdownTerminatesSpawned() throws Exception
+  {
+    Process process = scheduler.spawn(ENodeJSProcessPriority.USER, () -> _startSleep(30), null).get(5, TimeUnit.SECONDS);
+
+    scheduler.shutdown();
+    Assertions.assertFalse(process.isAlive());
+    Assertions.assertEquals(0, scheduler.getActiveProcesses());
+  }
+
+  @Test
+  void test_reportQueued() throws Exception
+  {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger reported = new AtomicInteger(-1);
+    scheduler.submit(ENodeJSProcessPriority.USER, () -> {
+      started.countDown();
+      _await(release);
+      return 1;
+    }, reported::set);
+    Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+    Assertions.assertEquals(-1, reported.get());
+
+    CompletableFuture<Integer> queued = scheduler.submit(ENodeJSProcessPriority.USER, () -> 2, reported::set);
+    Assertions.assertEquals(1, reported.get());
+
+    release.countDown();
+    Assertions.assertEquals(2, queued.get(5, TimeUnit.SECONDS));
+  }
+
+  private static Process _startSleep(int pSeconds)
+  {
+    try
+    {
+      return new ProcessBuilder("sleep", String.valueOf(pSeconds)).start();
+    }
+    catch (Exception e)
+    {
+      throw new CompletionException(e);
+    }
+  }
+
+  private static void _await(CountDownLatch pLatch)
+  {
+    try
+    {
+      pLatch.await(5, TimeUnit.SECONDS);
+    }
+    catch (InterruptedException e)
+    {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+}
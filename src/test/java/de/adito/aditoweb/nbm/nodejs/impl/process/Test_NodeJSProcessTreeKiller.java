@@ -0,0 +1,56 @@
+package de.adito.aditoweb.nbm.nodejs.impl.process;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.condition.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * @author agent, 17.10.2026
+ * @see NodeJSProcessTreeKiller
+ */
+class Test_NodeJSProcessTreeKiller
+{
+
+  @Test
+  @EnabledOnOs({OS.LINUX, OS.MAC})
+  void test_terminateDescendants() throws Exception
+  {
+    Process root = new ProcessBuilder("sh", "-c", "sleep 60 & sleep 60 & wait").start();
+
+    // wait until both children were started
+    long deadline = System.currentTimeMillis() + 5000;
+    while (root.descendants().count() < 2 && System.currentTimeMillis() < deadline)
+      Thread.sleep(20);
+    List<ProcessHandle> children = root.descendants().collect(Collectors.toList());
+    Assertions.assertEquals(2, children.size());
+
+    Assertions.assertEquals(3, NodeJSProcessTreeKiller.terminateAsync(root).get(10, TimeUnit.SECONDS));
+    Assertions.assertTrue(root.waitFor(5, TimeUnit.SECONDS));
+    for (ProcessHandle child : children)
+      Assertions.assertFalse(child.isAlive());
+  }
+
+  @Test
+  @EnabledOnOs({OS.LINUX, OS.MAC})
+  void test_terminateForcibly() throws Exception
+  {
+    // ignored signals are inherited, so the whole tree ignores the graceful termination
+    Process root = new ProcessBuilder("sh", "-c", "trap '' TERM; sleep 60 & wait").start();
+
+    long deadline = System.currentTimeMillis() + 5000;
+    while (root.descendants().count() < 1 && System.currentTimeMillis() < deadline)
+      Thread.sleep(20);
+    List<ProcessHandle> children = root.descendants().collect(Collectors.toList());
+    Assertions.assertEquals(1, children.size());
+
+    // the tree has to be gone, as soon as the termination returns
+    Assertions.assertEquals(2, NodeJSProcessTreeKiller.terminate(root.toHandle(), 200));
+    Assertions.assertFalse(root.toHandle().isAlive());
+    for (ProcessHandle child : children)
+      Assertions.assertFalse(child.isAlive());
+  }
+
+}
@@ -0,0 +1,152 @@
+package de.adito.aditoweb.nbm.nodejs.impl.process;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.condition.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * @author agent, 17.10.2026
+ * @see NodeJSStreamPumpEngine
+ */
+class Test_NodeJSStreamPumpEngine
+{
+
+  private NodeJSStreamPumpEngine engine;
+
+  @BeforeEach
+  void setUp()
+  {
+    engine = new NodeJSStreamPumpEngine(1);
+  }
+
+  @AfterEach
+  void tearDown()
+  {
+    engine.shutdown();
+  }
+
+  @Test
+  @EnabledOnOs({OS.LINUX, OS.MAC})
+  void test_pumpOutputAndError() throws Exception
+  {
+    Process process = new ProcessBuilder("sh", "-c", "printf out; sleep 0.2; printf error >&2").start();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+    CompletableFuture<Long> outPump = engine.pumpOutput(process, process.getInputStream(), out);
+    CompletableFuture<Long> errPump = engine.pumpOutput(process, process.getErrorStream(), err);
+
+    Assertions.assertEquals(3, outPump.get(5, TimeUnit.SECONDS));
+    Assertions.assertEquals(5, errPump.get(5, TimeUnit.SECONDS));
+    Assertions.assertEquals("out", out.toString(StandardCharsets.UTF_8));
+    Assertions.assertEquals("error", err.toString(StandardCharsets.UTF_8));
+    Assertions.assertEquals(0, engine.getActivePumps());
+  }
+
+  @Test
+  @EnabledOnOs({OS.LINUX, OS.MAC})
+  void test_manyProcessesOnSingleThread() throws Exception
+  {
+    List<CompletableFuture<Long>> pumps = new ArrayList<>();
+    List<ByteArrayOutputStream> outputs = new ArrayList<>();
+    for (int i = 0; i < 10; i++)
+    {
+      Process process = new ProcessBuilder("sh", "-c", "sleep 0.1; seq 1 1000").redirectErrorStream(true).start();
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      outputs.add(out);
+      pumps.add(engine.pumpOutput(process, process.getInputStream(), out));
+    }
+
+    CompletableFuture.allOf(pumps.toArray(new CompletableFuture<?>[0])).get(10, TimeUnit.SECONDS);
+    for (ByteArrayOutputStream output : outputs)
+      Assertions.assertTrue(output.toString(StandardCharsets.UTF_8).endsWith("999\n1000\n"));
+  }
+
+  @Test
+  @EnabledOnOs({OS.LINUX, OS.MAC})
+  void test_outputOfDescendantsAfterExit() throws Exception
+  {
+    // the shell exits, while its child still holds the stream open
+    Process process = new ProcessBuilder("sh", "-c", "(seq 1 20000; sleep 0.5) & sleep 0.1").start();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    CompletableFuture<Long> pump = engine.pumpOutput(process, process.getInputStream(), out);
+
+    Assertions.assertTrue(pump.get(5, TimeUnit.SECONDS) > 0);
+    Assertions.assertTrue(out.toString(StandardCharsets.UTF_8).endsWith("19999\n20000\n"));
+  }
+
+  @Test
+  @EnabledOnOs({OS.LINUX, OS.MAC})
+  void test_idleStreamsWithBoundedPools() throws Exception
+  {
+    NodeJSStreamPumpEngine bounded = new NodeJSStreamPumpEngine(1, 1);
+    try
+    {
+      // the streams are idle longer than the maximum poll interval and share a single blocking reader
+      List<CompletableFuture<Long>> pumps = new ArrayList<>();
+      List<ByteArrayOutputStream> outputs = new ArrayList<>();
+      for (int i = 0; i < 5; i++)
+      {
+        Process process = new ProcessBuilder("sh", "-c", "sleep 0.5; printf late").start();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        outputs.add(out);
+        pumps.add(bounded.pumpOutput(process, process.getInputStream(), out));
+      }
+
+      CompletableFuture.allOf(pumps.toArray(new CompletableFuture<?>[0])).get(10, TimeUnit.SECONDS);
+      for (ByteArrayOutputStream output : outputs)
+        Assertions.assertEquals("late", output.toString(StandardCharsets.UTF_8));
+    }
+    finally
+    {
+      bounded.shutdown();
+    }
+  }
+
+  @Test
+  @EnabledOnOs({OS.LINUX, OS.MAC})
+  void test_slowTargetDoesNotBlockOthers() throws Exception
+  {
+    CountDownLatch release = new CountDownLatch(1);
+    OutputStream blocked = new OutputStream()
+    {
+      @Override
+      public void write(int pByte) throws IOException
+      {
+        write(new byte[]{(byte) pByte}, 0, 1);
+      }
+
+      @Override
+      public void write(byte[] pBytes, int pOffset, int pLength) throws IOException
+      {
+        try
+        {
+          release.await(10, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e)
+        {
+          throw new InterruptedIOException();
+        }
+      }
+    };
+
+    Process slowProcess = new ProcessBuilder("sh", "-c", "seq 1 1000").start();
+    CompletableFuture<Long> slowPump = engine.pumpOutput(slowProcess, slowProcess.getInputStream(), blocked);
+    Process fastProcess = new ProcessBuilder("sh", "-c", "sleep 0.2; printf fast").start();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    // both streams are polled by the same thread, the blocked target must not stall the other stream
+    Assertions.assertEquals(4, engine.pumpOutput(fastProcess, fastProcess.getInputStream(), out).get(5, TimeUnit.SECONDS));
+    Assertions.assertEquals("fast", out.toString(StandardCharsets.UTF_8));
+    Assertions.assertFalse(slowPump.isDone());
+
+    release.countDown();
+    Assertions.assertTrue(slowPump.get(5, TimeUnit.SECONDS) > 0);
+  }
+
+}
@@ -0,0 +1,73 @@
+package de.adito.aditoweb.nbm.nodejs.impl.runconfig;
+
+import de.adito.aditoweb.nbm.nbide.nbaditointerface.javascript.node.INodeJSEnvironment;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.condition.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.List;
+
+/**
+ * @author agent, 17.10.2026
+ * @see NodeJSFastScriptLauncher
+ */
+class Test_NodeJSFastScriptLauncher
+{
+
+  @TempDir
+  File projectDir;
+  private final INodeJSEnvironment env = Mockito.mock(INodeJSEnvironment.class);
+
+  @Test
+  @EnabledOnOs({OS.LINUX, OS.MAC})
+  void test_create_withHooks() throws IOException
+  {
+    Path script = _writeBinary("typescript/bin/tsc");
+    _writePackageJson("{ scripts: { prebuild: \"node clean.js --all\", build: \"tsc -p 'tsconfig build.json'\", postbuild: \"node done.js\" } }");
+
+    NodeJSFastScriptLauncher launcher = NodeJSFastScriptLauncher.create(env, projectDir, "build");
+    Assertions.assertNotNull(launcher);
+    Assertions.assertEquals(List.of(List.of("clean.js", "--all"),
+                                    List.of(script.toRealPath().toString(), "-p", "tsconfig build.json"),
+                                    List.of("done.js")), launcher.getCommands());
+  }
+
+  @Test
+  @EnabledOnOs({OS.LINUX, OS.MAC})
+  void test_create_fallback() throws IOException
+  {
+    _writeBinary("typescript/bin/tsc");
+    _writePackageJson("{ scripts: { build: \"tsc && node done.js\", watch: \"NODE_ENV=dev tsc -w\", lint: \"eslint .\", " +
+                          "test: \"tsc\", pretest: \"rimraf dist/*\" } }");
+
+    Assertions.assertNull(NodeJSFastScriptLauncher.create(env, projectDir, "build"));
+    Assertions.assertNull(NodeJSFastScriptLauncher.create(env, projectDir, "watch"));
+    Assertions.assertNull(NodeJSFastScriptLauncher.create(env, projectDir, "lint"));
+    Assertions.assertNull(NodeJSFastScriptLauncher.create(env, projectDir, "test"));
+    Assertions.assertNull(NodeJSFastScriptLauncher.create(env, projectDir, "missing"));
+  }
+
+  /**
+   * Creates a node script in node_modules and links it into node_modules/.bin, like npm does
+   */
+  private Path _writeBinary(String pModulePath) throws IOException
+  {
+    Path script = projectDir.toPath().resolve("node_modules").resolve(pModulePath);
+    Files.createDirectories(script.getParent());
+    Files.write(script, "#!/usr/bin/env node\n".getBytes(StandardCharsets.UTF_8));
+    Path bin = projectDir.toPath().resolve("node_modules/.bin");
+    Files.createDirectories(bin);
+    Files.createSymbolicLink(bin.resolve(script.getFileName()), bin.relativize(script));
+    return script;
+  }
+
+  private void _writePackageJson(String pContent) throws IOException
+  {
+    Files.write(projectDir.toPath().resolve("package.json"), pContent.getBytes(StandardCharsets.UTF_8));
+  }
+
+}
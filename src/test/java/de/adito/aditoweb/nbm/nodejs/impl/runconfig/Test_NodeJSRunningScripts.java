@@ -0,0 +1,162 @@
+package de.adito.aditoweb.nbm.nodejs.impl.runconfig;
+
+import de.adito.aditoweb.nbm.nodejs.impl.process.NodeJSProcessFuture;
+import org.junit.jupiter.api.*;
+import org.mockito.Mockito;
+import org.netbeans.api.project.Project;
+import org.openide.filesystems.FileObject;
+import org.openide.windows.InputOutput;
+
+import javax.swing.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * @author agent, 17.10.2026
+ * @see NodeJSRunningScripts
+ */
+class Test_NodeJSRunningScripts
+{
+
+  private final List<String> key = List.of("/project", "type", "script");
+  private final List<Action[]> tabActions = new ArrayList<>();
+  private final List<InputOutput> tabIOs = new ArrayList<>();
+  private final List<NodeJSProcessFuture> started = new CopyOnWriteArrayList<>();
+  private NodeJSRunningScripts runningScripts;
+
+  @BeforeEach
+  void setUp()
+  {
+    runningScripts = new NodeJSRunningScripts((pTitle, pActions) -> {
+      tabActions.add(pActions);
+      InputOutput io = Mockito.mock(InputOutput.class);
+      tabIOs.add(io);
+      return io;
+    });
+  }
+
+  @Test
+  void test_createKey()
+  {
+    FileObject projectDir = Mockito.mock(FileObject.class);
+    Mockito.when(projectDir.getPath()).thenReturn("/project");
+    Project project = Mockito.mock(Project.class);
+    Mockito.when(project.getProjectDirectory()).thenReturn(projectDir);
+
+    Assertions.assertEquals(NodeJSRunningScripts.createKey(project, NodeJSScriptRunConfig.class, "build"),
+                            NodeJSRunningScripts.createKey(project, NodeJSScriptRunConfig.class, "build"));
+    Assertions.assertNotEquals(NodeJSRunningScripts.createKey(project, NodeJSScriptRunConfig.class, "build"),
+                               NodeJSRunningScripts.createKey(project, NodeJSScriptWatchRunConfig.class, "build"));
+  }
+
+  @Test
+  void test_start_reuseIdleTab()
+  {
+    runningScripts.start(key, "script", this::_start).complete(0);
+    runningScripts.start(key, "script", this::_start);
+    Assertions.assertEquals(1, tabActions.size());
+
+    // the tab is still in use, so a second instance needs its own tab
+    runningScripts.start(key, "script", this::_start);
+    Assertions.assertEquals(2, tabActions.size());
+  }
+
+  @Test
+  void test_stop()
+  {
+    runningScripts.start(key, "script", this::_start);
+    runningScripts.start(key, "script", this::_start);
+    Assertions.assertTrue(runningScripts.isRunning(key));
+
+    CompletableFuture<Void> termination = runningScripts.stop(key);
+    Assertions.assertTrue(started.stream().allMatch(CompletableFuture::isCancelled));
+
+    // the process trees are still alive
+    Assertions.assertTrue(runningScripts.isRunning(key));
+    Assertions.assertFalse(termination.isDone());
+
+    started.forEach(NodeJSProcessFuture::terminated);
+    Assertions.assertTrue(termination.isDone());
+    Assertions.assertFalse(runningScripts.isRunning(key));
+  }
+
+  @Test
+  void test_stopAll()
+  {
+    runningScripts.start(key, "script", this::_start);
+    runningScripts.start(List.of("/project", "type", "other"), "other", this::_start);
+
+    // the shutdown waits, until all process trees have exited
+    CompletableFuture<Void> termination = runningScripts.stopAll();
+    started.get(0).terminated();
+    Assertions.assertFalse(termination.isDone());
+    started.get(1).terminated();
+    Assertions.assertTrue(termination.isDone());
+  }
+
+  @Test
+  void test_stopAction()
+  {
+    NodeJSProcessFuture run = (NodeJSProcessFuture) runningScripts.start(key, "script", this::_start);
+    tabActions.get(0)[0].actionPerformed(null);
+    Assertions.assertTrue(run.isCancelled());
+
+    run.terminated();
+    Assertions.assertFalse(runningScripts.isRunning(key));
+  }
+
+  @Test
+  void test_restartAction() throws Exception
+  {
+    NodeJSProcessFuture run = (NodeJSProcessFuture) runningScripts.start(key, "script", this::_start);
+    tabActions.get(0)[1].actionPerformed(null);
+
+    long timeout = System.currentTimeMillis() + 5000;
+    while (!run.isCancelled() && System.currentTimeMillis() < timeout)
+      Thread.sleep(10);
+    Assertions.assertTrue(run.isCancelled());
+
+    // the next run must not start, before the process tree of the previous one has exited
+    Assertions.assertEquals(1, started.size());
+    runningScripts.start(key, "script", this::_start);
+    Assertions.assertEquals(2, tabActions.size());
+
+    run.terminated();
+    Assertions.assertEquals(3, started.size());
+    Assertions.assertTrue(runningScripts.isRunning(key));
+    Assertions.assertEquals(2, tabActions.size());
+  }
+
+  @Test
+  void test_evictClosedTabs()
+  {
+    List<String> otherKey = List.of("/project", "type", "other");
+    runningScripts.start(key, "script", this::_start).complete(0);
+    Assertions.assertEquals(1, runningScripts.getConfigCount());
+
+    // closed by the user, after the run has finished
+    Mockito.when(tabIOs.get(0).isClosed()).thenReturn(true);
+    runningScripts.start(otherKey, "other", this::_start);
+    Assertions.assertEquals(1, runningScripts.getConfigCount());
+    Assertions.assertFalse(runningScripts.isRunning(key));
+
+    // closed by the user, while the run is still active
+    Mockito.when(tabIOs.get(1).isClosed()).thenReturn(true);
+    Assertions.assertEquals(1, runningScripts.getConfigCount());
+    started.get(1).complete(0);
+    Assertions.assertEquals(0, runningScripts.getConfigCount());
+  }
+
+  private CompletableFuture<Integer> _start(InputOutput pIO)
+  {
+    NodeJSProcessFuture future = new NodeJSProcessFuture();
+    future.whenComplete((pExitCode, pEx) -> {
+      // regularly finished runs are terminated immediately, cancelled ones are terminated by the test
+      if (!future.isCancelled())
+        future.terminated();
+    });
+    started.add(future);
+    return future;
+  }
+
+}
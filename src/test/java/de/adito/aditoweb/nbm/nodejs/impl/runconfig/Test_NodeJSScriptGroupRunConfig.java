@@ -0,0 +1,101 @@
+package de.adito.aditoweb.nbm.nodejs.impl.runconfig;
+
+import de.adito.aditoweb.nbm.nodejs.impl.process.NodeJSProcessFuture;
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * @author agent, 17.10.2026
+ * @see NodeJSScriptGroupRunConfig
+ */
+class Test_NodeJSScriptGroupRunConfig
+{
+
+  private final Map<String, CompletableFuture<Integer>> started = new LinkedHashMap<>();
+
+  @Test
+  void test_execute_order() throws Exception
+  {
+    Map<String, List<String>> scripts = new LinkedHashMap<>();
+    scripts.put("build", List.of("typecheck"));
+    scripts.put("lint", List.of());
+    scripts.put("typecheck", List.of());
+    scripts.put("test", List.of("build"));
+
+    CompletableFuture<Integer> result = NodeJSScriptGroupRunConfig.execute(scripts, 2, this::_start);
+    Assertions.assertEquals(List.of("lint", "typecheck"), new ArrayList<>(started.keySet()));
+
+    started.get("typecheck").complete(0);
+    Assertions.assertEquals(List.of("lint", "typecheck", "build"), new ArrayList<>(started.keySet()));
+    started.get("build").complete(0);
+    Assertions.assertEquals(List.of("lint", "typecheck", "build", "test"), new ArrayList<>(started.keySet()));
+
+    started.get("lint").complete(0);
+    Assertions.assertFalse(result.isDone());
+    started.get("test").complete(0);
+    Assertions.assertEquals(0, result.get(1, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void test_execute_parallelism()
+  {
+    NodeJSScriptGroupRunConfig.execute(Map.of("a", List.of(), "b", List.of(), "c", List.of()), 2, this::_start);
+    Assertions.assertEquals(2, started.size());
+
+    started.values().iterator().next().complete(0);
+    Assertions.assertEquals(3, started.size());
+  }
+
+  @Test
+  void test_execute_failFast() throws Exception
+  {
+    CompletableFuture<Integer> result = NodeJSScriptGroupRunConfig.execute(Map.of("lint", List.of(), "typecheck", List.of(),
+                                                                                  "build", List.of("typecheck")), 4, this::_start);
+    started.get("lint").complete(2);
+
+    Assertions.assertEquals(2, result.get(1, TimeUnit.SECONDS));
+    Assertions.assertTrue(started.get("typecheck").isCancelled());
+    Assertions.assertFalse(started.containsKey("build"));
+  }
+
+  @Test
+  void test_execute_termination()
+  {
+    NodeJSProcessFuture result = NodeJSScriptGroupRunConfig.execute(Map.of("lint", List.of(), "typecheck", List.of()), 2, this::_startProcess);
+    result.cancel(true);
+    Assertions.assertTrue(started.values().stream().allMatch(CompletableFuture::isCancelled));
+
+    // the group is terminated, if all scripts have exited
+    ((NodeJSProcessFuture) started.get("lint")).terminated();
+    Assertions.assertFalse(result.getTermination().isDone());
+    ((NodeJSProcessFuture) started.get("typecheck")).terminated();
+    Assertions.assertTrue(result.getTermination().isDone());
+  }
+
+  @Test
+  void test_execute_invalid()
+  {
+    Assertions.assertThrows(ExecutionException.class, () -> NodeJSScriptGroupRunConfig
+        .execute(Map.of("a", List.of("b"), "b", List.of("a")), 1, this::_start).get(1, TimeUnit.SECONDS));
+    Assertions.assertThrows(ExecutionException.class, () -> NodeJSScriptGroupRunConfig
+        .execute(Map.of("a", List.of("missing")), 1, this::_start).get(1, TimeUnit.SECONDS));
+    Assertions.assertTrue(started.isEmpty());
+  }
+
+  private CompletableFuture<Integer> _start(String pScript)
+  {
+    CompletableFuture<Integer> future = new CompletableFuture<>();
+    started.put(pScript, future);
+    return future;
+  }
+
+  private CompletableFuture<Integer> _startProcess(String pScript)
+  {
+    NodeJSProcessFuture future = new NodeJSProcessFuture();
+    started.put(pScript, future);
+    return future;
+  }
+
+}
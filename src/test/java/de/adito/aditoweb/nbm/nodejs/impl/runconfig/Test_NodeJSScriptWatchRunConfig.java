@@ -0,0 +1,121 @@
+package de.adito.aditoweb.nbm.nodejs.impl.runconfig;
+
+import de.adito.aditoweb.nbm.nodejs.impl.process.NodeJSProcessFuture;
+import io.reactivex.rxjava3.subjects.PublishSubject;
+import org.junit.jupiter.api.*;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * @author agent, 17.10.2026
+ * @see NodeJSScriptWatchRunConfig
+ */
+class Test_NodeJSScriptWatchRunConfig
+{
+
+  private final PublishSubject<File> changes = PublishSubject.create();
+  private final List<NodeJSProcessFuture> started = new CopyOnWriteArrayList<>();
+  private final List<Optional<File>> triggers = new CopyOnWriteArrayList<>();
+  private final List<Integer> finished = new CopyOnWriteArrayList<>();
+  private NodeJSProcessFuture watching;
+
+  @BeforeEach
+  void setUp()
+  {
+    watching = NodeJSScriptWatchRunConfig.watch(changes, pChanged -> {
+      triggers.add(pChanged);
+      NodeJSProcessFuture future = new NodeJSProcessFuture();
+      future.whenComplete((pExitCode, pEx) -> {
+        // regularly finished runs are terminated immediately, cancelled ones are terminated by the test
+        if (!future.isCancelled())
+          future.terminated();
+      });
+      started.add(future);
+      return future;
+    }, finished::add);
+  }
+
+  @AfterEach
+  void tearDown()
+  {
+    watching.cancel(true);
+  }
+
+  @Test
+  void test_runOnSubscribe()
+  {
+    Assertions.assertEquals(1, started.size());
+    Assertions.assertEquals(Optional.empty(), triggers.get(0));
+
+    started.get(0).complete(0);
+    Assertions.assertEquals(List.of(0), finished);
+  }
+
+  @Test
+  void test_nextRunAfterTermination()
+  {
+    File changed = new File("index.js");
+    changes.onNext(changed);
+
+    // the first run has been cancelled, but its process tree is still alive
+    Assertions.assertTrue(started.get(0).isCancelled());
+    Assertions.assertEquals(1, started.size());
+
+    started.get(0).terminated();
+    Assertions.assertEquals(2, started.size());
+    Assertions.assertEquals(Optional.of(changed), triggers.get(1));
+
+    started.get(1).complete(0);
+    Assertions.assertEquals(List.of(0), finished);
+  }
+
+  @Test
+  void test_changesWhileTerminating()
+  {
+    File changed = new File("index.js");
+    changes.onNext(new File("other.js"));
+    changes.onNext(changed);
+
+    // only the latest change starts a run, after the first one has exited
+    started.get(0).terminated();
+    Assertions.assertEquals(2, started.size());
+    Assertions.assertEquals(Optional.of(changed), triggers.get(1));
+  }
+
+  @Test
+  void test_finishedRunDoesNotDelay()
+  {
+    started.get(0).complete(1);
+    changes.onNext(new File("index.js"));
+
+    Assertions.assertEquals(2, started.size());
+    Assertions.assertEquals(List.of(1), finished);
+  }
+
+  @Test
+  void test_terminationAfterCancel()
+  {
+    watching.cancel(true);
+    Assertions.assertTrue(started.get(0).isCancelled());
+
+    // the watch is terminated, if the process tree of the current run has exited
+    Assertions.assertFalse(watching.getTermination().isDone());
+    started.get(0).terminated();
+    Assertions.assertTrue(watching.getTermination().isDone());
+  }
+
+  @Test
+  void test_terminationWhileWaiting()
+  {
+    changes.onNext(new File("index.js"));
+    watching.cancel(true);
+
+    // the next run was still waiting, so the watch is terminated with the previous one
+    started.get(0).terminated();
+    Assertions.assertEquals(1, started.size());
+    Assertions.assertTrue(watching.getTermination().isDone());
+  }
+
+}
@@ -0,0 +1,72 @@
+package de.adito.aditoweb.nbm.nodejs.impl.version;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author agent, 17.10.2026
+ * @see NodeJSEnvironmentProbeCache
+ */
+class Test_NodeJSEnvironmentProbeCache
+{
+
+  @TempDir
+  File tempDir;
+  private File binary;
+  private AtomicInteger probes;
+
+  @BeforeEach
+  void setUp() throws IOException
+  {
+    binary = new File(tempDir, "node");
+    Files.write(binary.toPath(), new byte[]{1, 2, 3});
+    probes = new AtomicInteger();
+  }
+
+  @Test
+  void test_cachedUntilBinaryChanges() throws IOException
+  {
+    NodeJSEnvironmentProbeCache cache = new NodeJSEnvironmentProbeCache(pBinary -> "v" + probes.incrementAndGet());
+    Assertions.assertEquals("v1", cache.get(binary).getVersion());
+    Assertions.assertEquals("v1", cache.get(binary).getVersion());
+    Assertions.assertEquals(1, probes.get());
+
+    // change binary on disk
+    Files.write(binary.toPath(), new byte[]{1, 2, 3, 4});
+    Assertions.assertNull(cache.getIfPresent(binary));
+    Assertions.assertEquals("v2", cache.get(binary).getVersion());
+    Assertions.assertEquals(2, probes.get());
+  }
+
+  @Test
+  void test_invalidResults()
+  {
+    NodeJSEnvironmentProbeCache cache = new NodeJSEnvironmentProbeCache(pBinary -> {
+      probes.incrementAndGet();
+      return "";
+    });
+    Assertions.assertFalse(cache.get(binary).isValid());
+    Assertions.assertFalse(cache.get(binary).isValid());
+    Assertions.assertEquals(1, probes.get());
+    Assertions.assertFalse(cache.get(new File(tempDir, "missing")).isValid());
+    Assertions.assertEquals(1, probes.get());
+  }
+
+  @Test
+  void test_timeoutNotCached()
+  {
+    NodeJSEnvironmentProbeCache cache = new NodeJSEnvironmentProbeCache(pBinary -> {
+      probes.incrementAndGet();
+      throw new TimeoutException();
+    });
+    Assertions.assertFalse(cache.get(binary).isValid());
+    Assertions.assertFalse(cache.get(binary).isValid());
+    Assertions.assertEquals(2, probes.get());
+  }
+
+}
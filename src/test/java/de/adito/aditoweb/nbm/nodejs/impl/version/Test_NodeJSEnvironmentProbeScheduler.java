@@ -0,0 +1,68 @@
+package de.adito.aditoweb.nbm.nodejs.impl.version;
+
+import org.junit.jupiter.api.*;
+
+import java.io.File;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author agent, 17.10.2026
+ * @see NodeJSEnvironmentProbeScheduler
+ */
+class Test_NodeJSEnvironmentProbeScheduler
+{
+
+  private final AtomicInteger probes = new AtomicInteger();
+  private final CountDownLatch started = new CountDownLatch(1);
+  private final CountDownLatch release = new CountDownLatch(1);
+  private final CountDownLatch interrupted = new CountDownLatch(1);
+  private NodeJSEnvironmentProbeScheduler<Integer> scheduler;
+
+  @BeforeEach
+  void setUp()
+  {
+    scheduler = new NodeJSEnvironmentProbeScheduler<>(2, pBinary -> {
+      probes.incrementAndGet();
+      started.countDown();
+      try
+      {
+        release.await(5, TimeUnit.SECONDS);
+      }
+      catch (InterruptedException e)
+      {
+        interrupted.countDown();
+      }
+      return probes.get();
+    });
+  }
+
+  @Test
+  void test_mergeConcurrentProbes() throws Exception
+  {
+    CompletableFuture<Integer> first = scheduler.probe(new File("node"));
+    CompletableFuture<Integer> second = scheduler.probe(new File("node"));
+    release.countDown();
+
+    Assertions.assertEquals(1, first.get(5, TimeUnit.SECONDS));
+    Assertions.assertEquals(1, second.get(5, TimeUnit.SECONDS));
+    Assertions.assertEquals(1, probes.get());
+  }
+
+  @Test
+  void test_cancelWhenUnused() throws Exception
+  {
+    CompletableFuture<Integer> first = scheduler.probe(new File("node"));
+    CompletableFuture<Integer> second = scheduler.probe(new File("node"));
+    Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+    // one remaining request keeps the probe alive
+    first.cancel(true);
+    Assertions.assertEquals(1, scheduler.getRunningProbes());
+
+    second.cancel(true);
+    Assertions.assertEquals(0, scheduler.getRunningProbes());
+    Assertions.assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+  }
+
+}
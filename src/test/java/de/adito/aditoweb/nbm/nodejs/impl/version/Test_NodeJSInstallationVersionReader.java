@@ -0,0 +1,73 @@
+package de.adito.aditoweb.nbm.nodejs.impl.version;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * @author agent, 17.10.2026
+ * @see NodeJSInstallationVersionReader
+ */
+class Test_NodeJSInstallationVersionReader
+{
+
+  @TempDir
+  File tempDir;
+  private NodeJSInstallationVersionReader reader;
+
+  @BeforeEach
+  void setUp()
+  {
+    reader = new NodeJSInstallationVersionReader();
+  }
+
+  @Test
+  void test_readVersionFromHeader() throws IOException
+  {
+    _writeHeader(tempDir, "1");
+    Assertions.assertEquals("v16.1.0", reader.readVersionFromHeader(tempDir));
+  }
+
+  @Test
+  void test_readVersionFromHeader_preRelease() throws IOException
+  {
+    _writeHeader(tempDir, "0");
+    Assertions.assertNull(reader.readVersionFromHeader(tempDir));
+  }
+
+  @Test
+  void test_readVersionFromHeader_missing()
+  {
+    Assertions.assertNull(reader.readVersionFromHeader(tempDir));
+  }
+
+  @Test
+  void test_readVersionFromFolderName()
+  {
+    Assertions.assertEquals("v15.12.0", reader.readVersionFromFolderName(new File(tempDir, "node-v15.12.0-linux-x64")));
+    Assertions.assertEquals("v16.1.0", reader.readVersionFromFolderName(new File(tempDir, "node-v16.1.0-win-x64")));
+    Assertions.assertNull(reader.readVersionFromFolderName(new File(tempDir, "bundled_nodejs")));
+  }
+
+  private static void _writeHeader(File pInstallation, String pIsRelease) throws IOException
+  {
+    File header = new File(pInstallation, "include/node/node_version.h");
+    //noinspection ResultOfMethodCallIgnored
+    header.getParentFile().mkdirs();
+    Files.write(header.toPath(), ("#ifndef SRC_NODE_VERSION_H_\n" +
+        "#define SRC_NODE_VERSION_H_\n" +
+        "\n" +
+        "#define NODE_MAJOR_VERSION 16\n" +
+        "#define NODE_MINOR_VERSION 1\n" +
+        "#define NODE_PATCH_VERSION 0\n" +
+        "\n" +
+        "#define NODE_VERSION_IS_LTS 0\n" +
+        "#define NODE_VERSION_LTS_CODENAME \"\"\n" +
+        "\n" +
+        "#define NODE_VERSION_IS_RELEASE " + pIsRelease + "\n").getBytes(StandardCharsets.UTF_8));
+  }
+
+}